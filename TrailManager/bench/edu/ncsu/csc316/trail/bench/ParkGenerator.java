@@ -0,0 +1,157 @@
+package edu.ncsu.csc316.trail.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Writes synthetic files of Landmarks and Trails for benchmarks. The same topology, size
+ * and seed always give the same files, so runs on different days measure the same park.
+ * Descriptions repeat, so reports have ties to break by ID.
+ * @author Ben Morris
+ */
+public class ParkGenerator {
+	/** Types of Landmark, also used as the start of each description */
+	private static final String[] TYPES = {"Overlook", "Campsite", "Restrooms", "Fountain", "Trailhead",
+			"Waste Station", "Picnic Area", "Rock Formation"};
+	/** Shortest trail in feet */
+	private static final int MIN_LENGTH = 100;
+	/** Longest trail in feet */
+	private static final int MAX_LENGTH = 5000;
+
+	/**
+	 * Shape of the generated park
+	 */
+	public enum Topology {
+		/** Each Landmark joins one earlier Landmark, so there is exactly one route between two */
+		TREE,
+		/** Landmarks on a square grid, each joined to its right and lower neighbor */
+		GRID,
+		/** A ring through every Landmark plus a random chord for every two Landmarks */
+		LOOP
+	}
+
+	/**
+	 * Writes a park with the files named after its topology and size. Usage:
+	 * ParkGenerator topology size seed outputDirectory
+	 * @param args topology (tree, grid or loop), number of Landmarks, seed and directory
+	 * @throws IOException if a file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 4) {
+			System.out.println("Usage: ParkGenerator tree|grid|loop size seed outputDirectory");
+			return;
+		}
+		Topology topology = Topology.valueOf(args[0].toUpperCase());
+		int size = Integer.parseInt(args[1]);
+		long seed = Long.parseLong(args[2]);
+		Path directory = Paths.get(args[3]);
+		Files.createDirectories(directory);
+
+		String name = topology.name().toLowerCase() + "_" + size + "_" + seed + ".csv";
+		Path landmarkFile = directory.resolve("landmarks_" + name);
+		Path trailFile = directory.resolve("trails_" + name);
+		int trails = generate(topology, size, seed, landmarkFile, trailFile);
+		System.out.println("Wrote " + size + " landmarks to " + landmarkFile);
+		System.out.println("Wrote " + trails + " trails to " + trailFile);
+	}
+
+	/**
+	 * Writes the files of Landmarks and Trails of a park
+	 * @param topology shape of the park
+	 * @param size number of Landmarks, at least 1
+	 * @param seed seed of the random choices
+	 * @param landmarkFile file of Landmarks to write
+	 * @param trailFile file of Trails to write
+	 * @return number of trails written
+	 * @throws IOException if a file can't be written
+	 * @throws IllegalArgumentException if size is less than 1
+	 */
+	public static int generate(Topology topology, int size, long seed, Path landmarkFile, Path trailFile)
+			throws IOException {
+		if (size < 1)
+			throw new IllegalArgumentException("A park needs at least one landmark.");
+		Random random = new Random(seed);
+
+		// Landmarks, with about eight of each description
+		try (BufferedWriter out = Files.newBufferedWriter(landmarkFile, StandardCharsets.US_ASCII)) {
+			out.write("LANDMARK_ID,DESCRIPTION,TYPE\n");
+			for (int i = 0; i < size; i++) {
+				String type = TYPES[random.nextInt(TYPES.length)];
+				int number = 1 + random.nextInt(size / (TYPES.length * 8) + 1);
+				out.write(id(i) + "," + type + " " + number + "," + type + "\n");
+			}
+		}
+
+		// Trails
+		int trails = 0;
+		try (BufferedWriter out = Files.newBufferedWriter(trailFile, StandardCharsets.US_ASCII)) {
+			out.write("LANDMARK_ID,LANDMARK_ID,DISTANCE\n");
+			switch (topology) {
+			case TREE:
+				for (int i = 1; i < size; i++) {
+					writeTrail(out, random.nextInt(i), i, random);
+					trails++;
+				}
+				break;
+			case GRID:
+				int side = (int) Math.ceil(Math.sqrt(size));
+				for (int i = 0; i < size; i++) {
+					if (i % side + 1 < side && i + 1 < size) {
+						writeTrail(out, i, i + 1, random);
+						trails++;
+					}
+					if (i + side < size) {
+						writeTrail(out, i, i + side, random);
+						trails++;
+					}
+				}
+				break;
+			default:
+				for (int i = 1; i < size; i++) {
+					writeTrail(out, i - 1, i, random);
+					trails++;
+				}
+				if (size > 2) {
+					writeTrail(out, size - 1, 0, random);
+					trails++;
+				}
+				for (int i = 0; size > 1 && i < size / 2; i++) {
+					int one = random.nextInt(size);
+					int two = random.nextInt(size - 1);
+					// Skip over one so a chord never loops back to its start
+					writeTrail(out, one, two >= one ? two + 1 : two, random);
+					trails++;
+				}
+				break;
+			}
+		}
+		return trails;
+	}
+
+	/**
+	 * Writes one trail of random length
+	 * @param out file of Trails
+	 * @param one index of the first end point
+	 * @param two index of the second end point
+	 * @param random source of the length
+	 * @throws IOException if the trail can't be written
+	 */
+	private static void writeTrail(BufferedWriter out, int one, int two, Random random) throws IOException {
+		int length = MIN_LENGTH + random.nextInt(MAX_LENGTH - MIN_LENGTH + 1);
+		out.write(id(one) + "," + id(two) + "," + length + "\n");
+	}
+
+	/**
+	 * Returns the ID of the Landmark at an index
+	 * @param index index of the Landmark
+	 * @return the ID
+	 */
+	public static String id(int index) {
+		return "L" + (index + 1);
+	}
+}
@@ -0,0 +1,204 @@
+package edu.ncsu.csc316.trail.bench;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.trail.data.Landmark;
+import edu.ncsu.csc316.trail.dsa.Algorithm;
+import edu.ncsu.csc316.trail.dsa.DataStructure;
+import edu.ncsu.csc316.trail.manager.DsaConfiguration;
+import edu.ncsu.csc316.trail.manager.ReportManager;
+import edu.ncsu.csc316.trail.manager.TrailGraph;
+import edu.ncsu.csc316.trail.manager.TrailManager;
+
+/**
+ * JMH benchmarks of TrailManager construction and the report queries, for each choice
+ * of data structures and sorting algorithms on each shape of park. The park is either a
+ * pair of files or one written by ParkGenerator. Run them through the bench profile of
+ * the pom, for example:
+ *
+ * mvn -P bench compile exec:exec -Djmh.args="TrailBenchmark -p topology=GRID -p size=100000"
+ *
+ * By default every Map runs with both fast comparison sorters, with distance reports
+ * radix sorted and comparison sorted. The Map is only used by
+ * getDistancesToDestinations. The comparison sorter ranks the Landmarks during
+ * construction, and sorts getDistancesReport when it isn't radix sorted. distanceSort
+ * only changes getDistancesReport. getProposedFirstAidLocations reads buckets built
+ * during construction, so no choice changes it. BUBBLE_SORT, INSERTION_SORT and
+ * SELECTION_SORT are quadratic, so pass them with -p sorter only for small parks.
+ * @author Ben Morris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrailBenchmark {
+	/** Number of origins the queries cycle through, a power of two */
+	private static final int ORIGINS = 1024;
+
+	/** Shape of the generated park */
+	@Param({"TREE", "GRID", "LOOP"})
+	public ParkGenerator.Topology topology;
+	/** Number of Landmarks in the generated park */
+	@Param({"10000"})
+	public int size;
+	/** Seed of the generated park and of the origins */
+	@Param({"316"})
+	public long seed;
+	/** Map used by getDistancesToDestinations */
+	@Param({"SKIPLIST", "SEARCHTABLE", "UNORDEREDLINKEDMAP"})
+	public DataStructure map;
+	/** Comparison sorter for ranking and unradixed distance reports */
+	@Param({"MERGESORT", "QUICKSORT"})
+	public Algorithm sorter;
+	/** How distance reports are sorted, RADIX or COMPARISON */
+	@Param({"RADIX", "COMPARISON"})
+	public String distanceSort;
+	/** File of Landmarks to use instead of a generated park, with trails */
+	@Param({""})
+	public String landmarks;
+	/** File of Trails to use instead of a generated park, with landmarks */
+	@Param({""})
+	public String trails;
+
+	/** Configuration under test */
+	private DsaConfiguration config;
+	/** Reports of the park, with the report cache off */
+	private ReportManager rm;
+	/** The park */
+	private TrailManager tm;
+	/** IDs of the origins the queries cycle through */
+	private String[] origins;
+	/** Index of the next origin */
+	private int next;
+	/** Largest number of trails at one Landmark */
+	private int maxIntersections;
+	/** Directory of the generated park, or null if files were given */
+	private Path directory;
+
+	/**
+	 * Writes the park unless files were given, and loads it once for the queries
+	 * @throws IOException if the park can't be written or read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		config = new DsaConfiguration(map, sorter, distanceSort.equalsIgnoreCase("RADIX"));
+		if (landmarks.isEmpty() || trails.isEmpty()) {
+			directory = Files.createTempDirectory("trail-bench");
+			Path landmarkFile = directory.resolve("landmarks.csv");
+			Path trailFile = directory.resolve("trails.csv");
+			ParkGenerator.generate(topology, size, seed, landmarkFile, trailFile);
+			landmarks = landmarkFile.toString();
+			trails = trailFile.toString();
+		}
+
+		rm = new ReportManager(landmarks, trails, null, config, 0, 0);
+		tm = rm.getTrailManager();
+		origins = origins(tm.getTrailGraph(), ORIGINS, seed);
+		maxIntersections = Math.max(tm.getMaxIntersections(), 1);
+	}
+
+	/**
+	 * Deletes the generated park
+	 * @throws IOException if a file can't be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		if (directory != null) {
+			Files.delete(directory.resolve("landmarks.csv"));
+			Files.delete(directory.resolve("trails.csv"));
+			Files.delete(directory);
+			directory = null;
+			landmarks = "";
+			trails = "";
+		}
+	}
+
+	/**
+	 * Construction from the files, without a snapshot
+	 * @return the park
+	 * @throws FileNotFoundException if either file isn't found
+	 */
+	@Benchmark
+	public TrailManager construction() throws FileNotFoundException {
+		return new TrailManager(landmarks, trails, null, config);
+	}
+
+	/**
+	 * Distances from the next origin
+	 * @return the distances
+	 */
+	@Benchmark
+	public Map<Landmark, Integer> getDistancesToDestinations() {
+		return tm.getDistancesToDestinations(nextOrigin());
+	}
+
+	/**
+	 * Distances report from the next origin
+	 * @return the report
+	 */
+	@Benchmark
+	public String getDistancesReport() {
+		return rm.getDistancesReport(nextOrigin());
+	}
+
+	/**
+	 * First aid reports for every number of intersecting trails in the park
+	 * @param blackhole consumes each report
+	 * @throws FileNotFoundException never, the park is already loaded
+	 */
+	@Benchmark
+	public void getProposedFirstAidLocations(Blackhole blackhole) throws FileNotFoundException {
+		for (int k = 1; k <= maxIntersections; k++) {
+			blackhole.consume(rm.getProposedFirstAidLocations(k));
+		}
+	}
+
+	/**
+	 * Returns the next origin, cycling through the chosen ones
+	 * @return ID of the origin
+	 */
+	private String nextOrigin() {
+		String origin = origins[next];
+		next = (next + 1) & (ORIGINS - 1);
+		return origin;
+	}
+
+	/**
+	 * Picks origins at random from the Landmarks of a park
+	 * @param graph park to pick from
+	 * @param count number of origins
+	 * @param seed seed of the choices
+	 * @return IDs of the origins
+	 */
+	private static String[] origins(TrailGraph graph, int count, long seed) {
+		Random random = new Random(seed);
+		String[] origins = new String[count];
+		for (int i = 0; i < count; i++) {
+			origins[i] = graph.getLandmark(random.nextInt(graph.size())).getId();
+		}
+		return origins;
+	}
+}
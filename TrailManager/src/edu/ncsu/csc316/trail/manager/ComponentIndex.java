@@ -0,0 +1,104 @@
+package edu.ncsu.csc316.trail.manager;
+
+/**
+ * The connected components of a TrailGraph: which Landmarks can reach each other by
+ * trail, and how many Landmarks each group holds. Whether two Landmarks are connected,
+ * and how many Landmarks a distance report will list, are then answered in O(1) without
+ * a traversal. The index is built with union-find over every trail, and describes the
+ * graph exactly as it was when built.
+ * @author Ben Morris
+ */
+public class ComponentIndex {
+	/** Component of each ordinal, or -1 for a removed Landmark */
+	private final int[] components;
+	/** Number of Landmarks in each component */
+	private final int[] sizes;
+
+	/**
+	 * Constructor. Joins the end points of every trail, then numbers the components.
+	 * @param graph graph to index
+	 */
+	public ComponentIndex(TrailGraph graph) {
+		int size = graph.size();
+		int[] parent = new int[size];
+		for (int o = 0; o < size; o++) {
+			parent[o] = o;
+		}
+
+		// Each trail is in the rows of both end points, so join from the lower one only
+		for (int o = 0; o < size; o++) {
+			for (int edge = graph.edgeStart(o); edge < graph.edgeEnd(o); edge++) {
+				int next = graph.neighbor(edge);
+				if (next > o) {
+					int rootOne = TrailGraph.find(parent, o);
+					int rootTwo = TrailGraph.find(parent, next);
+					if (rootOne != rootTwo)
+						parent[rootOne] = rootTwo;
+				}
+			}
+		}
+
+		// Number the roots in ordinal order and count the Landmarks under each
+		components = new int[size];
+		int[] numbers = new int[size];
+		int count = 0;
+		for (int o = 0; o < size; o++) {
+			if (graph.getLandmark(o) != null && parent[o] == o)
+				numbers[o] = count++;
+		}
+		sizes = new int[count];
+		for (int o = 0; o < size; o++) {
+			if (graph.getLandmark(o) == null) {
+				components[o] = -1;
+			} else {
+				components[o] = numbers[TrailGraph.find(parent, o)];
+				sizes[components[o]]++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of components
+	 * @return number of components
+	 */
+	public int count() {
+		return sizes.length;
+	}
+
+	/**
+	 * Returns the component of a Landmark
+	 * @param ordinal ordinal of the Landmark
+	 * @return component from 0, or -1 if the Landmark was removed
+	 */
+	public int component(int ordinal) {
+		return components[ordinal];
+	}
+
+	/**
+	 * Returns the number of Landmarks in a component
+	 * @param component the component
+	 * @return number of Landmarks
+	 */
+	public int size(int component) {
+		return sizes[component];
+	}
+
+	/**
+	 * Returns the number of Landmarks that can be reached from a Landmark, itself included
+	 * @param ordinal ordinal of the Landmark
+	 * @return number of Landmarks, or 0 if the Landmark was removed
+	 */
+	public int componentSize(int ordinal) {
+		return components[ordinal] < 0 ? 0 : sizes[components[ordinal]];
+	}
+
+	/**
+	 * Returns true if there is a route between two Landmarks. A Landmark can reach itself.
+	 * @param one ordinal of one Landmark
+	 * @param two ordinal of the other Landmark
+	 * @return true if both Landmarks exist and are connected
+	 */
+	public boolean isReachable(int one, int two) {
+		return components[one] >= 0 && components[one] == components[two];
+	}
+}
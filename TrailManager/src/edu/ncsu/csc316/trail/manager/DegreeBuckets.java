@@ -0,0 +1,84 @@
+package edu.ncsu.csc316.trail.manager;
+
+/**
+ * Landmarks that intersect at least one trail, bucketed by their number of intersecting
+ * trails. Each bucket is in order of description, then ID, when the index is built, and
+ * the buckets are laid out from the most intersections down. The Landmarks with at least
+ * k intersecting trails are then a prefix of the layout, already in report order, so a
+ * query costs O(answer) and never sorts.
+ * @author Ben Morris
+ */
+public class DegreeBuckets {
+	/** Ordinals by descending number of intersecting trails, then description, then ID */
+	private final int[] order;
+	/** atLeast[d] is the number of Landmarks with d or more intersecting trails */
+	private final int[] atLeast;
+
+	/**
+	 * Constructor. Deals the Landmarks into buckets by number of intersecting trails in
+	 * order of description rank, which is a counting sort on the key of inverted number
+	 * of trails, then rank.
+	 * @param graph graph to index
+	 * @param ranks rank of each Landmark by description, then ID
+	 */
+	public DegreeBuckets(TrailGraph graph, DescriptionRanks ranks) {
+		int maxDegree = graph.getMaxDegree();
+
+		// How many Landmarks have each number of trails
+		int[] counts = new int[maxDegree + 2];
+		for (int r = 0; r < ranks.size(); r++) {
+			counts[graph.degree(ranks.ordinal(r))]++;
+		}
+
+		// The bucket for d trails starts after every Landmark with more
+		atLeast = new int[maxDegree + 2];
+		for (int d = maxDegree; d >= 1; d--) {
+			atLeast[d] = atLeast[d + 1] + counts[d];
+		}
+		atLeast[0] = atLeast[1];
+		int[] starts = new int[maxDegree + 2];
+		for (int d = 1; d <= maxDegree; d++) {
+			starts[d] = atLeast[d + 1];
+		}
+
+		// Deal the Landmarks with trails into their buckets in description order
+		order = new int[atLeast[1]];
+		for (int r = 0; r < ranks.size(); r++) {
+			int o = ranks.ordinal(r);
+			if (graph.degree(o) > 0)
+				order[starts[graph.degree(o)]++] = o;
+		}
+	}
+
+	/**
+	 * Returns the number of Landmarks with at least minTrails intersecting trails. A
+	 * Landmark with no trails is never counted.
+	 * @param minTrails minimum number of intersecting trails
+	 * @return number of Landmarks
+	 */
+	public int count(int minTrails) {
+		if (minTrails >= atLeast.length)
+			return 0;
+		return atLeast[Math.max(minTrails, 0)];
+	}
+
+	/**
+	 * Returns the ordinal at a position of the report order
+	 * @param index position, from 0 for the Landmark with the most intersecting trails
+	 * @return ordinal of the Landmark
+	 */
+	public int ordinal(int index) {
+		return order[index];
+	}
+
+	/**
+	 * Returns the ordinals of the Landmarks with at least minTrails intersecting trails
+	 * @param minTrails minimum number of intersecting trails
+	 * @return ordinals by descending number of intersecting trails, then description, then ID
+	 */
+	public int[] ordinals(int minTrails) {
+		int[] ordinals = new int[count(minTrails)];
+		System.arraycopy(order, 0, ordinals, 0, ordinals.length);
+		return ordinals;
+	}
+}
@@ -0,0 +1,97 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Comparator;
+
+import edu.ncsu.csc316.dsa.sorter.Sorter;
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * The rank of each Landmark in order of description, then ID. Reports break ties by
+ * description and ID, so once the Landmarks are ranked a tie is broken by comparing two
+ * ints, and a report line can be ordered by a single numeric key such as its distance
+ * followed by its rank. The Landmarks are sorted once when the ranks are built.
+ * @author Ben Morris
+ */
+public class DescriptionRanks {
+	/** Ordinals of the Landmarks by description, then ID */
+	private final int[] order;
+	/** Rank of each ordinal, or -1 for a removed Landmark */
+	private final int[] ranks;
+
+	/**
+	 * Constructor. Sorts the Landmarks of the graph by description, then ID.
+	 * @param graph graph to rank the Landmarks of
+	 * @param config data structures to sort with
+	 */
+	public DescriptionRanks(final TrailGraph graph, DsaConfiguration config) {
+		// Every Landmark that hasn't been removed
+		int size = 0;
+		for (int o = 0; o < graph.size(); o++) {
+			if (graph.getLandmark(o) != null)
+				size++;
+		}
+		Integer[] byDescription = new Integer[size];
+		int next = 0;
+		for (int o = 0; o < graph.size(); o++) {
+			if (graph.getLandmark(o) != null)
+				byDescription[next++] = o;
+		}
+
+		// Sort by description, then ID
+		Sorter<Integer> sorter = config.getComparisonSorter(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer one, Integer two) {
+				return DescriptionRanks.compare(graph.getLandmark(one), graph.getLandmark(two));
+			}
+		});
+		sorter.sort(byDescription);
+
+		// Number the Landmarks in sorted order
+		order = new int[size];
+		ranks = new int[graph.size()];
+		for (int o = 0; o < ranks.length; o++) {
+			ranks[o] = -1;
+		}
+		for (int r = 0; r < size; r++) {
+			order[r] = byDescription[r];
+			ranks[order[r]] = r;
+		}
+	}
+
+	/**
+	 * Compares two Landmarks by description, then ID, the order the ranks are in
+	 * @param one first Landmark
+	 * @param two second Landmark
+	 * @return negative if one comes first, positive if two comes first, 0 if they are equal
+	 */
+	public static int compare(Landmark one, Landmark two) {
+		int c = one.getDescription().compareTo(two.getDescription());
+		return c != 0 ? c : one.getId().compareTo(two.getId());
+	}
+
+	/**
+	 * Returns the number of ranked Landmarks
+	 * @return number of Landmarks
+	 */
+	public int size() {
+		return order.length;
+	}
+
+	/**
+	 * Returns the rank of a Landmark
+	 * @param ordinal ordinal of the Landmark
+	 * @return rank from 0 for the first description, or -1 if the Landmark was removed
+	 */
+	public int rank(int ordinal) {
+		return ranks[ordinal];
+	}
+
+	/**
+	 * Returns the Landmark with a rank
+	 * @param rank rank of the Landmark
+	 * @return ordinal of the Landmark
+	 */
+	public int ordinal(int rank) {
+		return order[rank];
+	}
+}
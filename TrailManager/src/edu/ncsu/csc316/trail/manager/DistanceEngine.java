@@ -0,0 +1,260 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+
+/**
+ * Computes the shortest trail distances from an origin Landmark to every reachable
+ * Landmark of a TrailGraph. The traversal is iterative, so long linear greenways cannot
+ * overflow the thread stack. Networks with loops are searched with a heap-based Dijkstra
+ * in O(E log V). Networks without loops take a linear fast path, since the first route
+ * found to a Landmark is the only one.
+ *
+ * Routes are added up in long arithmetic and saturate at MAX_DISTANCE, so a park whose
+ * routes are longer than an int holds can't wrap a distance around to a negative or a
+ * shorter one. Every distance below MAX_DISTANCE is exact.
+ * @author Ben Morris
+ */
+public class DistanceEngine {
+	/** Distance recorded for a Landmark that cannot be reached */
+	public static final int UNREACHABLE = -1;
+	/** Longest distance recorded. A route at least this long is recorded as this */
+	public static final int MAX_DISTANCE = Integer.MAX_VALUE;
+	/** Graph to search */
+	private final TrailGraph graph;
+	/** Where the time and work of each search is recorded */
+	private final TrailMetrics metrics;
+
+	/**
+	 * Constructor
+	 * @param graph graph to search
+	 */
+	public DistanceEngine(TrailGraph graph) {
+		this(graph, new TrailMetrics());
+	}
+
+	/**
+	 * Constructor
+	 * @param graph graph to search
+	 * @param metrics where the time and work of each search is recorded
+	 */
+	public DistanceEngine(TrailGraph graph, TrailMetrics metrics) {
+		this.graph = graph;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns the distance from the origin to each ordinal of the graph. The origin has
+	 * distance 0 and Landmarks that cannot be reached have distance UNREACHABLE.
+	 * @param origin ordinal of the origin Landmark
+	 * @return distance to each ordinal, indexed by ordinal
+	 */
+	public int[] getDistances(int origin) {
+		long start = System.nanoTime();
+		int[] distances = new int[graph.size()];
+		Arrays.fill(distances, UNREACHABLE);
+		distances[origin] = 0;
+
+		if (graph.isForest())
+			searchTree(origin, distances);
+		else
+			searchDijkstra(origin, distances);
+		metrics.record(TrailMetrics.Phase.TRAVERSAL, System.nanoTime() - start);
+		return distances;
+	}
+
+	/**
+	 * Walks a network without loops with an explicit stack. Each Landmark is reached
+	 * once, by its only route, so its distance is final when it is first seen.
+	 * @param origin ordinal of the origin Landmark
+	 * @param distances distance to each ordinal, updated in place
+	 */
+	private void searchTree(int origin, int[] distances) {
+		// A Landmark is pushed at most once, so the stack never outgrows the graph
+		int[] stack = new int[graph.size()];
+		int top = 0;
+		stack[top++] = origin;
+		int visited = 0;
+		int scanned = 0;
+
+		while (top > 0) {
+			int current = stack[--top];
+			visited++;
+			scanned += graph.edgeEnd(current) - graph.edgeStart(current);
+			for (int edge = graph.edgeStart(current); edge < graph.edgeEnd(current); edge++) {
+				int next = graph.neighbor(edge);
+				if (distances[next] == UNREACHABLE) {
+					distances[next] = extend(distances[current], graph.length(edge));
+					stack[top++] = next;
+				}
+			}
+		}
+		metrics.recordVisits(visited, scanned);
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm with lazy deletion. A Landmark may be in the heap more
+	 * than once; entries that are longer than the settled distance are skipped.
+	 * @param origin ordinal of the origin Landmark
+	 * @param distances distance to each ordinal, updated in place
+	 */
+	private void searchDijkstra(int origin, int[] distances) {
+		boolean[] settled = new boolean[graph.size()];
+		LongMinHeap heap = new LongMinHeap(16);
+		heap.add(LongMinHeap.pack(0, origin));
+		int visited = 0;
+		int scanned = 0;
+
+		while (!heap.isEmpty()) {
+			long entry = heap.removeMin();
+			int current = LongMinHeap.ordinal(entry);
+			if (settled[current])
+				continue;
+			settled[current] = true;
+			visited++;
+			scanned += graph.edgeEnd(current) - graph.edgeStart(current);
+
+			int distance = LongMinHeap.distance(entry);
+			for (int edge = graph.edgeStart(current); edge < graph.edgeEnd(current); edge++) {
+				int next = graph.neighbor(edge);
+				int candidate = extend(distance, graph.length(edge));
+				if (!settled[next] && (distances[next] == UNREACHABLE || candidate < distances[next])) {
+					distances[next] = candidate;
+					heap.add(LongMinHeap.pack(candidate, next));
+				}
+			}
+		}
+		metrics.recordVisits(visited, scanned);
+	}
+
+	/**
+	 * Returns the distance from each ordinal of the graph to the nearest of a set of
+	 * origins, with one Dijkstra search seeded with every origin at distance 0. Each
+	 * Landmark is settled once however many origins there are, so the search is
+	 * O(E log V). Landmarks that cannot reach any origin have distance UNREACHABLE.
+	 * @param origins ordinals of the origin Landmarks
+	 * @param nearest filled with the nearest origin of each ordinal, the lowest ordinal of
+	 * 		  any tie, or UNREACHABLE
+	 * @return distance to the nearest origin, indexed by ordinal
+	 */
+	public int[] getNearestDistances(int[] origins, int[] nearest) {
+		long start = System.nanoTime();
+		int[] distances = new int[graph.size()];
+		Arrays.fill(distances, UNREACHABLE);
+		Arrays.fill(nearest, UNREACHABLE);
+		LongMinHeap heap = new LongMinHeap(Math.max(16, origins.length));
+		for (int origin : origins) {
+			if (distances[origin] == UNREACHABLE)
+				heap.add(LongMinHeap.pack(0, origin));
+			distances[origin] = 0;
+			nearest[origin] = origin;
+		}
+
+		// Even a network without loops needs the heap, since routes from two origins meet
+		boolean[] settled = new boolean[graph.size()];
+		int visited = 0;
+		int scanned = 0;
+		while (!heap.isEmpty()) {
+			long entry = heap.removeMin();
+			int current = LongMinHeap.ordinal(entry);
+			if (settled[current])
+				continue;
+			settled[current] = true;
+			visited++;
+			scanned += graph.edgeEnd(current) - graph.edgeStart(current);
+
+			int distance = LongMinHeap.distance(entry);
+			for (int edge = graph.edgeStart(current); edge < graph.edgeEnd(current); edge++) {
+				int next = graph.neighbor(edge);
+				int candidate = extend(distance, graph.length(edge));
+				if (settled[next])
+					continue;
+				if (distances[next] == UNREACHABLE || candidate < distances[next]) {
+					distances[next] = candidate;
+					nearest[next] = nearest[current];
+					heap.add(LongMinHeap.pack(candidate, next));
+				} else if (candidate == distances[next] && nearest[current] < nearest[next]) {
+					// An equally short route from a lower origin wins the tie
+					nearest[next] = nearest[current];
+				}
+			}
+		}
+		metrics.recordVisits(visited, scanned);
+		metrics.record(TrailMetrics.Phase.TRAVERSAL, System.nanoTime() - start);
+		return distances;
+	}
+
+	/**
+	 * Returns the shortest distance between two Landmarks using bidirectional Dijkstra.
+	 * One search grows from each end, always advancing the one with the closer frontier,
+	 * and the search stops once the two frontiers together are at least as long as the
+	 * best meeting route found. Only the Landmarks around the route are visited.
+	 * @param origin ordinal of the origin Landmark
+	 * @param destination ordinal of the destination Landmark
+	 * @return shortest distance, or UNREACHABLE if there is no route
+	 */
+	public int getDistance(int origin, int destination) {
+		if (origin == destination)
+			return 0;
+		long start = System.nanoTime();
+
+		// Search state for the forward (index 0) and backward (index 1) searches
+		int[][] distances = {new int[graph.size()], new int[graph.size()]};
+		boolean[][] seen = {new boolean[graph.size()], new boolean[graph.size()]};
+		boolean[][] settled = {new boolean[graph.size()], new boolean[graph.size()]};
+		LongMinHeap[] heaps = {new LongMinHeap(16), new LongMinHeap(16)};
+		seen[0][origin] = true;
+		seen[1][destination] = true;
+		heaps[0].add(LongMinHeap.pack(0, origin));
+		heaps[1].add(LongMinHeap.pack(0, destination));
+
+		// Length of the shortest route found through a Landmark seen by both searches
+		long best = Long.MAX_VALUE;
+		int visited = 0;
+		int scanned = 0;
+		while (!heaps[0].isEmpty() && !heaps[1].isEmpty()) {
+			long frontier0 = LongMinHeap.distance(heaps[0].peekMin());
+			long frontier1 = LongMinHeap.distance(heaps[1].peekMin());
+			// No unsettled Landmark can lie on a shorter route
+			if (frontier0 + frontier1 >= best)
+				break;
+
+			int side = frontier0 <= frontier1 ? 0 : 1;
+			int other = 1 - side;
+			long entry = heaps[side].removeMin();
+			int current = LongMinHeap.ordinal(entry);
+			if (settled[side][current])
+				continue;
+			settled[side][current] = true;
+			visited++;
+			scanned += graph.edgeEnd(current) - graph.edgeStart(current);
+
+			int distance = LongMinHeap.distance(entry);
+			for (int edge = graph.edgeStart(current); edge < graph.edgeEnd(current); edge++) {
+				int next = graph.neighbor(edge);
+				int candidate = extend(distance, graph.length(edge));
+				if (!settled[side][next] && (!seen[side][next] || candidate < distances[side][next])) {
+					seen[side][next] = true;
+					distances[side][next] = candidate;
+					heaps[side].add(LongMinHeap.pack(candidate, next));
+				}
+				// A Landmark reached from both ends joins the two halves of a route
+				if (seen[other][next])
+					best = Math.min(best, (long) candidate + distances[other][next]);
+			}
+		}
+		metrics.recordVisits(visited, scanned);
+		metrics.record(TrailMetrics.Phase.TRAVERSAL, System.nanoTime() - start);
+		return best == Long.MAX_VALUE ? UNREACHABLE : (int) Math.min(best, MAX_DISTANCE);
+	}
+
+	/**
+	 * Returns the length of a route extended by one trail, saturating at MAX_DISTANCE
+	 * @param distance length of the route so far, at most MAX_DISTANCE
+	 * @param length non-negative length of the trail
+	 * @return the sum, or MAX_DISTANCE if it is at least that long
+	 */
+	static int extend(int distance, int length) {
+		long sum = (long) distance + length;
+		return sum < MAX_DISTANCE ? (int) sum : MAX_DISTANCE;
+	}
+}
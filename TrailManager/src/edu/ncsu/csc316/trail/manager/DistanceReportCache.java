@@ -0,0 +1,212 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import edu.ncsu.csc316.trail.manager.ReportManager.DistanceListEntry;
+
+/**
+ * Least-recently-used cache of distance reports keyed by origin Landmark ID. Each entry
+ * holds the sorted distance results and, once it has been rendered as a String, the
+ * report. A streamed report is cached with its distances only. The cache is bounded both
+ * by number of entries and by an estimate of the bytes the entries hold. Entries are
+ * tagged with the version of the park data they were computed from, and the whole cache
+ * is dropped the first time it is used with a newer version. A caller still working
+ * with an older version, such as a batch that pinned it before an update, bypasses the
+ * cache, so it can neither read newer reports nor replace them with stale ones.
+ * @author Ben Morris
+ */
+public class DistanceReportCache {
+	/** Estimated bytes of bookkeeping for each cached origin */
+	private static final long ENTRY_OVERHEAD = 96;
+	/** Estimated bytes for each sorted distance result */
+	private static final long RESULT_BYTES = 32;
+
+	/** Maximum number of origins held */
+	private final int maxEntries;
+	/** Maximum estimated bytes held */
+	private final long maxBytes;
+	/** Cached reports in least- to most-recently used order */
+	private final LinkedHashMap<String, CachedReport> reports;
+	/** Version of the park data the cached reports were computed from */
+	private long version;
+	/** Estimated bytes currently held */
+	private long bytes;
+	/** Number of lookups that found a report */
+	private long hits;
+	/** Number of lookups that did not find a report */
+	private long misses;
+	/** Number of reports evicted to stay within budget */
+	private long evictions;
+
+	/**
+	 * Constructor
+	 * @param maxEntries maximum number of origins held. 0 disables caching
+	 * @param maxBytes maximum estimated bytes held
+	 * @throws IllegalArgumentException if either budget is negative
+	 */
+	public DistanceReportCache(int maxEntries, long maxBytes) {
+		if (maxEntries < 0 || maxBytes < 0)
+			throw new IllegalArgumentException("Cache budget cannot be negative.");
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		// Access order keeps the least recently used report first
+		this.reports = new LinkedHashMap<String, CachedReport>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the cached report for an origin, counting a hit or a miss
+	 * @param origin origin Landmark ID
+	 * @param dataVersion version of the park data the caller is working with
+	 * @return cached report, or null if there is none for this version
+	 */
+	public synchronized CachedReport get(String origin, long dataVersion) {
+		CachedReport report = checkVersion(dataVersion) ? reports.get(origin) : null;
+		if (report == null)
+			misses++;
+		else
+			hits++;
+		return report;
+	}
+
+	/**
+	 * Caches a report, evicting the least recently used reports until the cache is
+	 * within budget. A report larger than the whole byte budget, or from an older version
+	 * than the cache holds, is not cached.
+	 * @param origin origin Landmark ID
+	 * @param dataVersion version of the park data the report was computed from
+	 * @param distances distance results in report order
+	 * @param report rendered report, or null if only the distances are cached
+	 */
+	public synchronized void put(String origin, long dataVersion, DistanceListEntry[] distances, String report) {
+		if (!checkVersion(dataVersion))
+			return;
+		CachedReport cached = new CachedReport(distances, report);
+		if (maxEntries == 0 || cached.bytes > maxBytes)
+			return;
+
+		CachedReport old = reports.put(origin, cached);
+		if (old != null)
+			bytes -= old.bytes;
+		bytes += cached.bytes;
+
+		// Evict from the least recently used end
+		Iterator<CachedReport> it = reports.values().iterator();
+		while (reports.size() > maxEntries || bytes > maxBytes) {
+			bytes -= it.next().bytes;
+			it.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Drops every cached report if the park data has changed since they were cached.
+	 * Versions only move forward, so an older version leaves the cache alone.
+	 * @param dataVersion version of the park data the caller is working with
+	 * @return true if the cache holds dataVersion, false if dataVersion is older
+	 */
+	private boolean checkVersion(long dataVersion) {
+		if (dataVersion > version) {
+			clear();
+			version = dataVersion;
+		}
+		return dataVersion == version;
+	}
+
+	/**
+	 * Drops every cached report. The hit and miss counters are kept.
+	 */
+	public synchronized void clear() {
+		reports.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Returns the number of cached origins
+	 * @return number of cached origins
+	 */
+	public synchronized int size() {
+		return reports.size();
+	}
+
+	/**
+	 * Returns the estimated bytes held
+	 * @return estimated bytes held
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Returns the number of lookups that found a report
+	 * @return number of hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a report
+	 * @return number of misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of reports evicted to stay within budget
+	 * @return number of evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Sorted distance results and, if it has been rendered, the report for one origin
+	 * @author Ben Morris
+	 */
+	public static class CachedReport {
+		/** Distance results in report order */
+		private final DistanceListEntry[] distances;
+		/** Rendered report */
+		private final String report;
+		/** Estimated bytes held */
+		private final long bytes;
+
+		/**
+		 * Constructor
+		 * @param distances distance results in report order
+		 * @param report rendered report, or null if it hasn't been rendered
+		 */
+		CachedReport(DistanceListEntry[] distances, String report) {
+			this.distances = distances;
+			this.report = report;
+			this.bytes = ENTRY_OVERHEAD + RESULT_BYTES * distances.length
+					+ (report == null ? 0 : 2L * report.length());
+		}
+
+		/**
+		 * Returns the distance results in report order
+		 * @return distance results
+		 */
+		DistanceListEntry[] getDistances() {
+			return distances;
+		}
+
+		/**
+		 * Returns the rendered report
+		 * @return the report, or null if only the distances were cached
+		 */
+		public String getReport() {
+			return report;
+		}
+
+		/**
+		 * Returns the estimated bytes held
+		 * @return estimated bytes
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Comparator;
+
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.dsa.map.SearchTableMap;
+import edu.ncsu.csc316.dsa.map.SkipListMap;
+import edu.ncsu.csc316.dsa.map.UnorderedLinkedMap;
+import edu.ncsu.csc316.dsa.sorter.BubbleSorter;
+import edu.ncsu.csc316.dsa.sorter.InsertionSorter;
+import edu.ncsu.csc316.dsa.sorter.MergeSorter;
+import edu.ncsu.csc316.dsa.sorter.QuickSorter;
+import edu.ncsu.csc316.dsa.sorter.SelectionSorter;
+import edu.ncsu.csc316.dsa.sorter.Sorter;
+import edu.ncsu.csc316.trail.dsa.Algorithm;
+import edu.ncsu.csc316.trail.dsa.DataStructure;
+
+/**
+ * Choice of data structures and sorting algorithms for one park. It offers the choices
+ * of DSAFactory that the reports actually use, but each ReportManager holds its own
+ * instead of setting the factory's global types, so parks with different choices can
+ * be served in one JVM. A DsaConfiguration is immutable and can be shared between
+ * threads.
+ *
+ * The Map type is the Map of distances returned by getDistancesToDestinations. The
+ * comparison sorter ranks the Landmarks by description, and sorts distance reports
+ * unless they are radix sorted on packed keys of distance and description rank.
+ *
+ * UNORDEREDLINKEDMAP moves each Entry it finds to the front of its list, so its get
+ * is not safe to call from several threads at once. The other Maps only change on put
+ * and remove.
+ *
+ * ADAPTIVE leaves two choices until the park is loaded, the Map and radix sorting, and
+ * always sorts with MergeSorter. Both depend on how many Landmarks intersect a trail,
+ * since only those can be reached from an origin, so only they fill the Map of distances
+ * or a distance report. The thresholds are where TrailBenchmark measured the crossovers
+ * on grid and tree parks. The choice made is the configuration of the loaded
+ * TrailNetwork, so it can be logged and then passed in to pin it.
+ * @author Ben Morris
+ */
+public class DsaConfiguration {
+	/** The choices ReportManager has always used */
+	public static final DsaConfiguration DEFAULT = new DsaConfiguration(DataStructure.SKIPLIST,
+			Algorithm.MERGESORT, true);
+	/** Choose the data structures from the park once it is loaded */
+	public static final DsaConfiguration ADAPTIVE = new DsaConfiguration(DataStructure.SKIPLIST,
+			Algorithm.MERGESORT, true, true, false);
+	/**
+	 * Parks with at most this many Landmarks on trails return distances in a
+	 * SearchTableMap. It was faster up to 1024 reachable Landmarks and about half as
+	 * fast at 2048, where shifting the table on each put overtakes the skip list.
+	 */
+	static final int SEARCH_TABLE_DISTANCES = 1024;
+	/**
+	 * Parks with at least this many Landmarks on trails radix sort their reports. Radix
+	 * sorting was ahead from 32 reachable Landmarks and even at 16.
+	 */
+	static final int RADIX_REPORTS = 32;
+
+	/** Type of Map */
+	private final DataStructure mapType;
+	/** Comparison sorting algorithm */
+	private final Algorithm comparisonSorterType;
+	/** True if distance reports are radix sorted instead of with the comparison sorter */
+	private final boolean radixSorted;
+	/** True if the choices are made when the park is loaded */
+	private final boolean adaptive;
+	/** True if ADAPTIVE made these choices for a loaded park */
+	private final boolean chosen;
+
+	/**
+	 * Constructor
+	 * @param mapType type of Map: SKIPLIST, SEARCHTABLE or UNORDEREDLINKEDMAP
+	 * @param comparisonSorterType comparison sorting algorithm
+	 * @param radixSorted true to radix sort distance reports, false to sort them with the
+	 * 		  comparison sorter
+	 * @throws IllegalArgumentException if a choice is of the wrong kind
+	 */
+	public DsaConfiguration(DataStructure mapType, Algorithm comparisonSorterType, boolean radixSorted) {
+		this(mapType, comparisonSorterType, radixSorted, false, false);
+	}
+
+	/**
+	 * Constructor
+	 * @param mapType type of Map
+	 * @param comparisonSorterType comparison sorting algorithm
+	 * @param radixSorted true to radix sort distance reports
+	 * @param adaptive true if the choices are made when the park is loaded
+	 * @param chosen true if ADAPTIVE made the choices for a loaded park
+	 * @throws IllegalArgumentException if a choice is of the wrong kind
+	 */
+	private DsaConfiguration(DataStructure mapType, Algorithm comparisonSorterType, boolean radixSorted,
+			boolean adaptive, boolean chosen) {
+		if (mapType != DataStructure.SKIPLIST && mapType != DataStructure.SEARCHTABLE
+				&& mapType != DataStructure.UNORDEREDLINKEDMAP)
+			throw new IllegalArgumentException("Invalid Map type: " + mapType);
+		if (comparisonSorterType == null || comparisonSorterType == Algorithm.COUNTING_SORT
+				|| comparisonSorterType == Algorithm.RADIX_SORT)
+			throw new IllegalArgumentException("Invalid comparison sorter type: " + comparisonSorterType);
+		this.mapType = mapType;
+		this.comparisonSorterType = comparisonSorterType;
+		this.radixSorted = radixSorted;
+		this.adaptive = adaptive;
+		this.chosen = chosen;
+	}
+
+	/**
+	 * Returns true if the choices are made when the park is loaded
+	 * @return true for ADAPTIVE
+	 */
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * Returns the configuration to serve a loaded park with. A fixed configuration
+	 * returns itself.
+	 * @param graph the loaded park
+	 * @return the configuration
+	 */
+	public DsaConfiguration forPark(TrailGraph graph) {
+		if (!adaptive)
+			return this;
+
+		// Landmarks with no trails are never reached, so they are never in the Map or a
+		// report, however many of them there are
+		int onTrails = 0;
+		for (int o = 0; o < graph.size(); o++) {
+			if (graph.degree(o) > 0)
+				onTrails++;
+		}
+		return forPark(onTrails);
+	}
+
+	/**
+	 * Chooses the configuration for a park
+	 * @param onTrails number of Landmarks that intersect at least one trail
+	 * @return the configuration
+	 */
+	private DsaConfiguration forPark(int onTrails) {
+		// A small sorted table is filled faster than a skip list is walked, and both are
+		// safe to read from many threads
+		DataStructure map = onTrails <= SEARCH_TABLE_DISTANCES ? DataStructure.SEARCHTABLE : DataStructure.SKIPLIST;
+		// Radix sorting pays off once a report can be long enough to cover its passes
+		return new DsaConfiguration(map, Algorithm.MERGESORT, onTrails >= RADIX_REPORTS, false, true);
+	}
+
+	/**
+	 * Returns a new, empty Map
+	 * @param <K> type of key
+	 * @param <V> type of value
+	 * @param comparator order of the keys, or null for their natural order
+	 * @return the Map
+	 */
+	public <K extends Comparable<K>, V> Map<K, V> getMap(Comparator<K> comparator) {
+		if (mapType == DataStructure.SEARCHTABLE)
+			return new SearchTableMap<K, V>(comparator);
+		if (mapType == DataStructure.UNORDEREDLINKEDMAP)
+			return new UnorderedLinkedMap<K, V>();
+		return new SkipListMap<K, V>(comparator);
+	}
+
+	/**
+	 * Returns a new comparison Sorter
+	 * @param <E> type of element
+	 * @param comparator order to sort in, or null for natural order
+	 * @return the Sorter
+	 */
+	public <E extends Comparable<E>> Sorter<E> getComparisonSorter(Comparator<E> comparator) {
+		switch (comparisonSorterType) {
+		case BUBBLE_SORT:
+			return new BubbleSorter<E>(comparator);
+		case INSERTION_SORT:
+			return new InsertionSorter<E>(comparator);
+		case SELECTION_SORT:
+			return new SelectionSorter<E>(comparator);
+		case QUICKSORT:
+			return new QuickSorter<E>(comparator);
+		default:
+			return new MergeSorter<E>(comparator);
+		}
+	}
+
+	/**
+	 * Returns the type of Map
+	 * @return the type of Map
+	 */
+	public DataStructure getMapType() {
+		return mapType;
+	}
+
+	/**
+	 * Returns the comparison sorting algorithm
+	 * @return the comparison sorting algorithm
+	 */
+	public Algorithm getComparisonSorterType() {
+		return comparisonSorterType;
+	}
+
+	/**
+	 * Returns true if distance reports are radix sorted on packed keys of distance and
+	 * description rank, false if they are sorted with the comparison sorter
+	 * @return true for radix sorting
+	 */
+	public boolean isRadixSorted() {
+		return radixSorted;
+	}
+
+	@Override
+	public String toString() {
+		if (adaptive)
+			return "adaptive, not yet chosen for a park";
+		String choices = "map=" + mapType + ", comparisonSorter=" + comparisonSorterType + ", radixSorted=" + radixSorted;
+		return chosen ? "adaptive: " + choices : choices;
+	}
+}
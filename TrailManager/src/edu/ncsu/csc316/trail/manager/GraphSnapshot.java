@@ -0,0 +1,294 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Versioned binary snapshot of a built TrailGraph, so a park can be opened without
+ * parsing its CSV files again. The snapshot holds the Landmark table, the adjacency
+ * arrays and the degree stats, and is tagged with a content hash of the CSV files it
+ * was built from. A snapshot is only loaded if its format version and source hash
+ * match; otherwise the caller rebuilds the graph and writes a new one.
+ *
+ * Layout (big-endian): magic, format version, source hash, then the payload: Landmark
+ * count, trail count, max degree, forest flag, each Landmark's ID, description and type
+ * as length-prefixed UTF-8, and the offset, neighbor and length arrays. A CRC32C of the
+ * payload ends the file. A snapshot whose checksum doesn't match, or whose counts,
+ * offsets or ordinals don't fit the file, is not loaded.
+ * @author Ben Morris
+ */
+public class GraphSnapshot {
+	/** First four bytes of every snapshot ("TGSN") */
+	private static final int MAGIC = 0x5447534E;
+	/** Version of the snapshot layout. Change it whenever the layout changes */
+	static final int FORMAT_VERSION = 2;
+	/** Bytes before the payload: magic, format version and source hash */
+	private static final int HEADER_BYTES = 16;
+	/** Bytes of the payload before the Landmark table */
+	private static final int COUNT_BYTES = 13;
+	/** Bytes of the checksum after the payload */
+	private static final int CHECKSUM_BYTES = 4;
+	/** Bytes read at a time while hashing the source files */
+	private static final int HASH_BUFFER = 1 << 16;
+
+	/**
+	 * Hashes the contents of the files a graph is built from. A directory of Trails is
+	 * hashed part by part in name order, the same order it is read in.
+	 * @param pathToLandmarkFile path to the file of Landmarks
+	 * @param pathToTrailFile path to the file or directory of Trails
+	 * @return content hash of the source files
+	 * @throws IOException if a file can't be read
+	 */
+	public static long hashSources(String pathToLandmarkFile, String pathToTrailFile) throws IOException {
+		CRC32C landmarkHash = new CRC32C();
+		hashFile(Paths.get(pathToLandmarkFile), landmarkHash);
+
+		CRC32C trailHash = new CRC32C();
+		Path trails = Paths.get(pathToTrailFile);
+		if (Files.isDirectory(trails)) {
+			List<Path> parts = new ArrayList<Path>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(trails)) {
+				for (Path part : stream) {
+					if (Files.isRegularFile(part) && !Files.isHidden(part))
+						parts.add(part);
+				}
+			}
+			Collections.sort(parts);
+			for (Path part : parts) {
+				hashFile(part, trailHash);
+			}
+		} else {
+			hashFile(trails, trailHash);
+		}
+		return (landmarkHash.getValue() << 32) | trailHash.getValue();
+	}
+
+	/**
+	 * Adds the contents of a file to a hash
+	 * @param path path to the file
+	 * @param hash hash to update
+	 * @throws IOException if the file can't be read
+	 */
+	private static void hashFile(Path path, CRC32C hash) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER);
+			while (channel.read(buffer) > 0) {
+				buffer.flip();
+				hash.update(buffer);
+				buffer.clear();
+			}
+		}
+	}
+
+	/**
+	 * Writes a snapshot of a graph. The snapshot is written to a temporary file and moved
+	 * into place, so a reader never sees a partly written snapshot.
+	 * @param graph graph to write
+	 * @param sourceHash content hash of the files the graph was built from
+	 * @param path path to write the snapshot to
+	 * @throws IOException if the snapshot can't be written
+	 */
+	public static void write(TrailGraph graph, long sourceHash, Path path) throws IOException {
+		Path directory = path.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream file = Files.newOutputStream(temp);
+					DataOutputStream header = new DataOutputStream(new BufferedOutputStream(file, HASH_BUFFER))) {
+				header.writeInt(MAGIC);
+				header.writeInt(FORMAT_VERSION);
+				header.writeLong(sourceHash);
+
+				// Everything after the header is checksummed as it is written
+				CRC32C checksum = new CRC32C();
+				DataOutputStream out = new DataOutputStream(new CheckedOutputStream(header, checksum));
+				// Removed Landmarks are left out, so later ordinals shift down to fill the gaps
+				int[] packed = new int[graph.size()];
+				int size = 0;
+				for (int o = 0; o < graph.size(); o++) {
+					packed[o] = graph.getLandmark(o) == null ? -1 : size++;
+				}
+				out.writeInt(size);
+				out.writeInt(graph.getTrailCount());
+				out.writeInt(graph.getMaxDegree());
+				out.writeBoolean(graph.isForest());
+
+				// Landmark table
+				for (int o = 0; o < graph.size(); o++) {
+					Landmark landmark = graph.getLandmark(o);
+					if (landmark != null) {
+						writeString(out, landmark.getId());
+						writeString(out, landmark.getDescription());
+						writeString(out, landmark.getType());
+					}
+				}
+
+				// Adjacency arrays, with the rows packed together. Each trail is stored once at each end point
+				int offset = 0;
+				for (int o = 0; o < graph.size(); o++) {
+					if (packed[o] >= 0) {
+						out.writeInt(offset);
+						offset += graph.degree(o);
+					}
+				}
+				out.writeInt(offset);
+				for (int o = 0; o < graph.size(); o++) {
+					for (int e = graph.edgeStart(o); e < graph.edgeEnd(o); e++) {
+						out.writeInt(packed[graph.neighbor(e)]);
+					}
+				}
+				for (int o = 0; o < graph.size(); o++) {
+					for (int e = graph.edgeStart(o); e < graph.edgeEnd(o); e++) {
+						out.writeInt(graph.length(e));
+					}
+				}
+				out.flush();
+				header.writeInt((int) checksum.getValue());
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Loads a snapshot by memory-mapping it. The payload is checked against its checksum,
+	 * and every count, offset and ordinal against the size of the file, before anything
+	 * is allocated from it.
+	 * @param path path to the snapshot
+	 * @param sourceHash content hash of the files the caller would build the graph from
+	 * @return the graph, or null if there is no snapshot, it is from another format
+	 * 		   version or other source files, or it is truncated or damaged
+	 * @throws IOException if the snapshot exists but can't be read
+	 */
+	public static TrailGraph read(Path path, long sourceHash) throws IOException {
+		if (!Files.isRegularFile(path))
+			return null;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_BYTES + COUNT_BYTES + CHECKSUM_BYTES || fileSize > Integer.MAX_VALUE)
+				return null;
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getLong() != sourceHash)
+				return null;
+
+			// The payload must match its checksum before any of it is trusted
+			int end = (int) fileSize - CHECKSUM_BYTES;
+			ByteBuffer payload = buffer.duplicate();
+			payload.limit(end);
+			CRC32C checksum = new CRC32C();
+			checksum.update(payload);
+			if (buffer.getInt(end) != (int) checksum.getValue())
+				return null;
+			buffer.limit(end);
+
+			int size = buffer.getInt();
+			int trailCount = buffer.getInt();
+			int maxDegree = buffer.getInt();
+			boolean forest = buffer.get() != 0;
+
+			// Each Landmark takes at least its three string lengths, and the arrays take
+			// four bytes an entry, so counts that don't fit the file are rejected before
+			// anything is allocated
+			long edges = 2L * trailCount;
+			if (size < 0 || trailCount < 0 || maxDegree < 0
+					|| 12L * size + 4L * (size + 1) + 8L * edges > buffer.remaining())
+				return null;
+
+			// Landmark table
+			Landmark[] landmarks = new Landmark[size];
+			for (int o = 0; o < size; o++) {
+				String id = readString(buffer);
+				String description = readString(buffer);
+				String type = readString(buffer);
+				if (id == null || description == null || type == null)
+					return null;
+				landmarks[o] = new Landmark(id, description, type);
+			}
+
+			// Adjacency arrays, which must fill the rest of the payload exactly
+			if (buffer.remaining() != 4L * (size + 1) + 8L * edges)
+				return null;
+			int[] offsets = new int[size + 1];
+			int[] neighbors = new int[(int) edges];
+			int[] lengths = new int[(int) edges];
+			buffer.asIntBuffer().get(offsets);
+			buffer.position(buffer.position() + 4 * offsets.length);
+			buffer.asIntBuffer().get(neighbors);
+			buffer.position(buffer.position() + 4 * neighbors.length);
+			buffer.asIntBuffer().get(lengths);
+
+			// Rows must run in order over the edges, and every edge must end at a Landmark
+			if (offsets[0] != 0 || offsets[size] != edges)
+				return null;
+			for (int o = 0; o < size; o++) {
+				if (offsets[o + 1] < offsets[o])
+					return null;
+			}
+			for (int e = 0; e < edges; e++) {
+				if (neighbors[e] < 0 || neighbors[e] >= size || lengths[e] < 0)
+					return null;
+			}
+
+			TrailGraph graph = TrailGraph.fromArrays(landmarks, offsets, neighbors, lengths, trailCount, forest);
+			if (graph.getMaxDegree() != maxDegree)
+				return null;
+			// Every ID must be unique, or a Landmark would be hidden behind another
+			for (int o = 0; o < size; o++) {
+				if (graph.getOrdinal(landmarks[o].getId()) != o)
+					return null;
+			}
+			return graph;
+		} catch (RuntimeException e) {
+			// Anything else wrong with the snapshot is treated like a missing one
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a String as its UTF-8 length and bytes
+	 * @param out stream to write to
+	 * @param s String to write
+	 * @throws IOException if the String can't be written
+	 */
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a String written by writeString
+	 * @param buffer buffer to read from
+	 * @return the String, or null if its length doesn't fit in the buffer
+	 */
+	private static String readString(ByteBuffer buffer) {
+		if (buffer.remaining() < 4)
+			return null;
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining())
+			return null;
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,177 @@
+package edu.ncsu.csc316.trail.manager;
+
+/**
+ * Open-addressing hash index from Landmark ID to ordinal. The slots are parallel arrays
+ * of hash, ordinal and ID, probed linearly, so a lookup usually reads one or two
+ * neighboring ints and calls equals only when the full hashes match. The table is kept
+ * at most half full, and removal shifts the following entries back instead of leaving
+ * markers, so lookups stay short however many updates are made.
+ *
+ * Reads may run on many threads at once, but a put or remove must not run alongside
+ * anything else.
+ * @author Ben Morris
+ */
+public class LandmarkIndex {
+	/** Smallest number of slots */
+	private static final int MIN_CAPACITY = 16;
+
+	/** Hash of the ID in each slot */
+	private int[] hashes;
+	/** Ordinal in each slot, or -1 for an empty slot */
+	private int[] ordinals;
+	/** ID in each slot, or null for an empty slot */
+	private String[] ids;
+	/** Number of IDs in the index */
+	private int size;
+
+	/**
+	 * Constructor
+	 * @param expected number of IDs the index should hold without growing
+	 */
+	public LandmarkIndex(int expected) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expected * 2L && capacity < (1 << 30))
+			capacity <<= 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * Constructor for a copy of another index, which can then be changed on its own
+	 * @param other index to copy
+	 */
+	LandmarkIndex(LandmarkIndex other) {
+		hashes = other.hashes.clone();
+		ordinals = other.ordinals.clone();
+		ids = other.ids.clone();
+		size = other.size;
+	}
+
+	/**
+	 * Allocates empty slots
+	 * @param capacity number of slots, a power of two
+	 */
+	private void allocate(int capacity) {
+		hashes = new int[capacity];
+		ordinals = new int[capacity];
+		ids = new String[capacity];
+		for (int i = 0; i < capacity; i++) {
+			ordinals[i] = -1;
+		}
+	}
+
+	/**
+	 * Returns the hash of an ID. String caches its hashCode, and the mixing spreads IDs
+	 * that differ only in their last characters, such as L1001 and L1002, across the table.
+	 * @param id Landmark ID
+	 * @return the hash
+	 */
+	static int hash(String id) {
+		int h = id.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the number of IDs in the index
+	 * @return number of IDs
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the ordinal of a Landmark
+	 * @param id ID of the Landmark
+	 * @return ordinal, or -1 if the ID isn't in the index
+	 */
+	public int get(String id) {
+		int h = hash(id);
+		int mask = ordinals.length - 1;
+		for (int i = h & mask; ordinals[i] >= 0; i = (i + 1) & mask) {
+			if (hashes[i] == h && ids[i].equals(id))
+				return ordinals[i];
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds an ID, or changes the ordinal of an ID already in the index
+	 * @param id ID of the Landmark
+	 * @param ordinal ordinal of the Landmark, at least 0
+	 */
+	public void put(String id, int ordinal) {
+		int h = hash(id);
+		int mask = ordinals.length - 1;
+		int i = h & mask;
+		for (; ordinals[i] >= 0; i = (i + 1) & mask) {
+			if (hashes[i] == h && ids[i].equals(id)) {
+				ordinals[i] = ordinal;
+				return;
+			}
+		}
+		hashes[i] = h;
+		ordinals[i] = ordinal;
+		ids[i] = id;
+		size++;
+
+		// Keep the table at most half full
+		if (size * 2 > ordinals.length)
+			grow();
+	}
+
+	/**
+	 * Removes an ID
+	 * @param id ID of the Landmark
+	 * @return true if the ID was in the index
+	 */
+	public boolean remove(String id) {
+		int h = hash(id);
+		int mask = ordinals.length - 1;
+		int i = h & mask;
+		while (true) {
+			if (ordinals[i] < 0)
+				return false;
+			if (hashes[i] == h && ids[i].equals(id))
+				break;
+			i = (i + 1) & mask;
+		}
+
+		// Shift later entries of the probe run back over the hole, unless the hole is
+		// before the slot they hash to
+		int hole = i;
+		for (int j = (hole + 1) & mask; ordinals[j] >= 0; j = (j + 1) & mask) {
+			int home = hashes[j] & mask;
+			if (((j - home) & mask) >= ((j - hole) & mask)) {
+				hashes[hole] = hashes[j];
+				ordinals[hole] = ordinals[j];
+				ids[hole] = ids[j];
+				hole = j;
+			}
+		}
+		ordinals[hole] = -1;
+		ids[hole] = null;
+		size--;
+		return true;
+	}
+
+	/**
+	 * Doubles the number of slots, placing the entries by their stored hashes
+	 */
+	private void grow() {
+		int[] oldHashes = hashes;
+		int[] oldOrdinals = ordinals;
+		String[] oldIds = ids;
+		allocate(oldOrdinals.length * 2);
+
+		int mask = ordinals.length - 1;
+		for (int s = 0; s < oldOrdinals.length; s++) {
+			if (oldOrdinals[s] < 0)
+				continue;
+			int i = oldHashes[s] & mask;
+			while (ordinals[i] >= 0)
+				i = (i + 1) & mask;
+			hashes[i] = oldHashes[s];
+			ordinals[i] = oldOrdinals[s];
+			ids[i] = oldIds[s];
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+
+/**
+ * Array-based binary min-heap of primitive longs. Traversals pack a distance into the
+ * high 32 bits and an ordinal into the low 32 bits, so the smallest entry is always the
+ * closest Landmark and no objects are allocated per entry.
+ * @author Ben Morris
+ */
+public class LongMinHeap {
+	/** Heap entries. The children of index i are at 2i + 1 and 2i + 2 */
+	private long[] heap;
+	/** Number of entries in the heap */
+	private int size;
+
+	/**
+	 * Constructor
+	 * @param capacity initial capacity of the heap
+	 */
+	public LongMinHeap(int capacity) {
+		heap = new long[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Packs a distance and an ordinal into one heap entry
+	 * @param distance non-negative distance
+	 * @param ordinal non-negative ordinal
+	 * @return entry ordered by distance, then ordinal
+	 */
+	public static long pack(int distance, int ordinal) {
+		return ((long) distance << 32) | ordinal;
+	}
+
+	/**
+	 * Returns the distance of a packed entry
+	 * @param entry packed entry
+	 * @return distance of the entry
+	 */
+	public static int distance(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	/**
+	 * Returns the ordinal of a packed entry
+	 * @param entry packed entry
+	 * @return ordinal of the entry
+	 */
+	public static int ordinal(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Adds an entry to the heap
+	 * @param entry entry to add
+	 */
+	public void add(long entry) {
+		if (size == heap.length)
+			heap = Arrays.copyOf(heap, size * 2);
+
+		// Sift the new entry up from the bottom
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heap[parent] <= entry)
+				break;
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = entry;
+	}
+
+	/**
+	 * Removes and returns the smallest entry
+	 * @return the smallest entry
+	 * @throws IllegalStateException if the heap is empty
+	 */
+	public long removeMin() {
+		if (size == 0)
+			throw new IllegalStateException("Heap is empty.");
+		long min = heap[0];
+		long last = heap[--size];
+
+		// Sift the last entry down from the top
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && heap[child + 1] < heap[child])
+				child++;
+			if (last <= heap[child])
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = last;
+		return min;
+	}
+
+	/**
+	 * Returns the smallest entry without removing it
+	 * @return the smallest entry
+	 * @throws IllegalStateException if the heap is empty
+	 */
+	public long peekMin() {
+		if (size == 0)
+			throw new IllegalStateException("Heap is empty.");
+		return heap[0];
+	}
+
+	/**
+	 * Returns true if the heap has no entries
+	 * @return true if the heap is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of entries in the heap
+	 * @return number of entries
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,78 @@
+package edu.ncsu.csc316.trail.manager;
+
+/**
+ * Least-significant-digit radix sort of non-negative long keys, one byte per pass. A
+ * pass is skipped when every key has the same byte in that position, so keys that pack
+ * a small distance above a small rank take only the passes their values need. Sorting
+ * takes O(passes * (n + 256)) time and one scratch array of n keys.
+ * @author Ben Morris
+ */
+public class LongRadixSorter {
+	/** Bits in one digit */
+	private static final int DIGIT_BITS = 8;
+	/** Number of values of one digit */
+	private static final int RADIX = 1 << DIGIT_BITS;
+
+	/**
+	 * Sorts keys into ascending order
+	 * @param keys keys to sort, each at least 0
+	 */
+	public static void sort(long[] keys) {
+		sort(keys, keys.length);
+	}
+
+	/**
+	 * Sorts the first n keys into ascending order
+	 * @param keys keys to sort, each at least 0
+	 * @param n number of keys to sort from the front of the array
+	 */
+	public static void sort(long[] keys, int n) {
+		if (n < 2)
+			return;
+
+		// Only the digits below the highest bit of the largest key can differ
+		long max = 0;
+		for (int i = 0; i < n; i++) {
+			max |= keys[i];
+		}
+		int bits = 64 - Long.numberOfLeadingZeros(max);
+
+		long[] from = keys;
+		long[] to = new long[n];
+		int[] counts = new int[RADIX];
+		for (int shift = 0; shift < bits; shift += DIGIT_BITS) {
+			// Count the keys with each value of this digit
+			for (int d = 0; d < RADIX; d++) {
+				counts[d] = 0;
+			}
+			for (int i = 0; i < n; i++) {
+				counts[(int) (from[i] >>> shift) & (RADIX - 1)]++;
+			}
+
+			// Every key has the same digit, so this pass wouldn't move anything
+			if (counts[(int) (from[0] >>> shift) & (RADIX - 1)] == n)
+				continue;
+
+			// Starting position of each digit value
+			int position = 0;
+			for (int d = 0; d < RADIX; d++) {
+				int count = counts[d];
+				counts[d] = position;
+				position += count;
+			}
+
+			// Move the keys, keeping the order from the passes before
+			for (int i = 0; i < n; i++) {
+				long key = from[i];
+				to[counts[(int) (key >>> shift) & (RADIX - 1)]++] = key;
+			}
+			long[] swap = from;
+			from = to;
+			to = swap;
+		}
+
+		// An odd number of passes leaves the sorted keys in the scratch array
+		if (from != keys)
+			System.arraycopy(from, 0, keys, 0, n);
+	}
+}
@@ -0,0 +1,478 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Reads files of Landmarks (LANDMARK_ID,DESCRIPTION,TYPE) and Trails
+ * (LANDMARK_ID,LANDMARK_ID,DISTANCE) by memory-mapping them and parsing the bytes in
+ * place. Distances are parsed straight from the bytes as ints, and no String is made
+ * for a line or a field that isn't kept. The first line of each file is a header and is
+ * skipped. Lines may end in \n or \r\n.
+ * @author Ben Morris
+ */
+public class MappedCsvReader {
+	/** Largest region of a file mapped at once */
+	static final long MAX_WINDOW = Integer.MAX_VALUE;
+	/** Size of the pieces a file of Trails is split into for parallel parsing */
+	static final long CHUNK_SIZE = 8L * 1024 * 1024;
+	/** Bytes read at a time while looking for the line break that ends a chunk */
+	private static final int SCAN_SIZE = 4096;
+
+	/**
+	 * Reads a file of Landmarks
+	 * @param path path to the file of Landmarks
+	 * @return Landmarks in file order
+	 * @throws FileNotFoundException if the file isn't found
+	 * @throws IOException if the file can't be read
+	 * @throws IllegalArgumentException if a line doesn't have three fields
+	 */
+	public static Landmark[] readLandmarks(String path) throws IOException {
+		LandmarkParser parser = new LandmarkParser();
+		read(path, parser, MAX_WINDOW);
+		return parser.getLandmarks();
+	}
+
+	/**
+	 * Reads a file of Trails
+	 * @param path path to the file of Trails
+	 * @return trail records in file order
+	 * @throws FileNotFoundException if the file isn't found
+	 * @throws IOException if the file can't be read
+	 * @throws IllegalArgumentException if a line doesn't have two IDs and a distance
+	 */
+	public static TrailRecords readTrails(String path) throws IOException {
+		TrailParser parser = new TrailParser();
+		read(path, parser, MAX_WINDOW);
+		return parser.getRecords();
+	}
+
+	/**
+	 * Reads a file of Trails, or a directory of files of Trails, in parallel. Each file
+	 * is split at line breaks into chunks of about CHUNK_SIZE bytes, and the chunks are
+	 * parsed as separate tasks on the pool. A directory is read as one logical file made
+	 * of the regular files in it in name order, each with its own header line.
+	 * @param path path to the file or directory of Trails
+	 * @param pool pool to parse the chunks on
+	 * @return trail records of each chunk, in file order
+	 * @throws FileNotFoundException if the file or directory isn't found
+	 * @throws IOException if a file can't be read
+	 * @throws IllegalArgumentException if a line doesn't have two IDs and a distance
+	 */
+	public static TrailRecords[] readTrails(String path, ExecutorService pool) throws IOException {
+		return readTrails(path, pool, CHUNK_SIZE);
+	}
+
+	/**
+	 * Reads a file or directory of Trails in parallel, in chunks of about chunkSize bytes
+	 * @param path path to the file or directory of Trails
+	 * @param pool pool to parse the chunks on
+	 * @param chunkSize size of the chunks a file is split into
+	 * @return trail records of each chunk, in file order
+	 * @throws IOException if a file isn't found or can't be read
+	 */
+	static TrailRecords[] readTrails(String path, ExecutorService pool, long chunkSize) throws IOException {
+		// Split every part of the input into chunks that start and end at line breaks
+		List<Callable<TrailRecords>> tasks = new ArrayList<Callable<TrailRecords>>();
+		for (Path part : listParts(Paths.get(path))) {
+			long[] bounds = findChunks(part, chunkSize);
+			for (int i = 0; i + 1 < bounds.length; i++) {
+				tasks.add(new ChunkTask(part, bounds[i], bounds[i + 1], i == 0));
+			}
+		}
+
+		// Parse the chunks and collect them in file order
+		List<Future<TrailRecords>> futures;
+		try {
+			futures = pool.invokeAll(tasks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading " + path);
+		}
+		TrailRecords[] chunks = new TrailRecords[futures.size()];
+		for (int i = 0; i < chunks.length; i++) {
+			try {
+				chunks[i] = futures.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while reading " + path);
+			} catch (ExecutionException e) {
+				// Rethrow what the parsing task threw
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException)
+					throw (IOException) cause;
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				throw new IOException(cause);
+			}
+		}
+		return chunks;
+	}
+
+	/**
+	 * Returns the files that make up an input. A file is its own only part. The parts of
+	 * a directory are the regular, non-hidden files in it, in name order.
+	 * @param path path to the file or directory
+	 * @return files that make up the input
+	 * @throws IOException if the path isn't found or the directory can't be listed
+	 */
+	private static Path[] listParts(Path path) throws IOException {
+		if (!Files.exists(path))
+			throw new FileNotFoundException(path.toString());
+		if (!Files.isDirectory(path))
+			return new Path[] {path};
+
+		List<Path> parts = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+			for (Path part : stream) {
+				if (Files.isRegularFile(part) && !Files.isHidden(part))
+					parts.add(part);
+			}
+		}
+		Path[] sorted = parts.toArray(new Path[parts.size()]);
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Finds where to split a file into chunks of about chunkSize bytes. Every chunk but
+	 * the last ends just after a line break, so no line is split between two chunks.
+	 * @param path path to the file
+	 * @param chunkSize size of the chunks
+	 * @return offsets of the chunk boundaries, starting with 0 and ending with the file size
+	 * @throws IOException if the file can't be read
+	 */
+	static long[] findChunks(Path path, long chunkSize) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long[] bounds = new long[(int) (size / chunkSize) + 2];
+			int count = 1;
+			ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+
+			long boundary = 0;
+			while (boundary + chunkSize < size) {
+				// Move the tentative boundary forward to just after the next line break
+				long position = boundary + chunkSize - 1;
+				boundary = size;
+				while (position < size) {
+					scan.clear();
+					int read = channel.read(scan, position);
+					int newline = indexOf(scan, read, (byte) '\n');
+					if (newline >= 0) {
+						boundary = position + newline + 1;
+						break;
+					}
+					position += read;
+				}
+				if (boundary < size)
+					bounds[count++] = boundary;
+			}
+			bounds[count++] = size;
+			return Arrays.copyOf(bounds, count);
+		}
+	}
+
+	/**
+	 * Returns the index of the first occurrence of a byte in a heap buffer
+	 * @param buffer buffer to search
+	 * @param length number of bytes to search
+	 * @param b byte to find
+	 * @return index of the byte, or -1 if it isn't found
+	 */
+	private static int indexOf(ByteBuffer buffer, int length, byte b) {
+		byte[] bytes = buffer.array();
+		for (int i = 0; i < length; i++) {
+			if (bytes[i] == b)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses one chunk of a file of Trails
+	 * @author Ben Morris
+	 */
+	private static class ChunkTask implements Callable<TrailRecords> {
+		/** File the chunk is in */
+		private final Path path;
+		/** Offset of the first byte of the chunk */
+		private final long start;
+		/** Offset one past the last byte of the chunk */
+		private final long end;
+		/** True if the chunk starts with the header line */
+		private final boolean header;
+
+		/**
+		 * Constructor
+		 * @param path file the chunk is in
+		 * @param start offset of the first byte of the chunk
+		 * @param end offset one past the last byte of the chunk
+		 * @param header true if the chunk starts with the header line
+		 */
+		ChunkTask(Path path, long start, long end, boolean header) {
+			this.path = path;
+			this.start = start;
+			this.end = end;
+			this.header = header;
+		}
+
+		@Override
+		public TrailRecords call() throws IOException {
+			if (end - start > MAX_WINDOW)
+				throw new IllegalArgumentException("Line is longer than " + MAX_WINDOW + " bytes.");
+
+			TrailParser parser = new TrailParser();
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+				int length = (int) (end - start);
+				int first = header ? nextLine(buffer, 0, length) : 0;
+				parseLines(buffer, first, length, parser);
+			}
+			return parser.getRecords();
+		}
+	}
+
+	/**
+	 * Maps a file one window at a time and hands every line after the header to a parser.
+	 * A window ends after its last complete line, and the next window starts there.
+	 * @param path path to the file
+	 * @param parser parser for each line
+	 * @param maxWindow largest region of the file mapped at once
+	 * @throws IOException if the file isn't found or can't be read
+	 */
+	static void read(String path, LineParser parser, long maxWindow) throws IOException {
+		FileChannel channel;
+		try {
+			channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException(path);
+		}
+
+		try {
+			long size = channel.size();
+			long position = 0;
+			boolean header = true;
+			while (position < size) {
+				long windowSize = Math.min(size - position, maxWindow);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+				boolean lastWindow = position + windowSize == size;
+
+				// Only parse up to the last line break unless this is the end of the file
+				int end = (int) windowSize;
+				if (!lastWindow) {
+					while (end > 0 && buffer.get(end - 1) != '\n')
+						end--;
+					if (end == 0)
+						throw new IllegalArgumentException("Line is longer than " + maxWindow + " bytes.");
+				}
+
+				// The first window always holds the whole header, since it ends after a line break
+				int start = 0;
+				if (header) {
+					start = nextLine(buffer, 0, end);
+					header = false;
+				}
+				parseLines(buffer, start, end, parser);
+				position += end;
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Hands each line in a region of a buffer to a parser. Blank lines are skipped.
+	 * @param buffer buffer to read
+	 * @param start index of the first byte of the first line
+	 * @param end index one past the last byte of the region
+	 * @param parser parser for each line
+	 */
+	static void parseLines(ByteBuffer buffer, int start, int end, LineParser parser) {
+		int lineStart = start;
+		while (lineStart < end) {
+			int next = nextLine(buffer, lineStart, end);
+			// Drop the line break, and the carriage return before it
+			int lineEnd = next;
+			if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\n')
+				lineEnd--;
+			if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r')
+				lineEnd--;
+			if (lineEnd > lineStart)
+				parser.parseLine(buffer, lineStart, lineEnd);
+			lineStart = next;
+		}
+	}
+
+	/**
+	 * Returns the index just past the line break of the line starting at start
+	 * @param buffer buffer to read
+	 * @param start index of the first byte of the line
+	 * @param end index one past the last byte that may be read
+	 * @return index of the first byte of the next line, or end
+	 */
+	private static int nextLine(ByteBuffer buffer, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (buffer.get(i) == '\n')
+				return i + 1;
+		}
+		return end;
+	}
+
+	/**
+	 * Returns the index of the next comma in a line
+	 * @param buffer buffer to read
+	 * @param start index to start looking from
+	 * @param end index one past the end of the line
+	 * @return index of the comma, or end if there is none
+	 */
+	private static int nextComma(ByteBuffer buffer, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (buffer.get(i) == ',')
+				return i;
+		}
+		return end;
+	}
+
+	/**
+	 * Parses the lines of a file
+	 * @author Ben Morris
+	 */
+	interface LineParser {
+		/**
+		 * Parses one line, without its line break
+		 * @param buffer buffer holding the line
+		 * @param start index of the first byte of the line
+		 * @param end index one past the last byte of the line
+		 */
+		void parseLine(ByteBuffer buffer, int start, int end);
+	}
+
+	/**
+	 * Base for parsers that decode UTF-8 fields through a reused scratch array
+	 * @author Ben Morris
+	 */
+	abstract static class FieldParser implements LineParser {
+		/** Scratch space for the bytes of a field */
+		private byte[] scratch = new byte[64];
+
+		/**
+		 * Decodes a field of a line as a String
+		 * @param buffer buffer holding the field
+		 * @param start index of the first byte of the field
+		 * @param end index one past the last byte of the field
+		 * @return the field
+		 */
+		String decode(ByteBuffer buffer, int start, int end) {
+			int length = end - start;
+			if (length > scratch.length)
+				scratch = new byte[Math.max(length, scratch.length * 2)];
+			for (int i = 0; i < length; i++) {
+				scratch[i] = buffer.get(start + i);
+			}
+			return new String(scratch, 0, length, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Parses LANDMARK_ID,DESCRIPTION,TYPE lines into Landmarks
+	 * @author Ben Morris
+	 */
+	static class LandmarkParser extends FieldParser {
+		/** Landmarks parsed so far */
+		private Landmark[] landmarks = new Landmark[16];
+		/** Number of Landmarks parsed */
+		private int size;
+
+		@Override
+		public void parseLine(ByteBuffer buffer, int start, int end) {
+			int comma1 = nextComma(buffer, start, end);
+			int comma2 = nextComma(buffer, comma1 + 1, end);
+			if (comma2 >= end)
+				throw new IllegalArgumentException("Landmark line must have an ID, description and type.");
+
+			Landmark landmark = new Landmark(decode(buffer, start, comma1),
+					decode(buffer, comma1 + 1, comma2), decode(buffer, comma2 + 1, end));
+			if (size == landmarks.length)
+				landmarks = Arrays.copyOf(landmarks, size * 2);
+			landmarks[size++] = landmark;
+		}
+
+		/**
+		 * Returns the Landmarks parsed so far
+		 * @return Landmarks in file order
+		 */
+		Landmark[] getLandmarks() {
+			return Arrays.copyOf(landmarks, size);
+		}
+	}
+
+	/**
+	 * Parses LANDMARK_ID,LANDMARK_ID,DISTANCE lines into TrailRecords
+	 * @author Ben Morris
+	 */
+	static class TrailParser extends FieldParser {
+		/** Trails parsed so far */
+		private final TrailRecords records = new TrailRecords(16);
+
+		@Override
+		public void parseLine(ByteBuffer buffer, int start, int end) {
+			int comma1 = nextComma(buffer, start, end);
+			int comma2 = nextComma(buffer, comma1 + 1, end);
+			if (comma2 >= end)
+				throw new IllegalArgumentException("Trail line must have two landmark IDs and a distance.");
+
+			records.add(decode(buffer, start, comma1), decode(buffer, comma1 + 1, comma2),
+					parseDistance(buffer, comma2 + 1, end));
+		}
+
+		/**
+		 * Parses a non-negative distance from its digits
+		 * @param buffer buffer holding the distance
+		 * @param start index of the first digit
+		 * @param end index one past the last digit
+		 * @return the distance
+		 */
+		private static int parseDistance(ByteBuffer buffer, int start, int end) {
+			if (start == end)
+				throw new IllegalArgumentException("Trail distance is missing.");
+			long distance = 0;
+			for (int i = start; i < end; i++) {
+				int digit = buffer.get(i) - '0';
+				if (digit < 0 || digit > 9)
+					throw new IllegalArgumentException("Trail distance must be a whole number of feet.");
+				distance = distance * 10 + digit;
+				if (distance > Integer.MAX_VALUE)
+					throw new IllegalArgumentException("Trail distance is too long.");
+			}
+			return (int) distance;
+		}
+
+		/**
+		 * Returns the trails parsed so far
+		 * @return trail records in file order
+		 */
+		TrailRecords getRecords() {
+			return records;
+		}
+	}
+}
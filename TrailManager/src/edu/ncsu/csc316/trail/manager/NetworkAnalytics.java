@@ -0,0 +1,436 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Whole-park distance analytics of a TrailGraph: the eccentricity of each Landmark (the
+ * distance to the farthest Landmark it can reach), the diameter of each connected
+ * component (its longest shortest route) and its centers (the Landmarks with the
+ * smallest eccentricity). Distances never cross components, so each one is measured on
+ * its own.
+ *
+ * A component without loops is measured in linear time. A sweep from any Landmark ends
+ * at one end of the diameter, a sweep from there finds the other end, and in a tree the
+ * farthest Landmark from anywhere is one of those two ends, so a third sweep gives every
+ * eccentricity. A component with loops needs a Dijkstra search from each of its
+ * Landmarks, which are run in parallel.
+ * @author Ben Morris
+ */
+public class NetworkAnalytics {
+	/** Number of search tasks per thread of the pool, so uneven sources even out */
+	private static final int TASKS_PER_THREAD = 4;
+	/** Graph that was measured */
+	private final TrailGraph graph;
+	/** Connected components of the graph */
+	private final ComponentIndex components;
+	/** Ordinals of the Landmarks grouped by component, in ordinal order within each */
+	private final int[] members;
+	/** Start of each component in members, with the end of the last at the end */
+	private final int[] offsets;
+	/** Distance from each ordinal to the farthest Landmark it can reach, or -1 if removed */
+	private final int[] eccentricities;
+	/** Farthest Landmark from each ordinal, or -1 if removed */
+	private final int[] farthest;
+	/** Landmark of each component whose farthest Landmark is the other end of its diameter */
+	private final int[] diameterStarts;
+	/** True for each component without loops */
+	private final boolean[] trees;
+
+	/**
+	 * Constructor. Searches components with loops on the common ForkJoinPool.
+	 * @param graph graph to measure
+	 * @param components connected components of the graph
+	 */
+	public NetworkAnalytics(TrailGraph graph, ComponentIndex components) {
+		this(graph, components, new TrailMetrics(), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor. Measures every component of the graph.
+	 * @param graph graph to measure
+	 * @param components connected components of the graph
+	 * @param metrics where the time and work of the searches is recorded
+	 * @param pool pool to search components with loops on
+	 * @throws IllegalStateException if the thread is interrupted while waiting
+	 */
+	public NetworkAnalytics(TrailGraph graph, ComponentIndex components, TrailMetrics metrics,
+			ExecutorService pool) {
+		long start = System.nanoTime();
+		this.graph = graph;
+		this.components = components;
+		int size = graph.size();
+		int count = components.count();
+
+		// Group the ordinals by component with a counting sort, adding up the degrees
+		offsets = new int[count + 1];
+		long[] degrees = new long[count];
+		for (int o = 0; o < size; o++) {
+			int component = components.component(o);
+			if (component >= 0) {
+				offsets[component + 1]++;
+				degrees[component] += graph.degree(o);
+			}
+		}
+		for (int c = 0; c < count; c++) {
+			offsets[c + 1] += offsets[c];
+		}
+		members = new int[offsets[count]];
+		int[] next = Arrays.copyOf(offsets, count);
+		for (int o = 0; o < size; o++) {
+			int component = components.component(o);
+			if (component >= 0)
+				members[next[component]++] = o;
+		}
+
+		eccentricities = new int[size];
+		farthest = new int[size];
+		Arrays.fill(eccentricities, -1);
+		Arrays.fill(farthest, -1);
+		diameterStarts = new int[count];
+		trees = new boolean[count];
+
+		// Each trail is counted at both ends, so a tree has twice one fewer than its size.
+		// A loop back to the same Landmark or a second trail between two breaks the count
+		int[] distances = new int[size];
+		int[] stack = new int[size];
+		List<Integer> cyclic = new ArrayList<Integer>();
+		int largestCyclic = 0;
+		for (int c = 0; c < count; c++) {
+			int componentSize = offsets[c + 1] - offsets[c];
+			trees[c] = degrees[c] == 2L * (componentSize - 1);
+			if (trees[c]) {
+				measureTree(c, distances, stack, metrics);
+			} else {
+				cyclic.add(c);
+				largestCyclic = Math.max(largestCyclic, componentSize);
+			}
+		}
+		if (!cyclic.isEmpty())
+			measureCyclic(cyclic, largestCyclic, metrics, pool);
+
+		// The diameter starts at a Landmark with the largest eccentricity
+		for (int c = 0; c < count; c++) {
+			if (!trees[c]) {
+				int best = members[offsets[c]];
+				for (int i = offsets[c] + 1; i < offsets[c + 1]; i++) {
+					if (eccentricities[members[i]] > eccentricities[best])
+						best = members[i];
+				}
+				diameterStarts[c] = best;
+			}
+		}
+		metrics.record(TrailMetrics.Phase.TRAVERSAL, System.nanoTime() - start);
+	}
+
+	/**
+	 * Measures a component without loops with three sweeps
+	 * @param component the component
+	 * @param distances distance scratch for the whole graph
+	 * @param stack stack scratch for the whole graph
+	 * @param metrics where the work of the sweeps is recorded
+	 */
+	private void measureTree(int component, int[] distances, int[] stack, TrailMetrics metrics) {
+		int first = members[offsets[component]];
+		if (offsets[component + 1] - offsets[component] == 1) {
+			eccentricities[first] = 0;
+			farthest[first] = first;
+			diameterStarts[component] = first;
+			return;
+		}
+
+		// The farthest Landmark from anywhere is an end of the diameter
+		int one = sweep(component, first, distances, stack, metrics);
+		int two = sweep(component, one, distances, stack, metrics);
+		for (int i = offsets[component]; i < offsets[component + 1]; i++) {
+			eccentricities[members[i]] = distances[members[i]];
+			farthest[members[i]] = one;
+		}
+
+		// Every Landmark is farthest from one of the two ends
+		sweep(component, two, distances, stack, metrics);
+		for (int i = offsets[component]; i < offsets[component + 1]; i++) {
+			int o = members[i];
+			if (distances[o] > eccentricities[o]) {
+				eccentricities[o] = distances[o];
+				farthest[o] = two;
+			}
+		}
+		diameterStarts[component] = one;
+	}
+
+	/**
+	 * Walks a component without loops from an origin with an explicit stack
+	 * @param component the component
+	 * @param origin ordinal to walk from
+	 * @param distances distance of each ordinal of the component from the origin, set here
+	 * @param stack stack scratch for the whole graph
+	 * @param metrics where the work of the sweep is recorded
+	 * @return the farthest Landmark from the origin
+	 */
+	private int sweep(int component, int origin, int[] distances, int[] stack, TrailMetrics metrics) {
+		for (int i = offsets[component]; i < offsets[component + 1]; i++) {
+			distances[members[i]] = DistanceEngine.UNREACHABLE;
+		}
+		distances[origin] = 0;
+		int top = 0;
+		stack[top++] = origin;
+		int scanned = 0;
+		while (top > 0) {
+			int current = stack[--top];
+			scanned += graph.edgeEnd(current) - graph.edgeStart(current);
+			for (int edge = graph.edgeStart(current); edge < graph.edgeEnd(current); edge++) {
+				int next = graph.neighbor(edge);
+				if (distances[next] == DistanceEngine.UNREACHABLE) {
+					distances[next] = DistanceEngine.extend(distances[current], graph.length(edge));
+					stack[top++] = next;
+				}
+			}
+		}
+		metrics.recordVisits(offsets[component + 1] - offsets[component], scanned);
+
+		int best = origin;
+		for (int i = offsets[component]; i < offsets[component + 1]; i++) {
+			if (distances[members[i]] > distances[best])
+				best = members[i];
+		}
+		return best;
+	}
+
+	/**
+	 * Measures the components with loops with a Dijkstra search from every Landmark. The
+	 * Landmarks are split into ranges run as tasks on the pool, and each task reuses its
+	 * scratch arrays across its searches.
+	 * @param cyclic the components with loops
+	 * @param largest size of the largest of them
+	 * @param metrics where the work of the searches is recorded
+	 * @param pool pool to run the searches on
+	 * @throws IllegalStateException if the thread is interrupted while waiting
+	 */
+	private void measureCyclic(List<Integer> cyclic, final int largest, final TrailMetrics metrics,
+			ExecutorService pool) {
+		// Every Landmark of a component with loops is a source
+		int sourceCount = 0;
+		for (int c : cyclic) {
+			sourceCount += offsets[c + 1] - offsets[c];
+		}
+		final int[] sources = new int[sourceCount];
+		int s = 0;
+		for (int c : cyclic) {
+			for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+				sources[s++] = members[i];
+			}
+		}
+
+		int threads = pool instanceof ForkJoinPool ? ((ForkJoinPool) pool).getParallelism()
+				: Runtime.getRuntime().availableProcessors();
+		int taskCount = Math.min(sourceCount, threads * TASKS_PER_THREAD);
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(taskCount);
+		for (int t = 0; t < taskCount; t++) {
+			final int from = (int) ((long) sourceCount * t / taskCount);
+			final int to = (int) ((long) sourceCount * (t + 1) / taskCount);
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					int[] distances = new int[graph.size()];
+					Arrays.fill(distances, DistanceEngine.UNREACHABLE);
+					boolean[] settled = new boolean[graph.size()];
+					int[] touched = new int[largest];
+					for (int i = from; i < to; i++) {
+						searchDijkstra(sources[i], distances, settled, touched, metrics);
+					}
+					return null;
+				}
+			});
+		}
+
+		// Each task writes the entries of its own sources, and waiting on the futures
+		// makes those writes visible here
+		try {
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while measuring the network.");
+		} catch (ExecutionException e) {
+			// Rethrow what the search task threw
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from one source. Landmarks are settled in order of
+	 * distance, so the last one settled is the farthest. The scratch arrays are reset for
+	 * the next search by undoing only the Landmarks this one reached.
+	 * @param origin ordinal to search from
+	 * @param distances distance scratch for the whole graph, all UNREACHABLE
+	 * @param settled settled scratch for the whole graph, all false
+	 * @param touched room for each Landmark of the component
+	 * @param metrics where the work of the search is recorded
+	 */
+	private void searchDijkstra(int origin, int[] distances, boolean[] settled, int[] touched,
+			TrailMetrics metrics) {
+		LongMinHeap heap = new LongMinHeap(16);
+		heap.add(LongMinHeap.pack(0, origin));
+		distances[origin] = 0;
+		int visited = 0;
+		int scanned = 0;
+		int last = origin;
+
+		while (!heap.isEmpty()) {
+			long entry = heap.removeMin();
+			int current = LongMinHeap.ordinal(entry);
+			if (settled[current])
+				continue;
+			settled[current] = true;
+			touched[visited++] = current;
+			scanned += graph.edgeEnd(current) - graph.edgeStart(current);
+			last = current;
+
+			int distance = LongMinHeap.distance(entry);
+			for (int edge = graph.edgeStart(current); edge < graph.edgeEnd(current); edge++) {
+				int next = graph.neighbor(edge);
+				int candidate = DistanceEngine.extend(distance, graph.length(edge));
+				if (!settled[next] && (distances[next] == DistanceEngine.UNREACHABLE || candidate < distances[next])) {
+					distances[next] = candidate;
+					heap.add(LongMinHeap.pack(candidate, next));
+				}
+			}
+		}
+		eccentricities[origin] = distances[last];
+		farthest[origin] = last;
+		metrics.recordVisits(visited, scanned);
+
+		// Every Landmark given a distance was settled, since the component is connected
+		for (int i = 0; i < visited; i++) {
+			distances[touched[i]] = DistanceEngine.UNREACHABLE;
+			settled[touched[i]] = false;
+		}
+	}
+
+	/**
+	 * Returns the connected components that were measured
+	 * @return the components
+	 */
+	public ComponentIndex getComponents() {
+		return components;
+	}
+
+	/**
+	 * Returns the distance from a Landmark to the farthest Landmark it can reach
+	 * @param ordinal ordinal of the Landmark
+	 * @return eccentricity in feet, 0 for a Landmark with no trails, or -1 if removed
+	 */
+	public int eccentricity(int ordinal) {
+		return eccentricities[ordinal];
+	}
+
+	/**
+	 * Returns the farthest Landmark a Landmark can reach
+	 * @param ordinal ordinal of the Landmark
+	 * @return ordinal of the farthest Landmark, the Landmark itself if it has no trails,
+	 * 		   or -1 if removed
+	 */
+	public int farthest(int ordinal) {
+		return farthest[ordinal];
+	}
+
+	/**
+	 * Returns true if a component has no loops, so it was measured in linear time
+	 * @param component the component
+	 * @return true if the component is a tree
+	 */
+	public boolean isTree(int component) {
+		return trees[component];
+	}
+
+	/**
+	 * Returns the length of the longest shortest route within a component
+	 * @param component the component
+	 * @return diameter in feet
+	 */
+	public int diameter(int component) {
+		return eccentricities[diameterStarts[component]];
+	}
+
+	/**
+	 * Returns the two ends of the longest shortest route within a component
+	 * @param component the component
+	 * @return ordinals of the two ends, the same Landmark twice for a component of one
+	 */
+	public int[] diameterEnds(int component) {
+		int start = diameterStarts[component];
+		return new int[] {start, farthest[start]};
+	}
+
+	/**
+	 * Returns the smallest eccentricity within a component
+	 * @param component the component
+	 * @return radius in feet
+	 */
+	public int radius(int component) {
+		int radius = Integer.MAX_VALUE;
+		for (int i = offsets[component]; i < offsets[component + 1]; i++) {
+			radius = Math.min(radius, eccentricities[members[i]]);
+		}
+		return radius;
+	}
+
+	/**
+	 * Returns the centers of a component, the Landmarks from which the farthest Landmark
+	 * is nearest
+	 * @param component the component
+	 * @return ordinals of the centers, in ordinal order
+	 */
+	public int[] centers(int component) {
+		int radius = radius(component);
+		int count = 0;
+		for (int i = offsets[component]; i < offsets[component + 1]; i++) {
+			if (eccentricities[members[i]] == radius)
+				count++;
+		}
+		int[] centers = new int[count];
+		count = 0;
+		for (int i = offsets[component]; i < offsets[component + 1]; i++) {
+			if (eccentricities[members[i]] == radius)
+				centers[count++] = members[i];
+		}
+		return centers;
+	}
+
+	/**
+	 * Returns the component with the longest diameter, the lowest of any tie
+	 * @return the component, or -1 if the graph has no Landmarks
+	 */
+	public int longestComponent() {
+		int best = -1;
+		for (int c = 0; c < components.count(); c++) {
+			if (best < 0 || diameter(c) > diameter(best))
+				best = c;
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the component with the most Landmarks, the lowest of any tie
+	 * @return the component, or -1 if the graph has no Landmarks
+	 */
+	public int largestComponent() {
+		int best = -1;
+		for (int c = 0; c < components.count(); c++) {
+			if (best < 0 || components.size(c) > components.size(best))
+				best = c;
+		}
+		return best;
+	}
+}
@@ -1,26 +1,43 @@
 package edu.ncsu.csc316.trail.manager;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
-import edu.ncsu.csc316.dsa.list.List;
-import edu.ncsu.csc316.dsa.map.Map;
 import edu.ncsu.csc316.dsa.sorter.Sorter;
 import edu.ncsu.csc316.trail.data.Landmark;
-import edu.ncsu.csc316.trail.data.Trail;
-import edu.ncsu.csc316.trail.dsa.Algorithm;
-import edu.ncsu.csc316.trail.dsa.DSAFactory;
-import edu.ncsu.csc316.trail.dsa.DataStructure;
+import edu.ncsu.csc316.trail.manager.DistanceReportCache.CachedReport;
 
 /**
  * Prints reports for distances to all landmarks from an origin as well as proposed
  * first aid stations based on the minimum number of intersecting trails at a Landmark.
+ * Each ReportManager serves its own park with its own choice of data structures, and
+ * its reports can be created from many threads at once.
  * @author Ben Morris
  */
 public class ReportManager {
+	/** Default maximum number of origins kept in the distance report cache */
+	public static final int DEFAULT_CACHE_ENTRIES = 64;
+	/** Default maximum estimated bytes kept in the distance report cache */
+	public static final long DEFAULT_CACHE_BYTES = 16L * 1024 * 1024;
+	/** Number of feet in a mile */
+	private static final int FEET_PER_MILE = 5280;
 	/** TrailManager */
-	private static TrailManager tm;
+	private final TrailManager tm;
+	/** Data structures and sorting algorithms for this park */
+	private final DsaConfiguration config;
+	/** Cache of distance reports by origin */
+	private final DistanceReportCache distanceCache;
 	
 	/**
 	 * Constructor
@@ -29,23 +46,162 @@ public class ReportManager {
 	 * @throws FileNotFoundException if one of the files isn't found
 	 */
     public ReportManager(String pathToLandmarkFile, String pathToTrailsFile) throws FileNotFoundException {        
-    	// Set Map type for DSAFactory
-    	DSAFactory.setMapType(DataStructure.SKIPLIST);
-    	// Set List type for DSAFactory
-    	DSAFactory.setListType(DataStructure.SINGLYLINKEDLIST);
-    	// Set Comparison Sorter type for DSAFactory
-    	DSAFactory.setComparisonSorterType(Algorithm.MERGESORT);
-    	// Set Non-Comparison Sorter type for DSAFactory
-    	DSAFactory.setNonComparisonSorterType(Algorithm.RADIX_SORT);
+    	this(pathToLandmarkFile, pathToTrailsFile, null);
+    }
+    
+	/**
+	 * Constructor
+	 * @param pathToLandmarkFile path to file of Landmarks
+	 * @param pathToTrailsFile path to file of Trails
+	 * @param snapshotPath path of the binary snapshot of the park, or null to not use one
+	 * @throws FileNotFoundException if one of the files isn't found
+	 */
+    public ReportManager(String pathToLandmarkFile, String pathToTrailsFile, String snapshotPath)
+    		throws FileNotFoundException {        
+    	this(pathToLandmarkFile, pathToTrailsFile, snapshotPath, DEFAULT_CACHE_ENTRIES, DEFAULT_CACHE_BYTES);
+    }
+    
+	/**
+	 * Constructor
+	 * @param pathToLandmarkFile path to file of Landmarks
+	 * @param pathToTrailsFile path to file of Trails
+	 * @param snapshotPath path of the binary snapshot of the park, or null to not use one
+	 * @param cacheEntries maximum number of origins kept in the distance report cache
+	 * @param cacheBytes maximum estimated bytes kept in the distance report cache
+	 * @throws FileNotFoundException if one of the files isn't found
+	 */
+    public ReportManager(String pathToLandmarkFile, String pathToTrailsFile, String snapshotPath,
+    		int cacheEntries, long cacheBytes) throws FileNotFoundException {        
+    	this(pathToLandmarkFile, pathToTrailsFile, snapshotPath, DsaConfiguration.DEFAULT, cacheEntries, cacheBytes);
+    }
+    
+	/**
+	 * Constructor
+	 * @param pathToLandmarkFile path to file of Landmarks
+	 * @param pathToTrailsFile path to file of Trails
+	 * @param snapshotPath path of the binary snapshot of the park, or null to not use one
+	 * @param config data structures and sorting algorithms for this park
+	 * @param cacheEntries maximum number of origins kept in the distance report cache
+	 * @param cacheBytes maximum estimated bytes kept in the distance report cache
+	 * @throws FileNotFoundException if one of the files isn't found
+	 */
+    public ReportManager(String pathToLandmarkFile, String pathToTrailsFile, String snapshotPath,
+    		DsaConfiguration config, int cacheEntries, long cacheBytes) throws FileNotFoundException {        
+    	// Create the distance report cache
+    	distanceCache = new DistanceReportCache(cacheEntries, cacheBytes);
+    	
+    	// Keep this park's data structure choices instead of setting DSAFactory's global ones
+    	this.config = config;
     		    
 	    // Create a new TrailManager    	
     	try {
-			tm = new TrailManager(pathToLandmarkFile, pathToTrailsFile);
+			tm = new TrailManager(pathToLandmarkFile, pathToTrailsFile, snapshotPath, config);
 		} catch (Exception e) {
 			throw new FileNotFoundException("File not found.");
 		}
     }
     
+    /**
+     * Reloads the files of Landmarks and Trails. Cached reports from the old data are
+     * dropped the next time the cache is used.
+     * @throws FileNotFoundException if one of the files isn't found
+     */
+    public void reload() throws FileNotFoundException {
+    	tm.reload();
+    }
+    
+    /**
+     * Adds a Landmark with no trails. The change is made in memory only.
+     * @param landmark Landmark to add
+     * @return true if the Landmark was added, false if a Landmark with its ID already exists
+     */
+    public boolean addLandmark(Landmark landmark) {
+    	return tm.addLandmark(landmark);
+    }
+    
+    /**
+     * Removes a Landmark and every trail intersecting it
+     * @param landmarkID ID of the Landmark to remove
+     * @return true if the Landmark was removed, false if there is no such Landmark
+     */
+    public boolean removeLandmark(String landmarkID) {
+    	return tm.removeLandmark(landmarkID);
+    }
+    
+    /**
+     * Adds a trail between two Landmarks, such as a new connector trail
+     * @param landmarkOne ID of the first end point
+     * @param landmarkTwo ID of the second end point
+     * @param length length of the trail in feet
+     * @return true if the trail was added, false if an end point doesn't exist
+     */
+    public boolean addTrail(String landmarkOne, String landmarkTwo, int length) {
+    	return tm.addTrail(landmarkOne, landmarkTwo, length);
+    }
+    
+    /**
+     * Removes one trail of the given length between two Landmarks, such as a closed trail
+     * @param landmarkOne ID of the first end point
+     * @param landmarkTwo ID of the second end point
+     * @param length length of the trail in feet
+     * @return true if the trail was removed, false if there is no such trail
+     */
+    public boolean removeTrail(String landmarkOne, String landmarkTwo, int length) {
+    	return tm.removeTrail(landmarkOne, landmarkTwo, length);
+    }
+    
+    /**
+     * Starts reloading the files of Landmarks and Trails in the background whenever
+     * they change. Reports already being created finish on the old data.
+     * @return the watcher. Close it to stop watching
+     * @throws IOException if the files can't be watched
+     */
+    public SourceWatcher watchSources() throws IOException {
+    	return tm.watchSources();
+    }
+    
+    /**
+     * Returns the time spent loading the park and creating its reports
+     * @return the metrics
+     */
+    public TrailMetrics getMetrics() {
+    	return tm.getMetrics();
+    }
+    
+    /**
+     * Returns the data structures and sorting algorithms asked for this park
+     * @return the data structure choices, which may be DsaConfiguration.ADAPTIVE
+     */
+    public DsaConfiguration getConfiguration() {
+    	return config;
+    }
+
+    /**
+     * Returns the data structures and sorting algorithms serving the park as last loaded.
+     * With DsaConfiguration.ADAPTIVE this is the choice made for the park, which can be
+     * logged and passed back in to pin it.
+     * @return the data structure choices in use
+     */
+    public DsaConfiguration getActiveConfiguration() {
+    	return tm.getNetwork().getConfiguration();
+    }
+    
+    /**
+     * Returns the TrailManager holding this park
+     * @return the TrailManager
+     */
+    public TrailManager getTrailManager() {
+    	return tm;
+    }
+    
+    /**
+     * Returns the distance report cache, for its hit and miss counters
+     * @return the distance report cache
+     */
+    public DistanceReportCache getDistanceCache() {
+    	return distanceCache;
+    }
+    
     /**
      * Creates the Proposed First Aid Locations report
      * @param minTrails minimum number of trails intersecting a Landmark for the Landmark
@@ -53,171 +209,728 @@ public class ReportManager {
      * @return The report as a String
      * @throws FileNotFoundException if the file cannot be found
      */
-    public String getProposedFirstAidLocations(int minTrails) 
-		   throws FileNotFoundException {		    
-    	// Report to return
-		StringBuilder stationReport = new StringBuilder();
-		
-		// Handling choice of zero or fewer trail intersections for direct
-		// method call in Testing
+    public String getProposedFirstAidLocations(int minTrails)
+		   throws FileNotFoundException {
+    	return createFirstAidReport(minTrails, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates the Proposed First Aid Locations report for only the best k locations,
+     * in the same order as the full report. The locations are read from the front of the
+     * pre-sorted buckets, so the cost is O(k) whatever the size of the park.
+     * @param k maximum number of locations to report
+     * @param minTrails minimum number of trails intersecting a Landmark for the Landmark
+     * 		  to be considered for a First Aid location
+     * @return The report as a String
+     */
+    public String getTopFirstAidLocations(int k, int minTrails) {
+    	return createFirstAidReport(minTrails, k);
+    }
+
+    /**
+     * Writes the Proposed First Aid Locations report line by line, so the text of a large
+     * report is never held in memory. The output is the same as
+     * getProposedFirstAidLocations. The park is never locked, so a slow Writer never holds
+     * off updates.
+     * @param minTrails minimum number of trails intersecting a Landmark for the Landmark
+     * 		  to be considered for a First Aid location
+     * @param out Writer to write the report to. It is not flushed or closed.
+     * @throws IOException if the report can't be written
+     */
+    public void writeProposedFirstAidLocations(int minTrails, Writer out) throws IOException {
+    	writeFirstAidReport(minTrails, Integer.MAX_VALUE, out);
+    }
+
+    /**
+     * Writes the Proposed First Aid Locations report for only the best k locations. The
+     * output is the same as getTopFirstAidLocations.
+     * @param k maximum number of locations to report
+     * @param minTrails minimum number of trails intersecting a Landmark for the Landmark
+     * 		  to be considered for a First Aid location
+     * @param out Writer to write the report to. It is not flushed or closed.
+     * @throws IOException if the report can't be written
+     */
+    public void writeTopFirstAidLocations(int k, int minTrails, Writer out) throws IOException {
+    	writeFirstAidReport(minTrails, k, out);
+    }
+
+    /**
+     * Creates the Proposed First Aid Locations report by writing it to a String, so the
+     * String and streamed reports share one renderer
+     * @param minTrails minimum number of trails intersecting a Landmark for the Landmark
+     * 		  to be considered for a First Aid location
+     * @param limit maximum number of locations to report
+     * @return The report as a String
+     */
+    private String createFirstAidReport(int minTrails, int limit) {
+    	StringWriter report = new StringWriter();
+    	try {
+    		writeFirstAidReport(minTrails, limit, report);
+    	} catch (IOException e) {
+    		// A StringWriter never throws
+    		throw new IllegalStateException(e);
+    	}
+    	return report.toString();
+    }
+
+    /**
+     * Writes the Proposed First Aid Locations report line by line, recording how long
+     * it took
+     * @param minTrails minimum number of trails intersecting a Landmark for the Landmark
+     * 		  to be considered for a First Aid location
+     * @param limit maximum number of locations to report
+     * @param out Writer to write the report to
+     * @throws IOException if the report can't be written
+     */
+    private void writeFirstAidReport(int minTrails, int limit, Writer out) throws IOException {
+    	long start = System.nanoTime();
+    	try {
+    		renderFirstAidReport(minTrails, limit, out);
+    	} finally {
+    		recordFirstAid(System.nanoTime() - start);
+    	}
+    }
+
+    /**
+     * Records the time taken by one First Aid Locations report. The Landmarks are
+     * already in report order, so the whole report is rendering.
+     * @param nanos time the report took in nanoseconds
+     */
+    private void recordFirstAid(long nanos) {
+    	TrailMetrics metrics = tm.getMetrics();
+    	metrics.record(TrailMetrics.Phase.RENDER, nanos);
+    	metrics.record(TrailMetrics.Report.FIRST_AID, nanos);
+    }
+
+    /**
+     * Writes the Proposed First Aid Locations report line by line
+     * @param minTrails minimum number of trails intersecting a Landmark for the Landmark
+     * 		  to be considered for a First Aid location
+     * @param limit maximum number of locations to report
+     * @param out Writer to write the report to
+     * @throws IOException if the report can't be written
+     */
+    private void renderFirstAidReport(int minTrails, int limit, Writer out) throws IOException {
+    	// Handling choice of zero or fewer locations
+    	if (limit < 1) {
+    		out.write("Number of locations must be greater than 0.");
+    		return;
+    	}
+		// Handling choice of zero or fewer trail intersections
 		if (minTrails < 1) {
-			stationReport.setLength(0);
-			stationReport.append("Number of intersecting trails must be greater than 0.");
-			return stationReport.toString();
+			out.write("Number of intersecting trails must be greater than 0.");
+			return;
 		}
-				
-		// Map to store Landmark->List<Trail>>
-		Map<Landmark, List<Trail>> ltMap = tm.getProposedFirstAidLocations(minTrails);				
-			    
-	    // Track the number of acceptable locations
-	    int num = 0;
-	    int i = 0;
-	    
-	    // Create a new list to store Landmarks and the number of intersections
-	    IntersectionListEntry[] intersectionArray = new IntersectionListEntry[ltMap.size()];
-	    
-	    // Create an iterator
-	    Iterator<Map.Entry<Landmark, List<Trail>>> it = ltMap.entrySet().iterator();
-	    // Iterate through the list
-	    while(it.hasNext()) {
-	    	// Get the map entry
-	    	Map.Entry<Landmark, List<Trail>> mapEntry = (Map.Entry<Landmark, List<Trail>>) it.next();
-	    	
-	    	// Create an entry of the Landmark and its number of intersecting trails 
-	    	IntersectionListEntry entry = new IntersectionListEntry(mapEntry.getKey(), mapEntry.getValue().size());
-	    	// Add entry to the Array to sort later
-	    	intersectionArray[i] = entry;
-	    	i++;
-	    	
-	    	// Keep track of how many Landmarks met the intersection threshold
-	    	if (mapEntry.getValue().size() >= minTrails) {	    		
-	    		num++;
-	    	}
-	    }	    	    
-	    
+
+		// The whole report comes from one version of the park, which never changes, so a
+		// slow Writer holds nothing up
+		TrailNetwork network = tm.getNetwork();
+		// Adjacency index of Landmarks and their trails
+		TrailGraph graph = network.getTrailGraph();
+		// Landmarks bucketed by intersecting trails, already in report order
+		DegreeBuckets buckets = network.getDegreeBuckets();
+		// Number of the best qualifying Landmarks to report
+		int count = Math.min(buckets.count(minTrails), limit);
+
+		// One line at a time is held in memory
+		StringBuilder line = new StringBuilder();
+
 		// If there were no acceptable locations
-		if (num == 0) {
-			stationReport.setLength(0);
-			stationReport.append("No landmarks have at least ").append(minTrails);
-			stationReport.append(" intersecting trails.");
-			return stationReport.toString();
+		if (count == 0) {
+			appendNoLocations(line, minTrails);
+			out.append(line);
+			return;
 		}
-	    
-	    // Sort intersectionArray. This will sort by descending number of intersections, then ID
-    	Sorter<IntersectionListEntry> sorter = DSAFactory.getComparisonSorter(new IntersectionListEntryComparator()); 
-    	sorter.sort(intersectionArray);
 
-    	// Create the report
-    	// Report header
-    	stationReport.append("Proposed Locations for First Aid Stations {\n");
-	    
-    	// For each of the elements, create a line for the report if the entry meets the requirement
-    	for (int j = 0; j < intersectionArray.length; j++) {
-    		if( intersectionArray[j].getNumIntersections() >= minTrails) {
-	    		stationReport.append("   ").append(intersectionArray[j].getDescription());
-	   			stationReport.append(" (").append(intersectionArray[j].getStringID()).append(") - ");
-	   			stationReport.append(intersectionArray[j].getNumIntersections()).append(" intersecting trails\n");
-    		}
-    	}	    	
+		// Report header
+		out.write("Proposed Locations for First Aid Stations {\n");
+
+		// Write a line for each of the best qualifying Landmarks
+		for (int j = 0; j < count; j++) {
+			int ordinal = buckets.ordinal(j);
+			line.setLength(0);
+			appendFirstAidLine(line, graph.getLandmark(ordinal), graph.degree(ordinal));
+			out.append(line);
+		}
 
 		// Complete the report
-		stationReport.append("}\n");		
-			
-		// Return the report
-		return stationReport.toString();
+		out.write("}\n");
+	}
+
+	/**
+	 * Appends the message for when no Landmark has enough intersecting trails
+	 * @param report report to append to
+	 * @param minTrails minimum number of intersecting trails asked for
+	 */
+	private static void appendNoLocations(StringBuilder report, int minTrails) {
+		report.append("No landmarks have at least ").append(minTrails);
+		report.append(" intersecting trails.");
+	}
+
+	/**
+	 * Appends the line of the First Aid Locations report for one Landmark
+	 * @param report report to append to
+	 * @param landmark the Landmark
+	 * @param degree number of trails intersecting the Landmark
+	 */
+	private static void appendFirstAidLine(StringBuilder report, Landmark landmark, int degree) {
+		report.append("   ").append(landmark.getDescription());
+		report.append(" (").append(landmark.getId()).append(") - ");
+		report.append(degree).append(" intersecting trails\n");
 	}
 
     /**
-     * Creates the report of distances to all reachable landmarks from originLandmark
+     * Creates the report of distances to all reachable landmarks from originLandmark.
+     * Reports are cached by origin until the park data is reloaded.
      * @param originLandmark Landmark to begin from
      * @return report of distances to all reachable landmarks from originLandmark
      */
 	public String getDistancesReport(String originLandmark) {
-    	
+		// The whole report comes from one version of the park
+		TrailNetwork network = tm.getNetwork();
+		return getDistancesReport(network, originLandmark);
+	}
+	
+	/**
+	 * Writes the report of distances to all reachable landmarks from originLandmark line
+	 * by line, so the text of a large report is never held in memory. The output is the
+	 * same as getDistancesReport. The report comes from the current version of the park.
+	 * @param originLandmark Landmark to begin from
+	 * @param out Writer to write the report to. It is not flushed or closed.
+	 * @throws IOException if the report can't be written
+	 */
+	public void writeDistancesReport(String originLandmark, Writer out) throws IOException {
+		writeDistancesReport(tm.getNetwork(), originLandmark, out);
+	}
+
+	/**
+	 * Writes the report of distances to all reachable landmarks from originLandmark in
+	 * one version of the park, line by line. A cached report or cached distances are
+	 * reused, and newly sorted distances are cached without the text, so the String
+	 * report and later streams reuse them too. Versions never change, so a slow Writer
+	 * holds nothing up.
+	 * @param network version of the park to measure the distances in, such as the one
+	 * 		  the caller checked originLandmark against
+	 * @param originLandmark Landmark to begin from
+	 * @param out Writer to write the report to. It is not flushed or closed.
+	 * @throws IOException if the report can't be written
+	 */
+	public void writeDistancesReport(TrailNetwork network, String originLandmark, Writer out) throws IOException {
+		long start = System.nanoTime();
+		try {
+			// Get the Landmark with originLandmark as its ID
+			Landmark origin = network.getLandmarkByID(originLandmark);
+
+			// If the Landmark doesn't exist...
+			if (origin == null) {
+				out.write("The provided landmark ID (" + originLandmark + ") is invalid for the park.");
+				return;
+			}
+
+			// Use the cached report or distances if there are any, and cache new distances
+			long version = network.getVersion();
+			CachedReport cached = distanceCache.get(originLandmark, version);
+			if (cached != null && cached.getReport() != null) {
+				out.write(cached.getReport());
+				return;
+			}
+			DistanceListEntry[] reverseArray;
+			if (cached != null) {
+				reverseArray = cached.getDistances();
+			} else {
+				reverseArray = sortDistances(network, originLandmark);
+				distanceCache.put(originLandmark, version, reverseArray, null);
+			}
+
+			long render = System.nanoTime();
+			writeDistancesReport(origin, reverseArray, out);
+			network.getMetrics().record(TrailMetrics.Phase.RENDER, System.nanoTime() - render);
+		} finally {
+			network.getMetrics().record(TrailMetrics.Report.DISTANCES, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Creates the reports of distances to all reachable landmarks from each of a number
+	 * of origins. The reports are created in parallel on the common ForkJoinPool.
+	 * @param originLandmarks IDs of the Landmarks to begin from
+	 * @return the report for each origin, in the order of originLandmarks
+	 */
+	public List<String> getDistancesReports(Collection<String> originLandmarks) {
+		return getDistancesReports(originLandmarks, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates the reports of distances to all reachable landmarks from each of a number
+	 * of origins, one task per origin on the given pool. Every report comes from the
+	 * version of the park current when the batch starts. Versions never change, so
+	 * updates made while the batch runs are published without waiting for it.
+	 * @param originLandmarks IDs of the Landmarks to begin from
+	 * @param pool pool to create the reports on
+	 * @return the report for each origin, in the order of originLandmarks
+	 * @throws IllegalStateException if the thread is interrupted while waiting
+	 */
+	public List<String> getDistancesReports(Collection<String> originLandmarks, ExecutorService pool) {
+		// Pin one version for the whole batch. Each traversal keeps its own state, so the
+		// tasks share its graph
+		final TrailNetwork network = tm.getNetwork();
+		
+		// One task per origin
+		List<Callable<String>> tasks = new ArrayList<Callable<String>>(originLandmarks.size());
+		for (final String origin : originLandmarks) {
+			tasks.add(new Callable<String>() {
+				@Override
+				public String call() {
+					return getDistancesReport(network, origin);
+				}
+			});
+		}
+		
+		try {
+			// invokeAll keeps the futures in task order
+			List<Future<String>> futures = pool.invokeAll(tasks);
+			List<String> reports = new ArrayList<String>(futures.size());
+			for (Future<String> future : futures) {
+				reports.add(future.get());
+			}
+			return reports;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while creating distance reports.");
+		} catch (ExecutionException e) {
+			// Rethrow what the report task threw
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+	
+	/**
+	 * Creates the report of distances from originLandmark in one version of the park
+	 * @param network park to measure the distances in
+	 * @param originLandmark Landmark to begin from
+	 * @return report of distances to all reachable landmarks from originLandmark
+	 */
+	private String getDistancesReport(TrailNetwork network, String originLandmark) {
+		long start = System.nanoTime();
+		String report = createDistancesReport(network, originLandmark);
+		network.getMetrics().record(TrailMetrics.Report.DISTANCES, System.nanoTime() - start);
+		return report;
+	}
+
+	/**
+	 * Creates the report of distances from originLandmark in one version of the park,
+	 * from the cache if it has already been created
+	 * @param network park to measure the distances in
+	 * @param originLandmark Landmark to begin from
+	 * @return report of distances to all reachable landmarks from originLandmark
+	 */
+	private String createDistancesReport(TrailNetwork network, String originLandmark) {
 		// Get the Landmark with originLandmark as its ID
-		Landmark origin = tm.getLandmarkByID(originLandmark); 
+		Landmark origin = network.getLandmarkByID(originLandmark); 
 		        	
 		// If the Landmark doesn't exist...
 		if (origin == null)
     		return "The provided landmark ID (" + originLandmark + ") is invalid for the park.";
 		
-		// Create a Map of Landmark->distances
-		// This will store the Landmarks reachable from origin and the distances to each
-		Map<Landmark, Integer> distanceMap = tm.getDistancesToDestinations(originLandmark);
+		// Reuse the report if this origin was asked for since the data was loaded, or
+		// its distances if the report was only streamed
+		long version = network.getVersion();
+		CachedReport cached = distanceCache.get(originLandmark, version);
+		if (cached != null && cached.getReport() != null)
+			return cached.getReport();
 		
-		// If there are no Landmarks reachable from the origin...
-		if (distanceMap.isEmpty())
-			return "No landmarks are reachable from " + origin.getDescription() +
-			" (" + origin.getId() + ").";		      
-    	
-		// Initialize array index to zero
-		int index = 0;
+		// Sort the distances and create the report
+		DistanceListEntry[] reverseArray = cached != null ? cached.getDistances()
+				: sortDistances(network, originLandmark);
+		long render = System.nanoTime();
+		String report = createDistancesReport(origin, reverseArray);
+		network.getMetrics().record(TrailMetrics.Phase.RENDER, System.nanoTime() - render);
+		distanceCache.put(originLandmark, version, reverseArray, report);
+		return report;
+	}
+	
+	/**
+	 * Returns the distances to all reachable landmarks from originLandmark in report
+	 * order, from the cache if the report has already been created
+	 * @param originLandmark ID of the Landmark to begin from
+	 * @return distances in report order, or null if the Landmark doesn't exist
+	 */
+	DistanceListEntry[] getSortedDistances(String originLandmark) {
+		TrailNetwork network = tm.getNetwork();
+		if (network.getLandmarkByID(originLandmark) == null)
+			return null;
 		
-    	// Create an Array of ReverseDistanceListEntry to sort		
-		DistanceListEntry[] reverseArray = new DistanceListEntry[distanceMap.size()];
+		CachedReport cached = distanceCache.get(originLandmark, network.getVersion());
+		if (cached != null)
+			return cached.getDistances();
+		return sortDistances(network, originLandmark);
+	}
+	
+	/**
+	 * Finds the distances to all reachable landmarks from originLandmark and sorts them
+	 * by distance, then description, then ID. With radix sorting configured, each Landmark
+	 * gets one long key of its distance above its description rank, and the keys are
+	 * radix sorted. Otherwise the entries are sorted with the comparison sorter.
+	 * @param network park to measure the distances in
+	 * @param originLandmark ID of the Landmark to begin from
+	 * @return distances in report order
+	 */
+	private static DistanceListEntry[] sortDistances(TrailNetwork network, String originLandmark) {
+		// The component of the origin says how many Landmarks it reaches without a traversal
+		int origin = network.getTrailGraph().getOrdinal(originLandmark);
+		int count = network.getComponents().componentSize(origin) - 1;
+		if (count == 0)
+			return new DistanceListEntry[0];
 		
-		// Create an iterator
-	    Iterator<Map.Entry<Landmark, Integer>> it = distanceMap.entrySet().iterator();
-	    // Iterate through the list
-	    while(it.hasNext()) {
-	    	// Get the map entry
-	    	Map.Entry<Landmark, Integer> mapEntry = (Map.Entry<Landmark, Integer>) it.next();	    	
-	    	// Create an entry of the Landmark and its number of intersecting trails 
-	    	DistanceListEntry entry = new DistanceListEntry(mapEntry.getKey(), mapEntry.getValue());
-	    	// Add entry to the Array to sort later
-	    	reverseArray[index] = entry;
-	    	index++;
-	    }
+		if (network.getConfiguration().isRadixSorted())
+			return radixSortDistances(network, origin, count);
+		return comparisonSortDistances(network, origin, count);
+	}
+
+	/**
+	 * Finds the distances to all reachable landmarks from origin and radix sorts them on
+	 * keys of distance, then description rank
+	 * @param network park to measure the distances in
+	 * @param origin ordinal of the Landmark to begin from
+	 * @param count number of Landmarks reachable from origin, not counting itself
+	 * @return distances in report order
+	 */
+	private static DistanceListEntry[] radixSortDistances(TrailNetwork network, int origin, int count) {
+		TrailGraph graph = network.getTrailGraph();
+		DescriptionRanks ranks = network.getDescriptionRanks();
+
+		// Distance of each ordinal from the origin
+		int[] distances = network.getDistances(origin);
+		long start = System.nanoTime();
+
+		// One key per reachable Landmark: distance in the high half, rank in the low half.
+		// The origin is not a destination
+		long[] keys = new long[count];
+		int index = 0;
+		for (int o = 0; o < distances.length; o++) {
+			if (o != origin && distances[o] != DistanceEngine.UNREACHABLE)
+				keys[index++] = ((long) distances[o] << 32) | ranks.rank(o);
+		}
+		LongRadixSorter.sort(keys);
+
+		// Decode the sorted keys into entries
+		DistanceListEntry[] reverseArray = new DistanceListEntry[count];
+		for (int i = 0; i < count; i++) {
+			int o = ranks.ordinal((int) keys[i]);
+			reverseArray[i] = new DistanceListEntry(graph.getLandmark(o), (int) (keys[i] >>> 32), (int) keys[i]);
+		}
+		network.getMetrics().record(TrailMetrics.Phase.SORT, System.nanoTime() - start);
+		return reverseArray;
+	}
+
+	/**
+	 * Finds the distances to all reachable landmarks from origin and sorts them with the
+	 * comparison sorter
+	 * @param network park to measure the distances in
+	 * @param origin ordinal of the Landmark to begin from
+	 * @param count number of Landmarks reachable from origin, not counting itself
+	 * @return distances in report order
+	 */
+	private static DistanceListEntry[] comparisonSortDistances(TrailNetwork network, int origin, int count) {
+		TrailGraph graph = network.getTrailGraph();
+		DescriptionRanks ranks = network.getDescriptionRanks();
+
+		// Distance of each ordinal from the origin
+		int[] distances = network.getDistances(origin);
+		long start = System.nanoTime();
+
+    	// Create an Array of DistanceListEntry to sort, each with its description rank
+		DistanceListEntry[] reverseArray = new DistanceListEntry[count];
+		int index = 0;
+		for (int o = 0; o < distances.length; o++) {
+			if (o != origin && distances[o] != DistanceEngine.UNREACHABLE)
+				reverseArray[index++] = new DistanceListEntry(graph.getLandmark(o), distances[o], ranks.rank(o));
+		}
     	
-    	// Sort reverseArray. This will sort by distance first, then ID
-    	Sorter<DistanceListEntry> sorter = DSAFactory.getComparisonSorter(new ReverseDistanceListEntryComparator()); 
+    	// Sort reverseArray. This will sort by distance first, then description rank
+    	Sorter<DistanceListEntry> sorter = network.getConfiguration().getComparisonSorter(new ReverseDistanceListEntryComparator()); 
     	sorter.sort(reverseArray);
-    	
-    	// Create the report
-    	StringBuilder stationReport = new StringBuilder();
-    	stationReport.append("Landmarks Reachable from ").append(origin.getDescription());
-    	stationReport.append(" (").append(origin.getId()).append(") {\n");
-    	// Add a line to the report for each entry in distanceMap
-    	for(int i = 0; i < distanceMap.size(); i++) {
-    		DistanceListEntry entry = reverseArray[i];
-    		stationReport.append("   ").append(entry.distance).append(" feet ");
-	    	 
-    		// If the distance is a mile or more, convert and show miles as well
-	    	if (entry.distance >= 5280.) {
-	    		double miles = entry.distance / 5280.;
-	    		String milesString = String.format("%.2f", miles);
-	    		stationReport.append("(").append(milesString).append(" miles) ");
-	    	}
-
-	    	// Add the description and ID
-	    	stationReport.append("to ").append(entry.landmark.getDescription());
-	    	stationReport.append(" (").append(entry.landmark.getId()).append(")\n");  
-    	}
-    
-    	// Conclude the report
-	    stationReport.append("}\n");
-	    // Return the report
-    	return stationReport.toString();
-    }
-    
-    /**
-     * Class to compare by number of Trail intersections, then key
-     * @author Ben Morris
-     */
-    static class DescriptionComparator implements Comparator<Landmark> {
-    	
-    	@Override
-        public int compare(Landmark entry1, Landmark entry2)
-        {
-    		// Compare the Landmarks' descriptions
-        	if (entry1.getDescription().compareTo(entry2.getDescription()) > 0)
-        		return 1;
-        	if (entry1.getDescription().compareTo(entry2.getDescription()) < 0)
-        		return -1;
-        	else
-        		return 0;
-        }	
-    }
+    	network.getMetrics().record(TrailMetrics.Phase.SORT, System.nanoTime() - start);
+    	return reverseArray;
+	}
+	
+	/**
+	 * Creates the report of distances from origin as a String, with the same renderer
+	 * that streams it
+	 * @param origin Landmark the distances were measured from
+	 * @param reverseArray distances in report order
+	 * @return report of distances to all reachable landmarks from origin
+	 */
+	private static String createDistancesReport(Landmark origin, DistanceListEntry[] reverseArray) {
+		StringWriter report = new StringWriter();
+		try {
+			writeDistancesReport(origin, reverseArray, report);
+		} catch (IOException e) {
+			// A StringWriter never throws
+			throw new IllegalStateException(e);
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Writes the report of distances from origin line by line
+	 * @param origin Landmark the distances were measured from
+	 * @param reverseArray distances in report order
+	 * @param out Writer to write the report to
+	 * @throws IOException if the report can't be written
+	 */
+	private static void writeDistancesReport(Landmark origin, DistanceListEntry[] reverseArray, Writer out)
+			throws IOException {
+		// If there are no Landmarks reachable from the origin...
+		if (reverseArray.length == 0) {
+			out.write("No landmarks are reachable from " + origin.getDescription() +
+					" (" + origin.getId() + ").");
+			return;
+		}
+
+		// One line at a time is held in memory
+		StringBuilder line = new StringBuilder();
+		line.append("Landmarks Reachable from ").append(origin.getDescription());
+		line.append(" (").append(origin.getId()).append(") {\n");
+		out.append(line);
+
+		// Write a line for each entry in reverseArray
+		for (int i = 0; i < reverseArray.length; i++) {
+			line.setLength(0);
+			appendDistanceLine(line, reverseArray[i]);
+			out.append(line);
+		}
+
+		// Conclude the report
+		out.write("}\n");
+	}
+
+	/**
+	 * Appends the line of the distances report for one reachable Landmark
+	 * @param report report to append to
+	 * @param entry reachable Landmark and its distance
+	 */
+	private static void appendDistanceLine(StringBuilder report, DistanceListEntry entry) {
+		report.append("   ");
+		appendDistance(report, entry.distance);
+
+		// Add the description and ID
+		report.append("to ").append(entry.landmark.getDescription());
+		report.append(" (").append(entry.landmark.getId()).append(")\n");
+	}
+	
+	/**
+	 * Creates a report of the shortest distance between two landmarks
+	 * @param originId ID of the Landmark to begin from
+	 * @param destinationId ID of the Landmark to measure the distance to
+	 * @return report of the shortest distance from originId to destinationId
+	 */
+	public String getDistance(String originId, String destinationId) {
+		Landmark origin;
+		Landmark destination;
+		int distance;
+		TrailNetwork network = tm.getNetwork();
+		// Get the Landmarks at each end
+		origin = network.getLandmarkByID(originId);
+		destination = network.getLandmarkByID(destinationId);
+		
+		// If either Landmark doesn't exist...
+		if (origin == null)
+			return "The provided landmark ID (" + originId + ") is invalid for the park.";
+		if (destination == null)
+			return "The provided landmark ID (" + destinationId + ") is invalid for the park.";
+		
+		// Find the shortest distance, stopping once the route is known
+		distance = network.getDistance(originId, destinationId);
+		
+		// If there is no route between them...
+		if (distance == DistanceEngine.UNREACHABLE)
+			return destination.getDescription() + " (" + destination.getId() + ") is not reachable from " +
+					origin.getDescription() + " (" + origin.getId() + ").";
+		
+		// Create the report
+		StringBuilder distanceReport = new StringBuilder();
+		appendDistance(distanceReport, distance);
+		distanceReport.append("from ").append(origin.getDescription());
+		distanceReport.append(" (").append(origin.getId()).append(") to ");
+		distanceReport.append(destination.getDescription());
+		distanceReport.append(" (").append(destination.getId()).append(").");
+		return distanceReport.toString();
+	}
+	
+	/**
+	 * Creates a report of the farthest landmark that can be reached from a landmark. The
+	 * whole park is measured on the first analytics report after a load or update, on
+	 * the version of the park the report started with, so updates and other reports
+	 * don't wait for it.
+	 * @param landmarkId ID of the Landmark to begin from
+	 * @return report of the farthest landmark from landmarkId
+	 */
+	public String getFarthestReport(String landmarkId) {
+		TrailNetwork network = tm.getNetwork();
+		// If the Landmark doesn't exist...
+		TrailGraph graph = network.getTrailGraph();
+		int ordinal = graph.getOrdinal(landmarkId);
+		if (ordinal < 0)
+			return "The provided landmark ID (" + landmarkId + ") is invalid for the park.";
+		
+		// If no other Landmark can be reached...
+		Landmark origin = graph.getLandmark(ordinal);
+		if (network.getComponents().componentSize(ordinal) == 1)
+			return "No landmarks are reachable from " + origin.getDescription() +
+					" (" + origin.getId() + ").";
+		
+		NetworkAnalytics analytics = network.getAnalytics();
+		Landmark farthest = graph.getLandmark(analytics.farthest(ordinal));
+		StringBuilder report = new StringBuilder();
+		report.append("The farthest landmark from ").append(origin.getDescription());
+		report.append(" (").append(origin.getId()).append(") is ");
+		report.append(farthest.getDescription()).append(" (").append(farthest.getId()).append("), ");
+		appendDistance(report, analytics.eccentricity(ordinal));
+		report.append("away.");
+		return report.toString();
+	}
+	
+	/**
+	 * Creates a report of the longest route in the park and the centers of its largest
+	 * group of connected landmarks. The whole park is measured on the first analytics
+	 * report after a load or update, on the version of the park the report started with,
+	 * so updates and other reports don't wait for it.
+	 * @return report of the diameter and centers of the park
+	 */
+	public String getNetworkReport() {
+		TrailNetwork network = tm.getNetwork();
+		// If the park is empty...
+		NetworkAnalytics analytics = network.getAnalytics();
+		TrailGraph graph = network.getTrailGraph();
+		int longest = analytics.longestComponent();
+		if (longest < 0)
+			return "The park has no landmarks.";
+		
+		// If every Landmark is on its own...
+		int largest = analytics.largestComponent();
+		int largestSize = network.getComponents().size(largest);
+		if (largestSize == 1)
+			return "No two landmarks in the park are connected.";
+		
+		StringBuilder report = new StringBuilder("Trail Network {\n");
+		int[] ends = analytics.diameterEnds(longest);
+		report.append("   Longest route: ");
+		appendDistance(report, analytics.diameter(longest));
+		appendEnds(report, graph.getLandmark(ends[0]), graph.getLandmark(ends[1]));
+		
+		// A line for each center of the largest group
+		int[] centers = analytics.centers(largest);
+		for (int i = 0; i < centers.length; i++) {
+			Landmark center = graph.getLandmark(centers[i]);
+			report.append("   Center: ").append(center.getDescription());
+			report.append(" (").append(center.getId()).append("), at most ");
+			appendDistance(report, analytics.eccentricity(centers[i]));
+			report.append("from any of ").append(largestSize).append(" connected landmarks\n");
+		}
+		report.append("}\n");
+		return report.toString();
+	}
+	
+	/**
+	 * Creates a report of how well a set of first aid stations covers the park: how many
+	 * landmarks each station is nearest to and how far the farthest of them is, the worst
+	 * covered landmark and how many landmarks cannot reach any station. The park is
+	 * searched once from all of the stations together.
+	 * @param stationIds IDs of the first aid stations
+	 * @return report of the coverage of the stations
+	 */
+	public String getCoverageReport(Collection<String> stationIds) {
+		if (stationIds.isEmpty())
+			return "At least one first aid station is required.";
+		TrailNetwork network = tm.getNetwork();
+		// If a station doesn't exist...
+		for (String stationId : stationIds) {
+			if (network.getLandmarkByID(stationId) == null)
+				return "The provided landmark ID (" + stationId + ") is invalid for the park.";
+		}
+		StationCoverage coverage = network.getStationCoverage(stationIds.toArray(new String[stationIds.size()]));
+		TrailGraph graph = network.getTrailGraph();
+		
+		// A line for each station
+		int[] stations = coverage.getStations();
+		StringBuilder report = new StringBuilder("First Aid Coverage {\n");
+		for (int i = 0; i < stations.length; i++) {
+			Landmark station = graph.getLandmark(stations[i]);
+			report.append("   ").append(station.getDescription()).append(" (").append(station.getId());
+			report.append(") is nearest for ").append(coverage.served(i));
+			report.append(coverage.served(i) == 1 ? " landmark" : " landmarks");
+			if (coverage.served(i) > 0) {
+				report.append(", the farthest ");
+				appendDistance(report, coverage.reach(i));
+				report.append("away");
+			}
+			report.append("\n");
+		}
+		
+		// Then the worst covered Landmark and any that can't be reached
+		if (coverage.worst() >= 0) {
+			Landmark worst = graph.getLandmark(coverage.worst());
+			Landmark station = graph.getLandmark(coverage.nearestStation(coverage.worst()));
+			report.append("   Worst covered: ").append(worst.getDescription());
+			report.append(" (").append(worst.getId()).append("), ");
+			appendDistance(report, coverage.worstDistance());
+			report.append("from ").append(station.getDescription()).append(" (").append(station.getId()).append(")\n");
+		}
+		if (coverage.uncovered() > 0) {
+			report.append("   ").append(coverage.uncovered());
+			report.append(coverage.uncovered() == 1 ? " landmark cannot" : " landmarks cannot").append(" reach a station\n");
+		}
+		report.append("}\n");
+		return report.toString();
+	}
+	
+	/**
+	 * Appends the two ends of a route to a line of a report
+	 * @param report report to append to
+	 * @param one Landmark at one end
+	 * @param two Landmark at the other end
+	 */
+	private static void appendEnds(StringBuilder report, Landmark one, Landmark two) {
+		report.append("from ").append(one.getDescription()).append(" (").append(one.getId()).append(") to ");
+		report.append(two.getDescription()).append(" (").append(two.getId()).append(")\n");
+	}
+	
+	/**
+	 * Appends a distance in feet to a report, followed by the distance in miles when
+	 * it is a mile or more
+	 * @param report report to append to
+	 * @param distance distance in feet
+	 */
+	private static void appendDistance(StringBuilder report, int distance) {
+		report.append(distance).append(" feet ");
+		
+		// If the distance is a mile or more, convert and show miles as well
+		if (distance >= FEET_PER_MILE) {
+			report.append("(");
+			appendMiles(report, distance);
+			report.append(" miles) ");
+		}
+	}
+
+	/**
+	 * Appends a distance in feet as miles to two decimal places, rounding half up. This
+	 * gives the same digits as String.format("%.2f") without a Formatter or a double.
+	 * @param report report to append to
+	 * @param distance distance in feet, at least 0
+	 */
+	static void appendMiles(StringBuilder report, int distance) {
+		// Hundredths of a mile, rounded half up
+		long hundredths = ((long) distance * 100 + FEET_PER_MILE / 2) / FEET_PER_MILE;
+		int fraction = (int) (hundredths % 100);
+
+		report.append(hundredths / 100).append('.');
+		if (fraction < 10)
+			report.append('0');
+		report.append(fraction);
+	}
     
     /**
 	 * Class to compare by String
@@ -247,7 +960,9 @@ public class ReportManager {
     	/** Field for LandmarkID */
     	private Landmark landmark;
     	/** Field for distance */
-    	private Integer distance;
+    	private int distance;
+    	/** Rank of the Landmark by description, then ID, or -1 if it isn't known */
+    	private int rank;
     	
     	/**
     	 * Constructor
@@ -255,8 +970,19 @@ public class ReportManager {
     	 * @param distance Distance to the origin
     	 */
     	public DistanceListEntry(Landmark landmark, Integer distance) {
+    		this(landmark, distance, -1);
+    	}
+    	
+    	/**
+    	 * Constructor
+    	 * @param landmark Landmark reachable from the origin
+    	 * @param distance Distance to the origin
+    	 * @param rank rank of the Landmark by description, then ID
+    	 */
+    	public DistanceListEntry(Landmark landmark, int distance, int rank) {
     		this.landmark = landmark;
-    		this.distance = distance;    		
+    		this.distance = distance;
+    		this.rank = rank;
     	}
     	
     	/**
@@ -264,23 +990,20 @@ public class ReportManager {
     	 */
     	public DistanceListEntry() {
     		this.landmark = null;
-    		this.distance = 0;    		
+    		this.distance = 0;
+    		this.rank = -1;
     	}
     	
     	@Override
     	public int compareTo(DistanceListEntry entry) {
     		// Sorts by distance first, then Landmark descriptions
-    		if (this.distance.compareTo(entry.distance) > 0)
-    			return 1;
-    		else if (this.distance.compareTo(entry.distance) < 0)
-    			return -1;
-    		else
-    			if (this.landmark.getDescription().compareTo(entry.landmark.getDescription()) > 0 )
-    				return 1;
-    			else if (this.landmark.getDescription().compareTo(entry.landmark.getDescription()) < 0 )
-    				return -1;
+    		if (this.distance != entry.distance)
+    			return this.distance < entry.distance ? -1 : 1;
     		
-    		return 0;    		
+    		// Ranks are in description order, so compare them when both are known
+    		if (this.rank >= 0 && entry.rank >= 0)
+    			return Integer.compare(this.rank, entry.rank);
+    		return DescriptionRanks.compare(this.landmark, entry.landmark);
     	}
     	
     	/**
@@ -343,7 +1066,7 @@ public class ReportManager {
     	
     	@Override
     	public int compareTo(IntersectionListEntry entry) {
-    		// Sorting by descending number of intersections, then Landmark description
+    		// Sorting by descending number of intersections, then Landmark description, then ID
     		if (this.getNumIntersections().compareTo(entry.getNumIntersections()) < 0)
     			return 1;
     		else if (this.getNumIntersections().compareTo(entry.getNumIntersections()) > 0)
@@ -353,8 +1076,9 @@ public class ReportManager {
     				return 1;
     			else if (this.landmark.getDescription().compareTo(entry.landmark.getDescription()) < 0 )
     				return -1;
-    		
-    		return 0;    		
+    			else
+    				return this.landmark.getId().compareTo(entry.landmark.getId());
+
     	}
     	
     	/**
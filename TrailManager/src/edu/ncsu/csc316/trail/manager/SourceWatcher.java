@@ -0,0 +1,174 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the files of Landmarks and Trails of a TrailManager and reloads them on a
+ * background thread when they change. Editors often write a file in several steps, so
+ * the reload waits until the files have been quiet for a short time. If the files can't
+ * be read, for example because they are still being copied, the TrailManager keeps
+ * serving the park it has and the next change tries again.
+ * @author Ben Morris
+ */
+public class SourceWatcher implements Closeable {
+	/** Milliseconds the files must go without changing before they are reloaded */
+	static final long QUIET_MILLIS = 200;
+
+	/** TrailManager to reload */
+	private final TrailManager manager;
+	/** Watches the directories holding the files */
+	private final WatchService service;
+	/** Absolute path of the file of Landmarks */
+	private final Path landmarkFile;
+	/** Absolute path of the file or directory of Trails */
+	private final Path trailPath;
+	/** True if the Trails are a directory of part files */
+	private final boolean trailDirectory;
+	/** Thread that waits for changes and reloads */
+	private final Thread thread;
+	/** Number of reloads that published a new park */
+	private final AtomicLong reloads = new AtomicLong();
+	/** Number of reloads that failed and kept the old park */
+	private final AtomicLong failures = new AtomicLong();
+
+	/**
+	 * Constructor. Use TrailManager.watchSources to create a SourceWatcher.
+	 * @param manager TrailManager to reload
+	 * @throws IOException if the directories of the files can't be watched
+	 */
+	SourceWatcher(TrailManager manager) throws IOException {
+		this.manager = manager;
+		this.landmarkFile = Paths.get(manager.getPathtolandmarkfile()).toAbsolutePath();
+		this.trailPath = Paths.get(manager.getPathtotrailsfile()).toAbsolutePath();
+		this.trailDirectory = Files.isDirectory(trailPath);
+		this.service = FileSystems.getDefault().newWatchService();
+
+		// Files are replaced as often as they are edited, so watch their directories
+		register(landmarkFile.getParent());
+		register(trailPath.getParent());
+		if (trailDirectory)
+			register(trailPath);
+
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				watch();
+			}
+		}, "trail-source-watcher");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts watching
+	 */
+	void start() {
+		thread.start();
+	}
+
+	/**
+	 * Registers a directory with the watch service
+	 * @param directory directory to watch
+	 * @throws IOException if the directory can't be watched
+	 */
+	private void register(Path directory) throws IOException {
+		directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+	}
+
+	/**
+	 * Waits for changes to the files and reloads them until the watcher is closed
+	 */
+	private void watch() {
+		try {
+			while (true) {
+				// Wait for a change to one of the files
+				boolean changed = drain(service.take());
+				if (!changed)
+					continue;
+
+				// Then wait for the files to go quiet
+				WatchKey key;
+				while ((key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					drain(key);
+				}
+				reload();
+			}
+		} catch (ClosedWatchServiceException e) {
+			// Closed, so stop watching
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Takes the events of a watch key and resets it
+	 * @param key watch key with events
+	 * @return true if any event was for one of the files
+	 */
+	private boolean drain(WatchKey key) {
+		Path directory = (Path) key.watchable();
+		boolean changed = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				changed = true;
+				continue;
+			}
+			Path file = directory.resolve((Path) event.context());
+			if (file.equals(landmarkFile) || file.equals(trailPath)
+					|| (trailDirectory && directory.equals(trailPath)))
+				changed = true;
+		}
+		key.reset();
+		return changed;
+	}
+
+	/**
+	 * Reloads the files, keeping the old park if they can't be read
+	 */
+	private void reload() {
+		try {
+			manager.reload();
+			reloads.incrementAndGet();
+		} catch (FileNotFoundException | RuntimeException e) {
+			failures.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the number of reloads that published a new park
+	 * @return number of reloads
+	 */
+	public long getReloadCount() {
+		return reloads.get();
+	}
+
+	/**
+	 * Returns the number of reloads that failed and kept the old park
+	 * @return number of failed reloads
+	 */
+	public long getFailedReloadCount() {
+		return failures.get();
+	}
+
+	/**
+	 * Stops watching. A reload already running is allowed to finish.
+	 * @throws IOException if the watch service can't be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		service.close();
+	}
+}
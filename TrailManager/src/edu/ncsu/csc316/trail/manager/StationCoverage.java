@@ -0,0 +1,150 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+
+/**
+ * How well a set of first aid stations covers a park: the nearest station to each
+ * Landmark and the distance to it, from one multi-source search of the TrailGraph,
+ * and a summary of the worst coverage. Ordinals refer to the graph as it was measured.
+ * @author Ben Morris
+ */
+public class StationCoverage {
+	/** Ordinals of the stations, without repeats, in the order given */
+	private final int[] stations;
+	/** Nearest station to each ordinal, or DistanceEngine.UNREACHABLE */
+	private final int[] nearest;
+	/** Distance from each ordinal to its nearest station, or DistanceEngine.UNREACHABLE */
+	private final int[] distances;
+	/** Number of Landmarks, stations excluded, that are nearest to each station */
+	private final int[] served;
+	/** Distance to the farthest Landmark that is nearest to each station */
+	private final int[] reach;
+	/** Landmark farthest from its nearest station, or -1 if no other Landmark reaches one */
+	private final int worst;
+	/** Number of Landmarks that cannot reach any station */
+	private final int uncovered;
+
+	/**
+	 * Constructor. Searches the graph once from every station together.
+	 * @param graph graph to measure
+	 * @param engine shortest-distance search over the graph
+	 * @param stations ordinals of the stations, at least one
+	 * @throws IllegalArgumentException if there are no stations
+	 */
+	public StationCoverage(TrailGraph graph, DistanceEngine engine, int[] stations) {
+		if (stations.length == 0)
+			throw new IllegalArgumentException("At least one first aid station is required.");
+
+		// A station given twice is listed once
+		boolean[] isStation = new boolean[graph.size()];
+		int count = 0;
+		int[] unique = new int[stations.length];
+		for (int station : stations) {
+			if (!isStation[station]) {
+				isStation[station] = true;
+				unique[count++] = station;
+			}
+		}
+		this.stations = count == unique.length ? unique : Arrays.copyOf(unique, count);
+
+		nearest = new int[graph.size()];
+		distances = engine.getNearestDistances(this.stations, nearest);
+
+		// Index of each station in the station list
+		int[] index = new int[graph.size()];
+		for (int i = 0; i < count; i++) {
+			index[this.stations[i]] = i;
+		}
+
+		// Tally each Landmark against its nearest station
+		served = new int[count];
+		reach = new int[count];
+		int worstOrdinal = -1;
+		int uncoveredCount = 0;
+		for (int o = 0; o < graph.size(); o++) {
+			if (graph.getLandmark(o) == null || isStation[o])
+				continue;
+			if (nearest[o] == DistanceEngine.UNREACHABLE) {
+				uncoveredCount++;
+				continue;
+			}
+			int station = index[nearest[o]];
+			served[station]++;
+			reach[station] = Math.max(reach[station], distances[o]);
+			if (worstOrdinal < 0 || distances[o] > distances[worstOrdinal])
+				worstOrdinal = o;
+		}
+		worst = worstOrdinal;
+		uncovered = uncoveredCount;
+	}
+
+	/**
+	 * Returns the stations, without repeats, in the order given
+	 * @return ordinals of the stations
+	 */
+	public int[] getStations() {
+		return stations.clone();
+	}
+
+	/**
+	 * Returns the nearest station to a Landmark
+	 * @param ordinal ordinal of the Landmark
+	 * @return ordinal of the nearest station, the lowest ordinal of any tie, or
+	 * 		   DistanceEngine.UNREACHABLE if no station can be reached
+	 */
+	public int nearestStation(int ordinal) {
+		return nearest[ordinal];
+	}
+
+	/**
+	 * Returns the distance from a Landmark to its nearest station
+	 * @param ordinal ordinal of the Landmark
+	 * @return distance in feet, or DistanceEngine.UNREACHABLE if no station can be reached
+	 */
+	public int distance(int ordinal) {
+		return distances[ordinal];
+	}
+
+	/**
+	 * Returns the number of Landmarks, stations excluded, that are nearest to a station
+	 * @param station index of the station in getStations
+	 * @return number of Landmarks served
+	 */
+	public int served(int station) {
+		return served[station];
+	}
+
+	/**
+	 * Returns the distance to the farthest Landmark that is nearest to a station
+	 * @param station index of the station in getStations
+	 * @return distance in feet, 0 if the station serves no Landmarks
+	 */
+	public int reach(int station) {
+		return reach[station];
+	}
+
+	/**
+	 * Returns the Landmark farthest from its nearest station, the lowest ordinal of any tie
+	 * @return ordinal of the worst covered Landmark, or -1 if no Landmark other than a
+	 * 		   station can reach a station
+	 */
+	public int worst() {
+		return worst;
+	}
+
+	/**
+	 * Returns the distance from the worst covered Landmark to its nearest station
+	 * @return distance in feet, 0 if no Landmark other than a station can reach a station
+	 */
+	public int worstDistance() {
+		return worst < 0 ? 0 : distances[worst];
+	}
+
+	/**
+	 * Returns the number of Landmarks that cannot reach any station
+	 * @return number of Landmarks not covered
+	 */
+	public int uncovered() {
+		return uncovered;
+	}
+}
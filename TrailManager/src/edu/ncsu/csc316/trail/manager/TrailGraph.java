@@ -0,0 +1,676 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Compressed sparse row (CSR) adjacency index of a park's trail network.
+ * Every Landmark is given a dense int ordinal. The trails intersecting the Landmark
+ * with ordinal o are stored contiguously in the neighbor and length arrays between
+ * edgeStart(o) (inclusive) and edgeEnd(o) (exclusive), so iterating over the trails
+ * at a Landmark is a scan over an array instead of a walk through linked nodes.
+ * Each trail is stored once for each of its two end points.
+ * 
+ * Trails and Landmarks can be added and removed in place. Each Landmark's row may have
+ * spare slots after its last edge. A row that runs out of slots is moved to the end of
+ * the edge arrays with room to double, so an update costs O(degree) amortized. The
+ * ordinal of a removed Landmark is left empty and reused by the next Landmark added.
+ * Updates are not safe while another thread is reading the graph, so they are only
+ * made within this package, to a graph no other thread has seen. A TrailManager
+ * updates a copy of its graph and publishes the copy, so a graph it has handed out
+ * never changes.
+ * @author Ben Morris
+ */
+public class TrailGraph {
+	/** Smallest number of slots given to a row when it is moved */
+	private static final int MIN_ROW_CAPACITY = 4;
+
+	/** Landmarks indexed by ordinal. A removed Landmark leaves null */
+	private Landmark[] landmarks;
+	/** Number of ordinals in use, including empty ones */
+	private int ordinalCount;
+	/** Number of Landmarks in the graph */
+	private int landmarkCount;
+	/** Index of LandmarkIDs->ordinals */
+	private final LandmarkIndex ordinalIndex;
+	/** Index of the first edge of each ordinal */
+	private int[] starts;
+	/** One past the index of the last edge of each ordinal */
+	private int[] ends;
+	/** One past the last slot reserved for the edges of each ordinal */
+	private int[] limits;
+	/** Ordinal at the other end of each edge */
+	private int[] neighbors;
+	/** Length of the trail for each edge */
+	private int[] lengths;
+	/** One past the last slot reserved by any row */
+	private int edgeTail;
+	/** Number of trails in the graph */
+	private int trailCount;
+	/** Maximum number of trails intersecting any Landmark */
+	private int maxDegree;
+	/**
+	 * True if no trail closes a loop, so there is exactly one route between connected
+	 * Landmarks. Only ever true when that is certain
+	 */
+	private volatile boolean forest;
+	/** Number of Landmarks with each degree. Built on the first update */
+	private int[] degreeCounts;
+	/** Ordinals of removed Landmarks, ready to be reused */
+	private int[] freeOrdinals = new int[0];
+	/** Number of ordinals ready to be reused */
+	private int freeCount;
+
+	/**
+	 * Constructor. Use a Builder to create a TrailGraph.
+	 * @param landmarks Landmarks indexed by ordinal
+	 * @param ordinalIndex index of LandmarkIDs->ordinals
+	 * @param offsets index of the first edge of each ordinal. offsets[o + 1] is one past its last edge
+	 * @param neighbors ordinal at the other end of each edge
+	 * @param lengths length of the trail for each edge
+	 * @param trailCount number of trails in the graph
+	 * @param forest true if no trail closes a loop
+	 */
+	private TrailGraph(Landmark[] landmarks, LandmarkIndex ordinalIndex, int[] offsets,
+			int[] neighbors, int[] lengths, int trailCount, boolean forest) {
+		this.landmarks = landmarks;
+		this.ordinalCount = landmarks.length;
+		this.landmarkCount = landmarks.length;
+		this.ordinalIndex = ordinalIndex;
+		this.starts = Arrays.copyOf(offsets, landmarks.length);
+		this.ends = Arrays.copyOfRange(offsets, 1, landmarks.length + 1);
+		this.limits = ends.clone();
+		this.neighbors = neighbors;
+		this.lengths = lengths;
+		this.edgeTail = offsets[landmarks.length];
+		this.trailCount = trailCount;
+		this.forest = forest;
+
+		// Find the largest degree while the offsets are warm
+		int max = 0;
+		for (int o = 0; o < landmarks.length; o++) {
+			max = Math.max(max, offsets[o + 1] - offsets[o]);
+		}
+		this.maxDegree = max;
+	}
+
+	/**
+	 * Constructor for a copy of another graph, which can then be updated without
+	 * changing the original
+	 * @param other graph to copy
+	 */
+	private TrailGraph(TrailGraph other) {
+		this.landmarks = other.landmarks.clone();
+		this.ordinalCount = other.ordinalCount;
+		this.landmarkCount = other.landmarkCount;
+		this.ordinalIndex = new LandmarkIndex(other.ordinalIndex);
+		this.starts = other.starts.clone();
+		this.ends = other.ends.clone();
+		this.limits = other.limits.clone();
+		this.neighbors = other.neighbors.clone();
+		this.lengths = other.lengths.clone();
+		this.edgeTail = other.edgeTail;
+		this.trailCount = other.trailCount;
+		this.maxDegree = other.maxDegree;
+		this.forest = other.forest;
+		this.degreeCounts = other.degreeCounts == null ? null : other.degreeCounts.clone();
+		this.freeOrdinals = other.freeOrdinals.clone();
+		this.freeCount = other.freeCount;
+	}
+
+	/**
+	 * Returns a copy of the graph to update. The copy keeps every ordinal. Costs O(V + E)
+	 * @return the copy
+	 */
+	TrailGraph copy() {
+		return new TrailGraph(this);
+	}
+
+	/**
+	 * Creates a TrailGraph from adjacency arrays that were already built, such as ones
+	 * loaded from a GraphSnapshot
+	 * @param landmarks Landmarks indexed by ordinal
+	 * @param offsets index of the first edge of each ordinal
+	 * @param neighbors ordinal at the other end of each edge
+	 * @param lengths length of the trail for each edge
+	 * @param trailCount number of trails in the graph
+	 * @param forest true if no trail closes a loop
+	 * @return the TrailGraph
+	 */
+	static TrailGraph fromArrays(Landmark[] landmarks, int[] offsets, int[] neighbors, int[] lengths,
+			int trailCount, boolean forest) {
+		LandmarkIndex ordinalIndex = new LandmarkIndex(landmarks.length);
+		for (int o = 0; o < landmarks.length; o++) {
+			ordinalIndex.put(landmarks[o].getId(), o);
+		}
+		return new TrailGraph(landmarks, ordinalIndex, offsets, neighbors, lengths, trailCount, forest);
+	}
+
+	/**
+	 * Returns the number of ordinals in the graph. Ordinals of removed Landmarks are
+	 * counted until they are reused, so arrays indexed by ordinal should use this size.
+	 * @return number of ordinals
+	 */
+	public int size() {
+		return ordinalCount;
+	}
+
+	/**
+	 * Returns the number of Landmarks in the graph
+	 * @return number of Landmarks
+	 */
+	public int getLandmarkCount() {
+		return landmarkCount;
+	}
+
+	/**
+	 * Returns the number of trails in the graph
+	 * @return number of trails
+	 */
+	public int getTrailCount() {
+		return trailCount;
+	}
+
+	/**
+	 * Returns the ordinal of the Landmark with the given ID
+	 * @param landmarkID Landmark ID to search for
+	 * @return ordinal of the Landmark, or -1 if there is no such Landmark
+	 */
+	public int getOrdinal(String landmarkID) {
+		return ordinalIndex.get(landmarkID);
+	}
+
+	/**
+	 * Returns the Landmark with the given ordinal
+	 * @param ordinal ordinal of the Landmark
+	 * @return Landmark with the given ordinal, or null if it was removed
+	 */
+	public Landmark getLandmark(int ordinal) {
+		return landmarks[ordinal];
+	}
+
+	/**
+	 * Returns the number of trails intersecting the Landmark with the given ordinal
+	 * @param ordinal ordinal of the Landmark
+	 * @return number of intersecting trails
+	 */
+	public int degree(int ordinal) {
+		return ends[ordinal] - starts[ordinal];
+	}
+
+	/**
+	 * Returns the maximum number of trails intersecting any Landmark
+	 * @return the maximum degree
+	 */
+	public int getMaxDegree() {
+		return maxDegree;
+	}
+
+	/**
+	 * Returns true if the trail network has no loops. Every connected group of Landmarks
+	 * is then a tree and the first route found to a Landmark is the only one. After a
+	 * trail is added between Landmarks that already had trails this is false until the
+	 * components of the updated graph are found.
+	 * @return true if the trail network has no loops
+	 */
+	public boolean isForest() {
+		return forest;
+	}
+
+	/**
+	 * Sets whether the trail network has loops from its connected components. A network
+	 * without loops has exactly one fewer trail than Landmarks in each component, so this
+	 * is exact however the graph was updated. Every reader of a published graph finds the
+	 * same components, so they all set the same value.
+	 * @param components connected components of the graph as it is now
+	 */
+	void updateForest(ComponentIndex components) {
+		forest = trailCount == landmarkCount - components.count();
+	}
+
+	/**
+	 * Returns the index of the first edge of the Landmark with the given ordinal
+	 * @param ordinal ordinal of the Landmark
+	 * @return index of the first edge
+	 */
+	public int edgeStart(int ordinal) {
+		return starts[ordinal];
+	}
+
+	/**
+	 * Returns one past the index of the last edge of the Landmark with the given ordinal
+	 * @param ordinal ordinal of the Landmark
+	 * @return one past the index of the last edge
+	 */
+	public int edgeEnd(int ordinal) {
+		return ends[ordinal];
+	}
+
+	/**
+	 * Returns the ordinal at the other end of an edge
+	 * @param edge index of the edge
+	 * @return ordinal of the neighboring Landmark
+	 */
+	public int neighbor(int edge) {
+		return neighbors[edge];
+	}
+
+	/**
+	 * Returns the length of the trail of an edge
+	 * @param edge index of the edge
+	 * @return length of the trail
+	 */
+	public int length(int edge) {
+		return lengths[edge];
+	}
+
+	/**
+	 * Adds a Landmark with no trails
+	 * @param landmark Landmark to add
+	 * @return ordinal of the Landmark, or -1 if a Landmark with its ID is already in the graph
+	 */
+	int addLandmark(Landmark landmark) {
+		if (ordinalIndex.get(landmark.getId()) >= 0)
+			return -1;
+		prepareForUpdates();
+
+		// Reuse the ordinal of a removed Landmark before making a new one
+		int ordinal;
+		if (freeCount > 0) {
+			ordinal = freeOrdinals[--freeCount];
+		} else {
+			if (ordinalCount == landmarks.length) {
+				int capacity = Math.max(MIN_ROW_CAPACITY, ordinalCount * 2);
+				landmarks = Arrays.copyOf(landmarks, capacity);
+				starts = Arrays.copyOf(starts, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+				limits = Arrays.copyOf(limits, capacity);
+			}
+			ordinal = ordinalCount++;
+		}
+
+		// An empty row at the tail of the edge arrays. It is moved when the first trail is added
+		landmarks[ordinal] = landmark;
+		starts[ordinal] = edgeTail;
+		ends[ordinal] = edgeTail;
+		limits[ordinal] = edgeTail;
+		ordinalIndex.put(landmark.getId(), ordinal);
+		landmarkCount++;
+		degreeCounts[0]++;
+		return ordinal;
+	}
+
+	/**
+	 * Removes a Landmark and every trail intersecting it. Costs O(degree) for the Landmark
+	 * plus the degree of each of its neighbors.
+	 * @param landmarkID ID of the Landmark to remove
+	 * @return true if the Landmark was removed, false if there is no such Landmark
+	 */
+	boolean removeLandmark(String landmarkID) {
+		int ordinal = getOrdinal(landmarkID);
+		if (ordinal < 0)
+			return false;
+		prepareForUpdates();
+
+		// Drop the other end of each trail. A trail from the Landmark to itself has both ends here
+		int selfEdges = 0;
+		for (int edge = starts[ordinal]; edge < ends[ordinal]; edge++) {
+			int next = neighbors[edge];
+			if (next == ordinal) {
+				selfEdges++;
+			} else {
+				removeEdge(next, ordinal, lengths[edge]);
+				trailCount--;
+			}
+		}
+		trailCount -= selfEdges / 2;
+		changeDegree(degree(ordinal), 0);
+		degreeCounts[0]--;
+		ends[ordinal] = starts[ordinal];
+
+		landmarks[ordinal] = null;
+		ordinalIndex.remove(landmarkID);
+		landmarkCount--;
+		if (freeCount == freeOrdinals.length)
+			freeOrdinals = Arrays.copyOf(freeOrdinals, Math.max(MIN_ROW_CAPACITY, freeCount * 2));
+		freeOrdinals[freeCount++] = ordinal;
+		return true;
+	}
+
+	/**
+	 * Adds a trail between two Landmarks in the graph
+	 * @param landmarkOne ID of the first end point
+	 * @param landmarkTwo ID of the second end point
+	 * @param length length of the trail
+	 * @return true if the trail was added, false if an end point is unknown
+	 * @throws IllegalArgumentException if the length is negative
+	 */
+	boolean addTrail(String landmarkOne, String landmarkTwo, int length) {
+		if (length < 0)
+			throw new IllegalArgumentException("Trail length cannot be negative.");
+		int one = getOrdinal(landmarkOne);
+		int two = getOrdinal(landmarkTwo);
+		if (one < 0 || two < 0)
+			return false;
+		prepareForUpdates();
+
+		// A trail to a Landmark with no trails can't close a loop. Any other trail might,
+		// so searches can't rely on one route until the components are found again
+		if (one == two || (degree(one) > 0 && degree(two) > 0))
+			forest = false;
+
+		addEdge(one, two, length);
+		addEdge(two, one, length);
+		trailCount++;
+		return true;
+	}
+
+	/**
+	 * Removes one trail of the given length between two Landmarks
+	 * @param landmarkOne ID of the first end point
+	 * @param landmarkTwo ID of the second end point
+	 * @param length length of the trail
+	 * @return true if the trail was removed, false if there is no such trail
+	 */
+	boolean removeTrail(String landmarkOne, String landmarkTwo, int length) {
+		int one = getOrdinal(landmarkOne);
+		int two = getOrdinal(landmarkTwo);
+		if (one < 0 || two < 0)
+			return false;
+		prepareForUpdates();
+
+		if (!removeEdge(one, two, length))
+			return false;
+		removeEdge(two, one, length);
+		trailCount--;
+		return true;
+	}
+
+	/**
+	 * Builds the degree counts the updates keep current. A graph that is never updated
+	 * never pays for them.
+	 */
+	private void prepareForUpdates() {
+		if (degreeCounts != null)
+			return;
+		degreeCounts = new int[maxDegree + 1];
+		for (int o = 0; o < ordinalCount; o++) {
+			degreeCounts[degree(o)]++;
+		}
+	}
+
+	/**
+	 * Adds an edge to the end of a row, moving the row if it has no spare slot
+	 * @param ordinal ordinal whose row gets the edge
+	 * @param next ordinal at the other end of the edge
+	 * @param length length of the trail
+	 */
+	private void addEdge(int ordinal, int next, int length) {
+		int degree = degree(ordinal);
+		if (ends[ordinal] == limits[ordinal]) {
+			int capacity = Math.max(MIN_ROW_CAPACITY, degree * 2);
+			if (limits[ordinal] == edgeTail) {
+				// The row is last, so it can grow where it is
+				ensureEdgeCapacity(starts[ordinal] + capacity);
+				edgeTail = starts[ordinal] + capacity;
+			} else {
+				// Reclaim the slots of moved rows before growing the arrays for them
+				if (edgeTail + capacity > neighbors.length && edgeTail > trailCount * 4)
+					compact();
+				int start = edgeTail;
+				ensureEdgeCapacity(start + capacity);
+				System.arraycopy(neighbors, starts[ordinal], neighbors, start, degree);
+				System.arraycopy(lengths, starts[ordinal], lengths, start, degree);
+				starts[ordinal] = start;
+				ends[ordinal] = start + degree;
+				edgeTail = start + capacity;
+			}
+			limits[ordinal] = edgeTail;
+		}
+		neighbors[ends[ordinal]] = next;
+		lengths[ends[ordinal]] = length;
+		ends[ordinal]++;
+		changeDegree(degree, degree + 1);
+	}
+
+	/**
+	 * Removes the first edge of a row with the given neighbor and length, shifting the
+	 * later edges down so the row keeps its order
+	 * @param ordinal ordinal whose row loses the edge
+	 * @param next ordinal at the other end of the edge
+	 * @param length length of the trail
+	 * @return true if the edge was found
+	 */
+	private boolean removeEdge(int ordinal, int next, int length) {
+		for (int edge = starts[ordinal]; edge < ends[ordinal]; edge++) {
+			if (neighbors[edge] == next && lengths[edge] == length) {
+				int after = ends[ordinal] - edge - 1;
+				System.arraycopy(neighbors, edge + 1, neighbors, edge, after);
+				System.arraycopy(lengths, edge + 1, lengths, edge, after);
+				ends[ordinal]--;
+				changeDegree(degree(ordinal) + 1, degree(ordinal));
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves a Landmark from one degree to another in the degree counts and keeps the
+	 * maximum degree current. The maximum only walks down past degrees nobody has left.
+	 * @param oldDegree degree before the update
+	 * @param newDegree degree after the update
+	 */
+	private void changeDegree(int oldDegree, int newDegree) {
+		if (newDegree >= degreeCounts.length)
+			degreeCounts = Arrays.copyOf(degreeCounts, Math.max(newDegree + 1, degreeCounts.length * 2));
+		degreeCounts[oldDegree]--;
+		degreeCounts[newDegree]++;
+		maxDegree = Math.max(maxDegree, newDegree);
+		while (maxDegree > 0 && degreeCounts[maxDegree] == 0) {
+			maxDegree--;
+		}
+	}
+
+	/**
+	 * Grows the edge arrays to hold at least the given number of slots
+	 * @param capacity number of slots needed
+	 */
+	private void ensureEdgeCapacity(int capacity) {
+		if (capacity > neighbors.length) {
+			int grown = Math.max(capacity, neighbors.length * 2);
+			neighbors = Arrays.copyOf(neighbors, grown);
+			lengths = Arrays.copyOf(lengths, grown);
+		}
+	}
+
+	/**
+	 * Packs every row back together in ordinal order, dropping the slots left behind by
+	 * moved rows and removed Landmarks. Only done once those slots outnumber the edges,
+	 * so its O(V + E) cost is paid for by the updates that left them.
+	 */
+	private void compact() {
+		int edges = trailCount * 2;
+		int[] packedNeighbors = new int[Math.max(edges * 2, MIN_ROW_CAPACITY)];
+		int[] packedLengths = new int[packedNeighbors.length];
+		int next = 0;
+		for (int o = 0; o < ordinalCount; o++) {
+			int degree = degree(o);
+			System.arraycopy(neighbors, starts[o], packedNeighbors, next, degree);
+			System.arraycopy(lengths, starts[o], packedLengths, next, degree);
+			starts[o] = next;
+			next += degree;
+			ends[o] = next;
+			limits[o] = next;
+		}
+		neighbors = packedNeighbors;
+		lengths = packedLengths;
+		edgeTail = next;
+	}
+
+	/**
+	 * Finds the root of an ordinal, halving the path along the way
+	 * @param parent parent of each ordinal
+	 * @param ordinal ordinal to find the root of
+	 * @return root of the ordinal
+	 */
+	static int find(int[] parent, int ordinal) {
+		while (parent[ordinal] != ordinal) {
+			parent[ordinal] = parent[parent[ordinal]];
+			ordinal = parent[ordinal];
+		}
+		return ordinal;
+	}
+
+	/**
+	 * Collects Landmarks and Trails and builds a TrailGraph from them.
+	 * Trails whose end points are not known Landmarks are skipped.
+	 * @author Ben Morris
+	 */
+	public static class Builder {
+		/** Landmarks in the order they were added */
+		private Landmark[] landmarks;
+		/** Number of Landmarks added */
+		private int landmarkCount;
+		/** Index of LandmarkIDs->ordinals */
+		private final LandmarkIndex ordinalIndex;
+		/** Ordinal of the first end point of each trail */
+		private int[] trailOne = new int[16];
+		/** Ordinal of the second end point of each trail */
+		private int[] trailTwo = new int[16];
+		/** Length of each trail */
+		private int[] trailLength = new int[16];
+		/** Number of trails added */
+		private int trailCount;
+
+		/**
+		 * Constructor
+		 */
+		public Builder() {
+			this(16);
+		}
+
+		/**
+		 * Constructor
+		 * @param expectedLandmarks number of Landmarks to make room for
+		 */
+		public Builder(int expectedLandmarks) {
+			landmarks = new Landmark[Math.max(expectedLandmarks, 1)];
+			ordinalIndex = new LandmarkIndex(expectedLandmarks);
+		}
+
+		/**
+		 * Adds a Landmark. A Landmark with an ID that was already added replaces the old one.
+		 * @param landmark Landmark to add
+		 * @return ordinal of the Landmark
+		 */
+		public int addLandmark(Landmark landmark) {
+			int existing = ordinalIndex.get(landmark.getId());
+			if (existing >= 0) {
+				landmarks[existing] = landmark;
+				return existing;
+			}
+			if (landmarkCount == landmarks.length)
+				landmarks = Arrays.copyOf(landmarks, landmarkCount * 2);
+			landmarks[landmarkCount] = landmark;
+			ordinalIndex.put(landmark.getId(), landmarkCount);
+			return landmarkCount++;
+		}
+
+		/**
+		 * Adds a trail between two Landmarks that have already been added
+		 * @param landmarkOne ID of the first end point
+		 * @param landmarkTwo ID of the second end point
+		 * @param length length of the trail
+		 * @return true if the trail was added, false if an end point is unknown
+		 * @throws IllegalArgumentException if the length is negative
+		 */
+		public boolean addTrail(String landmarkOne, String landmarkTwo, int length) {
+			if (length < 0)
+				throw new IllegalArgumentException("Trail length cannot be negative.");
+			int one = ordinalIndex.get(landmarkOne);
+			int two = ordinalIndex.get(landmarkTwo);
+			if (one < 0 || two < 0)
+				return false;
+			if (trailCount == trailLength.length) {
+				trailOne = Arrays.copyOf(trailOne, trailCount * 2);
+				trailTwo = Arrays.copyOf(trailTwo, trailCount * 2);
+				trailLength = Arrays.copyOf(trailLength, trailCount * 2);
+			}
+			trailOne[trailCount] = one;
+			trailTwo[trailCount] = two;
+			trailLength[trailCount] = length;
+			trailCount++;
+			return true;
+		}
+
+		/**
+		 * Adds every trail in a set of trail records
+		 * @param records trail records to add
+		 * @return number of trails skipped because an end point is unknown
+		 */
+		public int addTrails(TrailRecords records) {
+			int skipped = 0;
+			for (int i = 0; i < records.size(); i++) {
+				if (!addTrail(records.getLandmarkOne(i), records.getLandmarkTwo(i), records.getLength(i)))
+					skipped++;
+			}
+			return skipped;
+		}
+
+		/**
+		 * Builds the TrailGraph
+		 * @return the TrailGraph
+		 */
+		public TrailGraph build() {
+			// Count the edges of each ordinal, shifted by one so the prefix sum gives the offsets
+			int[] offsets = new int[landmarkCount + 1];
+			for (int t = 0; t < trailCount; t++) {
+				offsets[trailOne[t] + 1]++;
+				offsets[trailTwo[t] + 1]++;
+			}
+			for (int o = 0; o < landmarkCount; o++) {
+				offsets[o + 1] += offsets[o];
+			}
+
+			// Place each trail in the rows of both of its end points, keeping file order
+			int[] next = Arrays.copyOf(offsets, landmarkCount);
+			int[] neighbors = new int[trailCount * 2];
+			int[] lengths = new int[trailCount * 2];
+			for (int t = 0; t < trailCount; t++) {
+				int one = trailOne[t];
+				int two = trailTwo[t];
+				neighbors[next[one]] = two;
+				lengths[next[one]++] = trailLength[t];
+				neighbors[next[two]] = one;
+				lengths[next[two]++] = trailLength[t];
+			}
+
+			return new TrailGraph(Arrays.copyOf(landmarks, landmarkCount), ordinalIndex,
+					offsets, neighbors, lengths, trailCount, isForest());
+		}
+
+		/**
+		 * Checks whether any trail closes a loop using union-find over the trail end points.
+		 * A trail whose end points are already connected (including a trail from a Landmark
+		 * to itself or a second trail between the same pair) closes a loop.
+		 * @return true if no trail closes a loop
+		 */
+		private boolean isForest() {
+			// Every Landmark starts as its own root
+			int[] parent = new int[landmarkCount];
+			for (int o = 0; o < landmarkCount; o++) {
+				parent[o] = o;
+			}
+			for (int t = 0; t < trailCount; t++) {
+				int rootOne = find(parent, trailOne[t]);
+				int rootTwo = find(parent, trailTwo[t]);
+				if (rootOne == rootTwo)
+					return false;
+				parent[rootOne] = rootTwo;
+			}
+			return true;
+		}
+	}
+}
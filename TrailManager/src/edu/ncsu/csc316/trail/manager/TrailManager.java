@@ -1,36 +1,46 @@
 package edu.ncsu.csc316.trail.manager;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
-import edu.ncsu.csc316.dsa.list.List;
 import edu.ncsu.csc316.dsa.map.Map;
 import edu.ncsu.csc316.trail.data.Landmark;
-import edu.ncsu.csc316.trail.data.Trail;
-import edu.ncsu.csc316.trail.dsa.DSAFactory;
-import edu.ncsu.csc316.trail.io.TrailInputReader;
-import edu.ncsu.csc316.trail.manager.ReportManager.DescriptionComparator;
 
 /**
  * Manages the data of the files passed. TrailManager finds the distances to destinations given an
  * origin. It can fetch Landmarks by LandmarkID. It can get a List of proposed first
  * aid stations based on the minimum number of intersecting trails. 
+ * 
+ * The loaded park is published as a TrailNetwork through an atomic reference. A reload
+ * builds the new network on the calling thread and swaps it in, so queries already
+ * running finish on the old network and never see a half-built one. Updates to Landmarks
+ * and trails are applied to a copy of the graph, which is published the same way, so
+ * queries never wait for an update and updates never wait for a query.
  * @author Ben Morris
  */
 public class TrailManager {
+	/** Source of data versions. Every load of any TrailManager gets a new version */
+	private static final AtomicLong VERSIONS = new AtomicLong();
     /** Field for LandmarkFile */
-	private String pathToLandmarkFile;
+	private volatile String pathToLandmarkFile;
 	/** Field for TrailFile */
-	private String pathToTrailFile;
-	/** Map of Landmarks to their trails */
-	private Map<Landmark, List<Trail>> ltMap;
-	/** Map of LandmarkIDs->Landmarks */
-	private Map<String, Landmark> idMap;
-	/** Track maximum number of intersections while reading in Trails */
-	private int maxIntersections;
-	/** List of Landmarks */
-	private List<Landmark> landmarkList;
-	/** List of trails */
-	private List<Trail> trailList;
+	private volatile String pathToTrailFile;
+	/** Path of the binary snapshot of the adjacency index, or null to not use one */
+	private final String snapshotPath;
+	/** Data structures to build the park with, or ADAPTIVE to choose them per load */
+	private final DsaConfiguration config;
+	/** The park as last loaded or updated */
+	private final AtomicReference<TrailNetwork> network = new AtomicReference<TrailNetwork>();
+	/** Orders updates and reload swaps so neither overwrites the other */
+	private final Object updateMonitor = new Object();
+	/** Time spent loading and querying the park, across reloads */
+	private final TrailMetrics metrics = new TrailMetrics();
 
 	
 	/**
@@ -40,80 +50,285 @@ public class TrailManager {
 	 * @throws FileNotFoundException If either file isn't found.
 	 */
 	public TrailManager(String pathToLandmarkFile, String pathToTrailFile) throws FileNotFoundException {
+		this(pathToLandmarkFile, pathToTrailFile, null);
+	}
+	
+	/**
+	 * Constructor. If snapshotPath holds a snapshot of the same files, the adjacency index
+	 * is loaded from it. Otherwise the files are read and a new snapshot is written there.
+	 * @param pathToLandmarkFile Path to LandmarkFile
+	 * @param pathToTrailFile Path to TrailFile
+	 * @param snapshotPath Path of the binary snapshot, or null to not use one
+	 * @throws FileNotFoundException If either file isn't found.
+	 */
+	public TrailManager(String pathToLandmarkFile, String pathToTrailFile, String snapshotPath)
+			throws FileNotFoundException {
+		this(pathToLandmarkFile, pathToTrailFile, snapshotPath, DsaConfiguration.DEFAULT);
+	}
+	
+	/**
+	 * Constructor
+	 * @param pathToLandmarkFile Path to LandmarkFile
+	 * @param pathToTrailFile Path to TrailFile
+	 * @param snapshotPath Path of the binary snapshot, or null to not use one
+	 * @param config data structures to build the park with, or DsaConfiguration.ADAPTIVE
+	 * 		  to choose them from the park each time it is loaded
+	 * @throws FileNotFoundException If either file isn't found.
+	 */
+	public TrailManager(String pathToLandmarkFile, String pathToTrailFile, String snapshotPath,
+			DsaConfiguration config) throws FileNotFoundException {
 		setPathtolandmarkfile(pathToLandmarkFile);
 	    setPathtotrailsfile(pathToTrailFile);
+	    this.snapshotPath = snapshotPath;
+	    this.config = config;
 	    
-	    // Calls setup method to create ltMap and idMap
-	    setup();
+	    // Calls setup method to create the adjacency index
+	    network.set(setup());
 	}
 
 	/**
-     * Sets up the map of Landmarks to trails that each intersects
+     * Sets up the adjacency index of Landmarks to the trails that intersect them,
+     * from the snapshot if it matches the files
+     * @return the loaded park
+     * @throws FileNotFoundException If either file isn't found.
      */
-    private void setup () throws FileNotFoundException {
-    	landmarkList = DSAFactory.getIndexedList();
-    	trailList = DSAFactory.getIndexedList();    	
-    	ltMap = DSAFactory.getMap(new DescriptionComparator());
-    	idMap = DSAFactory.getMap(null);
+    private TrailNetwork setup () throws FileNotFoundException {
+    	TrailGraph loaded = null;
+    	long sourceHash = 0;
     	
-    	// Get Landmarks
-    	try {
-    		landmarkList = TrailInputReader.readLandmarks(getPathtolandmarkfile());
-		} catch (Exception e) {
-			throw new FileNotFoundException();
-		}
+    	// Try the snapshot first. It is only used if it was built from these exact files
+    	if (snapshotPath != null) {
+    		long start = System.nanoTime();
+    		try {
+    			sourceHash = GraphSnapshot.hashSources(getPathtolandmarkfile(), getPathtotrailsfile());
+    		} catch (Exception e) {
+    			throw new FileNotFoundException();
+    		}
+    		try {
+    			loaded = GraphSnapshot.read(Paths.get(snapshotPath), sourceHash);
+    		} catch (IOException e) {
+    			loaded = null;
+    		}
+    		metrics.record(TrailMetrics.Phase.SNAPSHOT, System.nanoTime() - start);
+    	}
+    	boolean fromSnapshot = loaded != null;
+    	
+    	// Otherwise read the files and save a snapshot for next time
+    	if (loaded == null) {
+    		loaded = readGraph();
+    		if (snapshotPath != null) {
+    			long start = System.nanoTime();
+	    		try {
+	    			// The files are hashed again after parsing. If either changed while it was
+	    			// read, the graph may match neither hash, so no snapshot is saved for it
+	    			long parsedHash = GraphSnapshot.hashSources(getPathtolandmarkfile(), getPathtotrailsfile());
+	    			if (parsedHash == sourceHash)
+	    				GraphSnapshot.write(loaded, sourceHash, Paths.get(snapshotPath));
+	    		} catch (IOException e) {
+	    			// The snapshot only speeds up the next start, so carry on without it
+	    		}
+	    		metrics.record(TrailMetrics.Phase.SNAPSHOT, System.nanoTime() - start);
+    		}
+    	}
     	
-    	// Get Trails
+    	// Anything computed from earlier data is now out of date. An adaptive
+    	// configuration is settled now that the park is known
+    	return new TrailNetwork(loaded, VERSIONS.incrementAndGet(), fromSnapshot, config.forPark(loaded), metrics);
+    }
+    
+    /**
+     * Reads the files of Landmarks and Trails and builds the adjacency index
+     * @return the adjacency index
+     * @throws FileNotFoundException If either file isn't found.
+     */
+    private TrailGraph readGraph() throws FileNotFoundException {
+    	Landmark[] landmarks;
+    	TrailRecords[] trails;
+    	
+    	// Get Landmarks on another thread while the Trails are read
+    	long start = System.nanoTime();
+    	final String landmarkPath = getPathtolandmarkfile();
+    	ForkJoinPool pool = ForkJoinPool.commonPool();
+    	ForkJoinTask<Landmark[]> landmarkTask = pool.submit(new Callable<Landmark[]>() {
+			@Override
+			public Landmark[] call() throws IOException {
+				return MappedCsvReader.readLandmarks(landmarkPath);
+			}
+		});
+    	
+    	// Get Trails, parsing large files in chunks on the pool, then wait for the Landmarks
     	try {
-    		trailList = TrailInputReader.readTrails(getPathtotrailsfile());
+    		trails = MappedCsvReader.readTrails(getPathtotrailsfile(), pool);
+    		landmarks = landmarkTask.get();
 		} catch (Exception e) {
 			throw new FileNotFoundException();
 		}
+    	metrics.record(TrailMetrics.Phase.PARSE, System.nanoTime() - start);
     	
-    	// Initialize the max number of intersections to zero
-    	setMaxIntersections(0);
-    	
-    	// Create a Map of ID->Landmark
-    	for (Landmark landmark : landmarkList) {
-			idMap.put(landmark.getId(), landmark);			
-		}    		
-    	
-    	// Create the Map of Landmark->List<Trail>
-    	for (Trail trail : trailList) {
-    		// Get the two end points of the trail
-    		Landmark landmark1 = getLandmarkByID(trail.getLandmarkOne());
-    		Landmark landmark2 = getLandmarkByID(trail.getLandmarkTwo());   			    	
-
-    		List<Trail> trail1 = DSAFactory.getIndexedList();    	
-    		if (ltMap.get(landmark1) == null) {    			
-    			//idMap.put(trail.getLandmarkOne(), landmark1);    			
-    			ltMap.put(landmark1, trail1);
-    		}
-    		else
-    			trail1 = ltMap.get(landmark1);
-    		
-    		List<Trail> trail2 = DSAFactory.getIndexedList();    		
-    		if (ltMap.get(landmark2) == null) {
-    			//idMap.put(trail.getLandmarkTwo(), landmark2);
-    			ltMap.put(landmark2, trail2);
-    		}
-    		else
-    			trail2 = ltMap.get(landmark2);
-    		
-    		// Add the two end points to the map entries of Landmarks at the end points
-    		trail1.addLast(trail);
-    		trail2.addLast(trail);
-    		
-    		// Get the sizes of the Lists of Trails to compare to max number of intersections
-    		int size1 = trail1.size();
-    		int size2 = trail2.size();
-
-    		// Compare and set new max if necessary
-    		if (size1 > maxIntersections)
-				setMaxIntersections(size1);
-    		if (size2 > maxIntersections)
-				setMaxIntersections(size2);
+    	// Give each Landmark an ordinal, then add the trails between them in file order
+    	start = System.nanoTime();
+    	TrailGraph.Builder builder = new TrailGraph.Builder(landmarks.length);
+    	for (Landmark landmark : landmarks) {
+			builder.addLandmark(landmark);
 		}
+    	for (TrailRecords chunk : trails) {
+    		builder.addTrails(chunk);
+    	}
+    	TrailGraph graph = builder.build();
+    	metrics.record(TrailMetrics.Phase.INDEX, System.nanoTime() - start);
+    	return graph;
+    }
+    
+    /**
+     * Reloads the files of Landmarks and Trails from the same paths. Queries keep using
+     * the old park until the new one is built. If the files can't be read the old park
+     * is kept. Updates made since the last load are replaced by the files.
+     * @throws FileNotFoundException If either file isn't found.
+     */
+    public synchronized void reload() throws FileNotFoundException {
+    	TrailNetwork loaded = setup();
+    	synchronized (updateMonitor) {
+    		network.set(loaded);
+    	}
+    }
+    
+    /**
+     * Starts watching the files of Landmarks and Trails, reloading them in the background
+     * whenever they change
+     * @return the watcher. Close it to stop watching
+     * @throws IOException if the files can't be watched
+     */
+    public SourceWatcher watchSources() throws IOException {
+    	SourceWatcher watcher = new SourceWatcher(this);
+    	watcher.start();
+    	return watcher;
+    }
+    
+    /**
+     * Returns the park as last loaded or updated. Its graph is never changed, so a query
+     * can work from it for as long as it likes. Later loads and updates publish new ones.
+     * @return the current park
+     */
+    public TrailNetwork getNetwork() {
+    	return network.get();
+    }
+    
+    /**
+     * One change to a park's graph
+     */
+    private interface GraphUpdate {
+    	/**
+    	 * Applies the change to a copy of the graph that no other thread has seen
+    	 * @param graph the copy to change
+    	 * @return true if the graph was changed
+    	 */
+    	boolean apply(TrailGraph graph);
+    }
+    
+    /**
+     * Applies an update to a copy of the current graph and publishes the copy as a new
+     * version. Queries running on the old network are not affected. Copying costs O(V + E)
+     * @param update change to make
+     * @return true if the graph was changed, false if the update didn't apply and nothing
+     * 		   was published
+     */
+    private boolean update(GraphUpdate update) {
+    	synchronized (updateMonitor) {
+    		TrailNetwork current = network.get();
+    		TrailGraph copy = current.getTrailGraph().copy();
+    		if (!update.apply(copy))
+    			return false;
+    		network.set(current.withGraph(copy, VERSIONS.incrementAndGet()));
+    		return true;
+    	}
+    }
+    
+    /**
+     * Adds a Landmark with no trails. Like the other updates, the change is made in
+     * memory only and is lost when the files are reloaded.
+     * @param landmark Landmark to add
+     * @return true if the Landmark was added, false if a Landmark with its ID already exists
+     */
+    public boolean addLandmark(final Landmark landmark) {
+    	return update(new GraphUpdate() {
+			@Override
+			public boolean apply(TrailGraph graph) {
+				return graph.addLandmark(landmark) >= 0;
+			}
+		});
+    }
+    
+    /**
+     * Removes a Landmark and every trail intersecting it
+     * @param landmarkID ID of the Landmark to remove
+     * @return true if the Landmark was removed, false if there is no such Landmark
+     */
+    public boolean removeLandmark(final String landmarkID) {
+    	return update(new GraphUpdate() {
+			@Override
+			public boolean apply(TrailGraph graph) {
+				return graph.removeLandmark(landmarkID);
+			}
+		});
+    }
+    
+    /**
+     * Adds a trail between two Landmarks
+     * @param landmarkOne ID of the first end point
+     * @param landmarkTwo ID of the second end point
+     * @param length length of the trail in feet
+     * @return true if the trail was added, false if an end point doesn't exist
+     * @throws IllegalArgumentException if the length is negative
+     */
+    public boolean addTrail(final String landmarkOne, final String landmarkTwo, final int length) {
+    	return update(new GraphUpdate() {
+			@Override
+			public boolean apply(TrailGraph graph) {
+				return graph.addTrail(landmarkOne, landmarkTwo, length);
+			}
+		});
+    }
+    
+    /**
+     * Removes one trail of the given length between two Landmarks
+     * @param landmarkOne ID of the first end point
+     * @param landmarkTwo ID of the second end point
+     * @param length length of the trail in feet
+     * @return true if the trail was removed, false if there is no such trail
+     */
+    public boolean removeTrail(final String landmarkOne, final String landmarkTwo, final int length) {
+    	return update(new GraphUpdate() {
+			@Override
+			public boolean apply(TrailGraph graph) {
+				return graph.removeTrail(landmarkOne, landmarkTwo, length);
+			}
+		});
+    }
+    
+    /**
+     * Returns true if the adjacency index was loaded from the snapshot instead of the files
+     * @return true if the snapshot was used
+     */
+    public boolean isLoadedFromSnapshot() {
+    	return network.get().isLoadedFromSnapshot();
+    }
+    
+    /**
+     * Returns the time spent loading and querying the park. The same metrics are kept
+     * across reloads.
+     * @return the metrics
+     */
+    public TrailMetrics getMetrics() {
+    	return metrics;
+    }
+    
+    /**
+     * Returns the version of the loaded data. The version changes every time the files
+     * are loaded, so results tagged with an older version are out of date.
+     * @return version of the loaded data
+     */
+    public long getVersion() {
+    	return network.get().getVersion();
     }
 	
 	/**
@@ -125,7 +340,7 @@ public class TrailManager {
 	}
 
 	/**
-	 * Sets pathToLandmarkFile
+	 * Sets pathToLandmarkFile. The new path is read on the next reload
 	 * @param pathtolandmarkfile the pathtolandmarkfile to set
 	 */
 	public void setPathtolandmarkfile(String pathtolandmarkfile) {
@@ -141,7 +356,7 @@ public class TrailManager {
 	}
 
 	/**
-	 * Sets pathToTrailFile
+	 * Sets pathToTrailFile. The new path is read on the next reload
 	 * @param pathtotrailfile the pathToTrailFile to set
 	 */
 	public void setPathtotrailsfile(String pathtotrailfile) {
@@ -149,13 +364,22 @@ public class TrailManager {
 	}
 
 	/**
-	 * Returns ltMap
+	 * Returns the Landmarks that have at least numberOfIntersectingTrails intersecting
+	 * trails. The Landmarks are looked up in the version of the park that was searched,
+	 * since a later update may give a removed Landmark's ordinal to another.
 	 * @param numberOfIntersectingTrails Minimum number of intersecting trails at a Landmark
 	 *   	  for the Landmark to be place in the report
-	 * @return ltMap
+	 * @return the qualifying Landmarks, by descending number of intersecting trails, then
+	 * 		   description, then ID
 	 */
-	public Map<Landmark, List<Trail>> getProposedFirstAidLocations(int numberOfIntersectingTrails) {
-		return ltMap;
+	public Landmark[] getProposedFirstAidLocations(int numberOfIntersectingTrails) {
+		TrailNetwork current = network.get();
+		int[] ordinals = current.getProposedFirstAidLocations(numberOfIntersectingTrails);
+		Landmark[] locations = new Landmark[ordinals.length];
+		for (int i = 0; i < ordinals.length; i++) {
+			locations[i] = current.getTrailGraph().getLandmark(ordinals[i]);
+		}
+		return locations;
 	}
 
 	/**
@@ -164,91 +388,95 @@ public class TrailManager {
 	 * @return Map of Landmarks to distances of Landmark from originLandmark
 	 */
 	public Map<Landmark, Integer> getDistancesToDestinations(String originLandmark) {
-
-		// If the origin is null
-		if(getLandmarkByID(originLandmark) == null)
-    		return DSAFactory.getMap(null);
-    				
-		// Create a new map to store Landmarks and distances to start
-		Map<Landmark, Integer> distanceMap = DSAFactory.getMap(null);
-		
-		// Create previous to check if next node has already been visited
-		String previous = null;
-
-		// Initialize totalDistance to zero
-		int totalDistance = 0;
-		// Call helper method getNeighborDistances() to iterate through starts neighbors
-		getNeighborDistances(ltMap, originLandmark, previous, distanceMap, totalDistance);
-		
-    	return distanceMap;
+		return network.get().getDistancesToDestinations(originLandmark);
     }
 	
 	/**
-	 * Helper method. Recursively called in order to get the distance of Landmark to origin
-	 * @param ltMap2 Map of Landmark->List of Trails
-	 * @param current current Landmark ID
-	 * @param previous previous Landmark ID visited
-	 * @param distanceMap Map of Landmark->distance to the origin of Landmark
-	 * @param totalDistance total distance to the origin to parent node
+	 * Returns the shortest trail distance between two Landmarks. The search stops as soon
+	 * as the shortest route is known instead of measuring every reachable Landmark.
+	 * @param originId ID of the Landmark to start from
+	 * @param destinationId ID of the Landmark to measure the distance to
+	 * @return distance in feet, or DistanceEngine.UNREACHABLE if either Landmark doesn't
+	 * 		   exist or there is no route between them
 	 */
-    private void getNeighborDistances(Map<Landmark, List<Trail>> ltMap2, String current, String previous,
-			Map<Landmark, Integer> distanceMap, int totalDistance) {
-    	
-    	// Get the list of Trails intersecting current Landmark
-    	Landmark currentLandmark = getLandmarkByID(current);
-    	
-    	// List of trails to currentLandmark
-    	trailList = ltMap2.get(currentLandmark);        	
-    	
-    	if(trailList != null)
-    		for (Trail trail : trailList) {
-	    	    // Use helper method getOtherEndpoint to get the other endpoint of the Trail
-	    		String next = getOtherEndpoint(trail, current);    		
-	    		
-	    	    // (Since there are no loops, the only way for next to have been already visited is
-	    	    // if it were the previous node to current.) If the next Landmark is not the same 
-	    	    // as the previous Landmark to current, add to the total distance and put the new
-	    	    // Landmark in the distance Map.
-	    		if(!next.equals(previous)) {
-	    			// Update totalDistance by adding distance to this Landmark
-	    			totalDistance += trail.getLength();
-	    			// Add this this Landmark and distance to the distanceMap
-	    			distanceMap.put(getLandmarkByID(next), totalDistance);
+	public int getDistance(String originId, String destinationId) {
+		return network.get().getDistance(originId, destinationId);
+	}
 	
-	    			// Call getNeighborDistances() for next with current becoming the previous node
-	    			getNeighborDistances(ltMap2, next, current, distanceMap, totalDistance);
+	/**
+	 * Returns true if there is a route between two Landmarks. The connected components
+	 * are indexed when the park is loaded, so no traversal is needed.
+	 * @param originId ID of one Landmark
+	 * @param destinationId ID of the other Landmark
+	 * @return true if both Landmarks exist and are connected by trails
+	 */
+	public boolean isReachable(String originId, String destinationId) {
+		return network.get().isReachable(originId, destinationId);
+	}
 	
-	    	        // Decrement totalDistance after all of starts neighbors distances are
-	    	        // calculated before moving to the next neighbor of previous
-	    			totalDistance -= trail.getLength();
-	    		}
-    		}
+	/**
+	 * Returns the distance from a Landmark to the farthest Landmark it can reach. The
+	 * whole park is measured on the first call after a load or update. Updates and other
+	 * queries don't wait for the measurement.
+	 * @param landmarkID ID of the Landmark
+	 * @return eccentricity in feet, 0 for a Landmark with no trails, or
+	 * 		   DistanceEngine.UNREACHABLE if the Landmark doesn't exist
+	 */
+	public int getEccentricity(String landmarkID) {
+		TrailNetwork current = network.get();
+		int ordinal = current.getTrailGraph().getOrdinal(landmarkID);
+		return ordinal < 0 ? DistanceEngine.UNREACHABLE : current.getAnalytics().eccentricity(ordinal);
 	}
-
-    /**
-     * Gets the endpoint2 of the Trail to endpoint1
-     * @param trail Trail
-     * @param endpoint1 starting point
-     * @return ending point
-     */
-    private String getOtherEndpoint(Trail trail, String endpoint1) {
-    	// Return the endpoint that endpoint1 is not equal to
-        if (trail.getLandmarkOne().equals(endpoint1))
-            return trail.getLandmarkTwo();
-        else 
-            return trail.getLandmarkOne();
-
-    }
-    
+	
+	/**
+	 * Returns the length of the longest shortest route between any two Landmarks of the park
+	 * @return diameter in feet, or 0 if no two Landmarks are connected
+	 */
+	public int getDiameter() {
+		TrailNetwork current = network.get();
+		NetworkAnalytics analytics = current.getAnalytics();
+		int component = analytics.longestComponent();
+		return component < 0 ? 0 : analytics.diameter(component);
+	}
+	
+	/**
+	 * Returns the centers of the largest group of connected Landmarks, the Landmarks from
+	 * which the farthest Landmark of the group is nearest
+	 * @return the centers in ordinal order, or an empty array if the park has no Landmarks
+	 */
+	public Landmark[] getCenters() {
+		TrailNetwork current = network.get();
+		NetworkAnalytics analytics = current.getAnalytics();
+		int component = analytics.largestComponent();
+		if (component < 0)
+			return new Landmark[0];
+		int[] centers = analytics.centers(component);
+		Landmark[] landmarks = new Landmark[centers.length];
+		for (int i = 0; i < centers.length; i++) {
+			landmarks[i] = current.getTrailGraph().getLandmark(centers[i]);
+		}
+		return landmarks;
+	}
+	
+	/**
+	 * Returns the nearest of a set of first aid stations to every Landmark and the distance
+	 * to it. All of the stations are searched from together, so the cost does not grow
+	 * with the number of stations.
+	 * @param stationIds IDs of the stations
+	 * @return the coverage of the stations, by ordinal of the current graph
+	 * @throws IllegalArgumentException if there are no stations or an ID is not in the park
+	 */
+	public StationCoverage getStationCoverage(String... stationIds) {
+		return network.get().getStationCoverage(stationIds);
+	}
+	
     /**
      * Returns the Landmark with the ID landmarkID
      * @param landmarkID Landmark ID to search for
      * @return Landmark with the ID landmarkID
      */
 	public Landmark getLandmarkByID(String landmarkID) {
-        Landmark landmark = idMap.get(landmarkID);
-        
-    	return landmark;
+		return network.get().getLandmarkByID(landmarkID);
     }
     
     /**
@@ -256,22 +484,15 @@ public class TrailManager {
 	 * @return the maxIntersections
 	 */
 	public int getMaxIntersections() {
-		return maxIntersections;
-	}
-
-	/**
-	 * Sets the maximum number of intersections
-	 * @param maxIntersections the maxIntersections to set
-	 */
-	private void setMaxIntersections(int maxIntersections) {
-		this.maxIntersections = maxIntersections;
+		return network.get().getMaxIntersections();
 	}
 
 	/**
-	 * Gets the map of Landmarks to List of Trails
-	 * @return the ltMap
+	 * Gets the adjacency index of Landmarks and the trails that intersect them, as last
+	 * loaded or updated. It is never changed; later updates publish a new one.
+	 * @return the adjacency index
 	 */
-	public Map<Landmark, List<Trail>> getLtMap() {
-		return ltMap;
+	public TrailGraph getTrailGraph() {
+		return network.get().getTrailGraph();
 	}
-}
\ No newline at end of file
+}
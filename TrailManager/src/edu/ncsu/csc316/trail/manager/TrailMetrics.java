@@ -0,0 +1,373 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Timers and counters for one park: the time spent in each phase of loading and
+ * reporting, how much of the graph distance searches visit, and a latency histogram for
+ * each type of report. Times are measured with System.nanoTime. Every metric can be
+ * recorded from many threads at once, and a record costs a few uncontended adds.
+ *
+ * The metrics can be read over JMX once registered, or written in the Prometheus text
+ * format, either to a Writer or to a file that a textfile collector scrapes.
+ * @author Ben Morris
+ */
+public class TrailMetrics implements TrailMetricsMBean {
+	/** Upper bounds of the latency buckets in nanoseconds */
+	private static final long[] BUCKET_NANOS = {100000L, 250000L, 500000L, 1000000L, 2500000L, 5000000L,
+			10000000L, 25000000L, 50000000L, 100000000L, 250000000L, 500000000L, 1000000000L, 2500000000L,
+			5000000000L, 10000000000L};
+	/** Upper bounds of the latency buckets in seconds, as written in the Prometheus text */
+	private static final String[] BUCKET_LABELS = {"0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005",
+			"0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+
+	/**
+	 * Phase of loading a park or creating a report
+	 */
+	public enum Phase {
+		/** Parsing the files of Landmarks and Trails */
+		PARSE,
+		/** Building the ID index and adjacency arrays */
+		INDEX,
+		/** Ranking Landmarks by description and bucketing them by intersecting trails */
+		RANK,
+		/** Reading and writing snapshots */
+		SNAPSHOT,
+		/** Finding distances */
+		TRAVERSAL,
+		/** Sorting distances for reports */
+		SORT,
+		/** Creating and writing report text */
+		RENDER
+	}
+
+	/**
+	 * Type of report
+	 */
+	public enum Report {
+		/** Proposed first aid locations */
+		FIRST_AID,
+		/** Distances from an origin */
+		DISTANCES
+	}
+
+	/** Nanoseconds spent in each phase */
+	private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+	/** Number of times each phase ran */
+	private final LongAdder[] phaseRuns = new LongAdder[Phase.values().length];
+	/** Number of Landmarks settled by distance searches */
+	private final LongAdder landmarksVisited = new LongAdder();
+	/** Number of trail ends scanned by distance searches */
+	private final LongAdder trailsVisited = new LongAdder();
+	/** Number of reports of each type in each latency bucket, the last for slower ones */
+	private final AtomicLongArray[] buckets = new AtomicLongArray[Report.values().length];
+	/** Nanoseconds spent creating each type of report */
+	private final LongAdder[] reportNanos = new LongAdder[Report.values().length];
+
+	/**
+	 * Constructor
+	 */
+	public TrailMetrics() {
+		for (int i = 0; i < phaseNanos.length; i++) {
+			phaseNanos[i] = new LongAdder();
+			phaseRuns[i] = new LongAdder();
+		}
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new AtomicLongArray(BUCKET_NANOS.length + 1);
+			reportNanos[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records one run of a phase
+	 * @param phase phase that ran
+	 * @param nanos time it took in nanoseconds
+	 */
+	public void record(Phase phase, long nanos) {
+		phaseNanos[phase.ordinal()].add(nanos);
+		phaseRuns[phase.ordinal()].increment();
+	}
+
+	/**
+	 * Records how much of the graph a distance search visited
+	 * @param landmarks number of Landmarks settled
+	 * @param trails number of trail ends scanned
+	 */
+	public void recordVisits(int landmarks, int trails) {
+		landmarksVisited.add(landmarks);
+		trailsVisited.add(trails);
+	}
+
+	/**
+	 * Records the latency of one report
+	 * @param report type of report
+	 * @param nanos time it took in nanoseconds
+	 */
+	public void record(Report report, long nanos) {
+		int bucket = 0;
+		while (bucket < BUCKET_NANOS.length && nanos > BUCKET_NANOS[bucket])
+			bucket++;
+		buckets[report.ordinal()].incrementAndGet(bucket);
+		reportNanos[report.ordinal()].add(nanos);
+	}
+
+	/**
+	 * Returns the total time spent in a phase
+	 * @param phase the phase
+	 * @return nanoseconds
+	 */
+	public long getNanos(Phase phase) {
+		return phaseNanos[phase.ordinal()].sum();
+	}
+
+	/**
+	 * Returns the number of times a phase ran
+	 * @param phase the phase
+	 * @return number of runs
+	 */
+	public long getRuns(Phase phase) {
+		return phaseRuns[phase.ordinal()].sum();
+	}
+
+	/**
+	 * Returns the number of reports of a type created
+	 * @param report type of report
+	 * @return number of reports
+	 */
+	public long getQueries(Report report) {
+		AtomicLongArray counts = buckets[report.ordinal()];
+		long total = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			total += counts.get(i);
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the total time spent creating reports of a type
+	 * @param report type of report
+	 * @return nanoseconds
+	 */
+	public long getNanos(Report report) {
+		return reportNanos[report.ordinal()].sum();
+	}
+
+	@Override
+	public long getParseNanos() {
+		return getNanos(Phase.PARSE);
+	}
+
+	@Override
+	public long getIndexNanos() {
+		return getNanos(Phase.INDEX);
+	}
+
+	@Override
+	public long getRankNanos() {
+		return getNanos(Phase.RANK);
+	}
+
+	@Override
+	public long getSnapshotNanos() {
+		return getNanos(Phase.SNAPSHOT);
+	}
+
+	@Override
+	public long getTraversalNanos() {
+		return getNanos(Phase.TRAVERSAL);
+	}
+
+	@Override
+	public long getSortNanos() {
+		return getNanos(Phase.SORT);
+	}
+
+	@Override
+	public long getRenderNanos() {
+		return getNanos(Phase.RENDER);
+	}
+
+	@Override
+	public long getTraversals() {
+		return getRuns(Phase.TRAVERSAL);
+	}
+
+	@Override
+	public long getLandmarksVisited() {
+		return landmarksVisited.sum();
+	}
+
+	@Override
+	public long getTrailsVisited() {
+		return trailsVisited.sum();
+	}
+
+	@Override
+	public long getFirstAidQueries() {
+		return getQueries(Report.FIRST_AID);
+	}
+
+	@Override
+	public long getDistancesQueries() {
+		return getQueries(Report.DISTANCES);
+	}
+
+	@Override
+	public long getFirstAidNanos() {
+		return getNanos(Report.FIRST_AID);
+	}
+
+	@Override
+	public long getDistancesNanos() {
+		return getNanos(Report.DISTANCES);
+	}
+
+	@Override
+	public String getPrometheusText() {
+		StringWriter text = new StringWriter();
+		try {
+			writePrometheus(text);
+		} catch (IOException e) {
+			// A StringWriter doesn't throw
+			throw new IllegalStateException(e);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Writes every metric in the Prometheus text format. Times are in seconds. The count
+	 * of each histogram is summed from the buckets as written, so the two always agree.
+	 * @param out Writer to write the metrics to. It is not flushed or closed.
+	 * @throws IOException if the metrics can't be written
+	 */
+	public void writePrometheus(Writer out) throws IOException {
+		StringBuilder text = new StringBuilder();
+
+		// Phases
+		text.append("# HELP trail_phase_seconds_total Time spent in each phase of loading and reporting.\n");
+		text.append("# TYPE trail_phase_seconds_total counter\n");
+		for (Phase phase : Phase.values()) {
+			text.append("trail_phase_seconds_total{phase=\"").append(label(phase)).append("\"} ");
+			text.append(seconds(getNanos(phase))).append('\n');
+		}
+		text.append("# HELP trail_phase_runs_total Number of times each phase ran.\n");
+		text.append("# TYPE trail_phase_runs_total counter\n");
+		for (Phase phase : Phase.values()) {
+			text.append("trail_phase_runs_total{phase=\"").append(label(phase)).append("\"} ");
+			text.append(getRuns(phase)).append('\n');
+		}
+
+		// Traversal work
+		text.append("# HELP trail_landmarks_visited_total Landmarks settled by distance searches.\n");
+		text.append("# TYPE trail_landmarks_visited_total counter\n");
+		text.append("trail_landmarks_visited_total ").append(getLandmarksVisited()).append('\n');
+		text.append("# HELP trail_trails_visited_total Trail ends scanned by distance searches.\n");
+		text.append("# TYPE trail_trails_visited_total counter\n");
+		text.append("trail_trails_visited_total ").append(getTrailsVisited()).append('\n');
+
+		// Report latencies, with cumulative buckets
+		text.append("# HELP trail_report_duration_seconds Time to create each report.\n");
+		text.append("# TYPE trail_report_duration_seconds histogram\n");
+		for (Report report : Report.values()) {
+			String name = label(report);
+			AtomicLongArray counts = buckets[report.ordinal()];
+			long cumulative = 0;
+			for (int i = 0; i < counts.length(); i++) {
+				cumulative += counts.get(i);
+				text.append("trail_report_duration_seconds_bucket{report=\"").append(name).append("\",le=\"");
+				text.append(i < BUCKET_LABELS.length ? BUCKET_LABELS[i] : "+Inf").append("\"} ");
+				text.append(cumulative).append('\n');
+			}
+			text.append("trail_report_duration_seconds_sum{report=\"").append(name).append("\"} ");
+			text.append(seconds(getNanos(report))).append('\n');
+			text.append("trail_report_duration_seconds_count{report=\"").append(name).append("\"} ");
+			text.append(cumulative).append('\n');
+		}
+		out.append(text);
+	}
+
+	/**
+	 * Writes every metric in the Prometheus text format to a file. The text is written
+	 * next to the file and moved over it, so a scraper never reads half a file.
+	 * @param path file to write
+	 * @throws IOException if the file can't be written
+	 */
+	public void dump(Path path) throws IOException {
+		Path absolute = path.toAbsolutePath();
+		Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+		Files.write(temp, getPrometheusText().getBytes(StandardCharsets.UTF_8));
+		try {
+			Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server
+	 * @param name name of the park, used in the object name
+	 * @return the object name the metrics were registered under
+	 * @throws JMException if the metrics can't be registered, for example because the
+	 * 		   name is already taken
+	 */
+	public ObjectName register(String name) throws JMException {
+		ObjectName objectName = objectName(name);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+	/**
+	 * Removes metrics registered under a name from the platform MBean server, if any are
+	 * @param name name of the park the metrics were registered with
+	 * @throws JMException if the name is not a valid object name
+	 */
+	public static void unregister(String name) throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = objectName(name);
+		if (server.isRegistered(objectName))
+			server.unregisterMBean(objectName);
+	}
+
+	/**
+	 * Returns the object name for the metrics of a park
+	 * @param name name of the park
+	 * @return the object name
+	 * @throws JMException if the name is not valid
+	 */
+	public static ObjectName objectName(String name) throws JMException {
+		return new ObjectName("edu.ncsu.csc316.trail:type=TrailMetrics,name=" + ObjectName.quote(name));
+	}
+
+	/**
+	 * Returns the Prometheus label of a phase or report
+	 * @param value the phase or report
+	 * @return the label
+	 */
+	private static String label(Enum<?> value) {
+		return value.name().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Returns nanoseconds as seconds
+	 * @param nanos nanoseconds
+	 * @return seconds as text
+	 */
+	private static String seconds(long nanos) {
+		return Double.toString(nanos / 1e9);
+	}
+}
@@ -0,0 +1,100 @@
+package edu.ncsu.csc316.trail.manager;
+
+/**
+ * Management interface of TrailMetrics, so the timers and counters of a park can be
+ * read over JMX, for example from JConsole. Times are totals in nanoseconds since the
+ * TrailManager was created.
+ * @author Ben Morris
+ */
+public interface TrailMetricsMBean {
+	/**
+	 * Returns the time spent parsing the files of Landmarks and Trails
+	 * @return nanoseconds
+	 */
+	long getParseNanos();
+
+	/**
+	 * Returns the time spent building the ID index and adjacency arrays
+	 * @return nanoseconds
+	 */
+	long getIndexNanos();
+
+	/**
+	 * Returns the time spent ranking Landmarks by description and bucketing them by
+	 * number of intersecting trails
+	 * @return nanoseconds
+	 */
+	long getRankNanos();
+
+	/**
+	 * Returns the time spent reading and writing snapshots
+	 * @return nanoseconds
+	 */
+	long getSnapshotNanos();
+
+	/**
+	 * Returns the time spent finding distances
+	 * @return nanoseconds
+	 */
+	long getTraversalNanos();
+
+	/**
+	 * Returns the time spent sorting distances for reports
+	 * @return nanoseconds
+	 */
+	long getSortNanos();
+
+	/**
+	 * Returns the time spent creating and writing report text
+	 * @return nanoseconds
+	 */
+	long getRenderNanos();
+
+	/**
+	 * Returns the number of distance searches
+	 * @return number of searches
+	 */
+	long getTraversals();
+
+	/**
+	 * Returns the number of Landmarks settled by distance searches
+	 * @return number of Landmarks
+	 */
+	long getLandmarksVisited();
+
+	/**
+	 * Returns the number of trail ends scanned by distance searches
+	 * @return number of trail ends
+	 */
+	long getTrailsVisited();
+
+	/**
+	 * Returns the number of first aid reports created
+	 * @return number of reports
+	 */
+	long getFirstAidQueries();
+
+	/**
+	 * Returns the number of distance reports created
+	 * @return number of reports
+	 */
+	long getDistancesQueries();
+
+	/**
+	 * Returns the total time spent creating first aid reports
+	 * @return nanoseconds
+	 */
+	long getFirstAidNanos();
+
+	/**
+	 * Returns the total time spent creating distance reports
+	 * @return nanoseconds
+	 */
+	long getDistancesNanos();
+
+	/**
+	 * Returns every metric in the Prometheus text format
+	 * @return the metrics
+	 */
+	String getPrometheusText();
+}
@@ -0,0 +1,343 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.concurrent.ForkJoinPool;
+
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * One loaded version of a park: its adjacency index, the distance engine over it and
+ * the data version. A TrailManager publishes a new TrailNetwork each time the files are
+ * loaded or the park is updated, and never changes the graph of one it has published,
+ * so a query that works from one TrailNetwork sees one consistent park even if the
+ * park is reloaded or updated while it runs.
+ * @author Ben Morris
+ */
+public class TrailNetwork {
+	/** Adjacency index of Landmarks and the trails that intersect them */
+	private final TrailGraph graph;
+	/** Shortest-distance search over the adjacency index */
+	private final DistanceEngine engine;
+	/** Version of the data, changed every time the files are loaded or updated */
+	private final long version;
+	/** True if the adjacency index was loaded from the snapshot instead of the files */
+	private final boolean loadedFromSnapshot;
+	/** Data structures to create results with */
+	private final DsaConfiguration config;
+	/** Where the time spent on this park is recorded */
+	private final TrailMetrics metrics;
+	/**
+	 * Rank of each Landmark by description, then ID, or null until it is needed after
+	 * an update. Two readers may both build the ranks, which gives equal ranks.
+	 */
+	private volatile DescriptionRanks ranks;
+	/**
+	 * Landmarks bucketed by number of intersecting trails, or null until they are needed
+	 * after an update. Two readers may both build them, which gives equal buckets.
+	 */
+	private volatile DegreeBuckets buckets;
+	/**
+	 * Connected components of the graph, or null until they are needed after an update.
+	 * Two readers may both build them, which gives equal components.
+	 */
+	private volatile ComponentIndex components;
+	/**
+	 * Diameter, eccentricities and centers of the park, or null until they are first
+	 * needed. They take a search from every Landmark of any component with loops, so
+	 * only one reader builds them.
+	 */
+	private volatile NetworkAnalytics analytics;
+	/** Held while the analytics are built, so readers of them wait for one build */
+	private final Object analyticsLock = new Object();
+
+	/**
+	 * Constructor. Ranks the Landmarks by description and buckets them by number of
+	 * intersecting trails up front.
+	 * @param graph adjacency index of Landmarks and the trails that intersect them
+	 * @param version version of the data
+	 * @param loadedFromSnapshot true if the graph was loaded from a snapshot
+	 * @param config data structures to create results with
+	 */
+	public TrailNetwork(TrailGraph graph, long version, boolean loadedFromSnapshot, DsaConfiguration config) {
+		this(graph, version, loadedFromSnapshot, config, new TrailMetrics());
+	}
+
+	/**
+	 * Constructor. Ranks the Landmarks by description, buckets them by number of
+	 * intersecting trails and finds the connected components up front.
+	 * @param graph adjacency index of Landmarks and the trails that intersect them
+	 * @param version version of the data
+	 * @param loadedFromSnapshot true if the graph was loaded from a snapshot
+	 * @param config data structures to create results with
+	 * @param metrics where the time spent on this park is recorded
+	 */
+	public TrailNetwork(TrailGraph graph, long version, boolean loadedFromSnapshot, DsaConfiguration config,
+			TrailMetrics metrics) {
+		this(graph, new DistanceEngine(graph, metrics), version, loadedFromSnapshot, config, metrics);
+		long start = System.nanoTime();
+		this.ranks = new DescriptionRanks(graph, config);
+		this.buckets = new DegreeBuckets(graph, ranks);
+		metrics.record(TrailMetrics.Phase.RANK, System.nanoTime() - start);
+		start = System.nanoTime();
+		this.components = new ComponentIndex(graph);
+		graph.updateForest(components);
+		metrics.record(TrailMetrics.Phase.INDEX, System.nanoTime() - start);
+	}
+
+	/**
+	 * Constructor for a new version of a network
+	 * @param graph adjacency index of Landmarks and the trails that intersect them
+	 * @param engine shortest-distance search over the graph
+	 * @param version version of the data
+	 * @param loadedFromSnapshot true if the graph was loaded from a snapshot
+	 * @param config data structures to create results with
+	 * @param metrics where the time spent on this park is recorded
+	 */
+	private TrailNetwork(TrailGraph graph, DistanceEngine engine, long version, boolean loadedFromSnapshot,
+			DsaConfiguration config, TrailMetrics metrics) {
+		this.graph = graph;
+		this.engine = engine;
+		this.version = version;
+		this.loadedFromSnapshot = loadedFromSnapshot;
+		this.config = config;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns a network over an updated copy of this network's graph, with a new version.
+	 * The new network ranks and buckets the Landmarks and finds the components again on
+	 * the first query that needs them, so an update that nobody queries pays for no
+	 * rebuild. Removing a trail can split a component, so the components are never
+	 * carried over, and neither are the analytics measured over them.
+	 * @param updated updated copy of the graph
+	 * @param newVersion version of the updated data
+	 * @return the network with the new version
+	 */
+	TrailNetwork withGraph(TrailGraph updated, long newVersion) {
+		return new TrailNetwork(updated, new DistanceEngine(updated, metrics), newVersion, loadedFromSnapshot,
+				config, metrics);
+	}
+
+	/**
+	 * Returns the adjacency index of Landmarks and the trails that intersect them. It is
+	 * never changed once the network is published.
+	 * @return the adjacency index
+	 */
+	public TrailGraph getTrailGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the data structures results are created with
+	 * @return the data structure choices
+	 */
+	public DsaConfiguration getConfiguration() {
+		return config;
+	}
+
+	/**
+	 * Returns where the time spent on this park is recorded
+	 * @return the metrics
+	 */
+	public TrailMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Returns the version of the data
+	 * @return version of the data
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns true if the adjacency index was loaded from the snapshot instead of the files
+	 * @return true if the snapshot was used
+	 */
+	public boolean isLoadedFromSnapshot() {
+		return loadedFromSnapshot;
+	}
+
+	/**
+	 * Returns the maximum number of intersections at any Landmark
+	 * @return the maximum number of intersections
+	 */
+	public int getMaxIntersections() {
+		return graph.getMaxDegree();
+	}
+
+	/**
+	 * Returns the Landmark with the ID landmarkID
+	 * @param landmarkID Landmark ID to search for
+	 * @return Landmark with the ID landmarkID, or null if there is none
+	 */
+	public Landmark getLandmarkByID(String landmarkID) {
+		int ordinal = graph.getOrdinal(landmarkID);
+
+		return ordinal < 0 ? null : graph.getLandmark(ordinal);
+	}
+
+	/**
+	 * Returns the rank of each Landmark by description, then ID
+	 * @return the ranks
+	 */
+	public DescriptionRanks getDescriptionRanks() {
+		DescriptionRanks current = ranks;
+		if (current == null) {
+			long start = System.nanoTime();
+			current = new DescriptionRanks(graph, config);
+			metrics.record(TrailMetrics.Phase.RANK, System.nanoTime() - start);
+			ranks = current;
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the Landmarks bucketed by number of intersecting trails
+	 * @return the buckets
+	 */
+	public DegreeBuckets getDegreeBuckets() {
+		DegreeBuckets current = buckets;
+		if (current == null) {
+			DescriptionRanks byDescription = getDescriptionRanks();
+			long start = System.nanoTime();
+			current = new DegreeBuckets(graph, byDescription);
+			metrics.record(TrailMetrics.Phase.RANK, System.nanoTime() - start);
+			buckets = current;
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the connected components of the graph. Finding them also settles whether
+	 * the updated graph has loops.
+	 * @return the components
+	 */
+	public ComponentIndex getComponents() {
+		ComponentIndex current = components;
+		if (current == null) {
+			long start = System.nanoTime();
+			current = new ComponentIndex(graph);
+			graph.updateForest(current);
+			metrics.record(TrailMetrics.Phase.INDEX, System.nanoTime() - start);
+			components = current;
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the diameter, eccentricities and centers of the park, measuring them on the
+	 * first call for this version. Only other callers of getAnalytics on this version
+	 * wait for the measurement. The graph never changes, so updates publish new versions
+	 * and other queries carry on while it runs.
+	 * @return the analytics
+	 */
+	public NetworkAnalytics getAnalytics() {
+		NetworkAnalytics current = analytics;
+		if (current == null) {
+			synchronized (analyticsLock) {
+				current = analytics;
+				if (current == null) {
+					current = new NetworkAnalytics(graph, getComponents(), metrics, ForkJoinPool.commonPool());
+					analytics = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the nearest of a set of first aid stations to every Landmark, with one
+	 * search from all of the stations together
+	 * @param stationIds IDs of the stations
+	 * @return the coverage of the stations
+	 * @throws IllegalArgumentException if there are no stations or an ID is not in the park
+	 */
+	public StationCoverage getStationCoverage(String[] stationIds) {
+		int[] stations = new int[stationIds.length];
+		for (int i = 0; i < stationIds.length; i++) {
+			stations[i] = graph.getOrdinal(stationIds[i]);
+			if (stations[i] < 0)
+				throw new IllegalArgumentException("The provided landmark ID (" + stationIds[i] + ") is invalid for the park.");
+		}
+		return new StationCoverage(graph, engine, stations);
+	}
+
+	/**
+	 * Returns true if there is a route between two Landmarks, without a traversal
+	 * @param originId ID of one Landmark
+	 * @param destinationId ID of the other Landmark
+	 * @return true if both Landmarks exist and are connected by trails
+	 */
+	public boolean isReachable(String originId, String destinationId) {
+		int origin = graph.getOrdinal(originId);
+		int destination = graph.getOrdinal(destinationId);
+		return origin >= 0 && destination >= 0 && getComponents().isReachable(origin, destination);
+	}
+
+	/**
+	 * Returns the ordinals of the Landmarks that have at least numberOfIntersectingTrails
+	 * intersecting trails
+	 * @param numberOfIntersectingTrails Minimum number of intersecting trails at a Landmark
+	 *   	  for the Landmark to be place in the report
+	 * @return ordinals of the qualifying Landmarks, by descending number of intersecting
+	 * 		   trails, then description, then ID
+	 */
+	int[] getProposedFirstAidLocations(int numberOfIntersectingTrails) {
+		return getDegreeBuckets().ordinals(numberOfIntersectingTrails);
+	}
+
+	/**
+	 * Creates a Map of Landmarks to distances of Landmark from originLandmark
+	 * @param originLandmark Landmark to measure distance to
+	 * @return Map of Landmarks to distances of Landmark from originLandmark
+	 */
+	public Map<Landmark, Integer> getDistancesToDestinations(String originLandmark) {
+		// Create a new map to store Landmarks and distances to start
+		Map<Landmark, Integer> distanceMap = config.getMap(null);
+
+		// If the origin is null or can't reach anywhere
+		int origin = graph.getOrdinal(originLandmark);
+		if (origin < 0 || getComponents().componentSize(origin) == 1)
+			return distanceMap;
+
+		// Distance of each ordinal from the origin
+		int[] distances = engine.getDistances(origin);
+
+		// The origin is not a destination
+		for (int o = 0; o < distances.length; o++) {
+			if (o != origin && distances[o] != DistanceEngine.UNREACHABLE)
+				distanceMap.put(graph.getLandmark(o), distances[o]);
+		}
+		return distanceMap;
+	}
+
+	/**
+	 * Returns the distance of every Landmark from an origin
+	 * @param origin ordinal of the Landmark to measure from
+	 * @return distance of each ordinal in feet, or DistanceEngine.UNREACHABLE
+	 */
+	public int[] getDistances(int origin) {
+		// The search walks a tree when the components show the graph has no loops
+		getComponents();
+		return engine.getDistances(origin);
+	}
+
+	/**
+	 * Returns the shortest trail distance between two Landmarks
+	 * @param originId ID of the Landmark to start from
+	 * @param destinationId ID of the Landmark to measure the distance to
+	 * @return distance in feet, or DistanceEngine.UNREACHABLE if either Landmark doesn't
+	 * 		   exist or there is no route between them
+	 */
+	public int getDistance(String originId, String destinationId) {
+		int origin = graph.getOrdinal(originId);
+		int destination = graph.getOrdinal(destinationId);
+		// A search between components would visit all of one of them to find nothing
+		if (origin < 0 || destination < 0 || !getComponents().isReachable(origin, destination))
+			return DistanceEngine.UNREACHABLE;
+
+		return engine.getDistance(origin, destination);
+	}
+}
@@ -0,0 +1,84 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+
+/**
+ * Growable columns of trail records as read from a file of Trails: the IDs of the two
+ * end points and the length of each trail. Keeping the columns in arrays avoids a Trail
+ * object per line while the records wait to be added to a TrailGraph.
+ * @author Ben Morris
+ */
+public class TrailRecords {
+	/** ID of the first end point of each trail */
+	private String[] landmarkOne;
+	/** ID of the second end point of each trail */
+	private String[] landmarkTwo;
+	/** Length of each trail */
+	private int[] lengths;
+	/** Number of trails */
+	private int size;
+
+	/**
+	 * Constructor
+	 * @param capacity initial number of trails the records can hold
+	 */
+	public TrailRecords(int capacity) {
+		capacity = Math.max(capacity, 1);
+		landmarkOne = new String[capacity];
+		landmarkTwo = new String[capacity];
+		lengths = new int[capacity];
+	}
+
+	/**
+	 * Adds a trail record
+	 * @param one ID of the first end point
+	 * @param two ID of the second end point
+	 * @param length length of the trail
+	 */
+	public void add(String one, String two, int length) {
+		if (size == lengths.length) {
+			landmarkOne = Arrays.copyOf(landmarkOne, size * 2);
+			landmarkTwo = Arrays.copyOf(landmarkTwo, size * 2);
+			lengths = Arrays.copyOf(lengths, size * 2);
+		}
+		landmarkOne[size] = one;
+		landmarkTwo[size] = two;
+		lengths[size] = length;
+		size++;
+	}
+
+	/**
+	 * Returns the number of trails
+	 * @return number of trails
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the ID of the first end point of a trail
+	 * @param index index of the trail
+	 * @return ID of the first end point
+	 */
+	public String getLandmarkOne(int index) {
+		return landmarkOne[index];
+	}
+
+	/**
+	 * Returns the ID of the second end point of a trail
+	 * @param index index of the trail
+	 * @return ID of the second end point
+	 */
+	public String getLandmarkTwo(int index) {
+		return landmarkTwo[index];
+	}
+
+	/**
+	 * Returns the length of a trail
+	 * @param index index of the trail
+	 * @return length of the trail
+	 */
+	public int getLength(int index) {
+		return lengths[index];
+	}
+}
@@ -1,12 +1,31 @@
 package edu.ncsu.csc316.trail.ui;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
 import java.util.Scanner;
+
+import javax.management.JMException;
+
 import edu.ncsu.csc316.trail.manager.ReportManager;
 
 /** 
- * Class for user input for TrailManager project
+ * Class for user input for TrailManager project. Run with no arguments, it asks for the
+ * files and one report. Run with the paths of the files, it loads the park once and runs
+ * every query in a file of queries or standard input, one per line:
+ * 
+ * firstaid N     proposed first aid locations with at least N intersecting trails
+ * distances ID   distances to every reachable Landmark from the Landmark with ID
+ * 
+ * Blank lines and lines starting with # are skipped. Each report is followed by how long
+ * it took. Usage: TrailReportUI landmarkFile trailsFileOrDirectory [queryFile|- [outputFile]]
  * @author Ben Morris
  */
 public class TrailReportUI {
@@ -17,6 +36,10 @@ public class TrailReportUI {
 	final static int DISTANCES = 2;
 	/** Quit TrailManager is choice number 3 */
 	final static int QUIT = 3;
+	/** System property naming a file to write the metrics to in the Prometheus text format */
+	final static String METRICS_FILE_PROPERTY = "trail.metricsFile";
+	/** How to run batch mode */
+	final static String USAGE = "Usage: TrailReportUI landmarkFile trailsFileOrDirectory [queryFile|- [outputFile]]";
 	/** path to the file of Landmarks */
 	private static String pathToLandmarkFile;
 	/** path to the file of Trails */
@@ -29,24 +52,26 @@ public class TrailReportUI {
 	private static int choice; 
 	
 	/**
-	 * Runs UI and calls methods to run distance and first aid station reports.
-	 * @param args Command line arguments (not used)
+	 * Runs UI and calls methods to run distance and first aid station reports. The time
+	 * spent loading the park and creating the report can be read over JMX while it runs,
+	 * and is written to the file named by the trail.metricsFile property at the end.
+	 * @param args none for the menu, or the batch mode arguments in the class comment
 	 * @throws FileNotFoundException If the files aren't found.
 	 */
 	public static void main(String args[]) throws FileNotFoundException {
+		// Paths on the command line run a batch of queries instead of the menu
+		if (args.length > 0) {
+			runBatch(args);
+			return;
+		}
+		
 		in = new Scanner(System.in);
 		
 		// Get file names
 		getFileNames();
 	
 		// Create the ReportManager
-		try {
-			rm = new ReportManager(getPathtolandmarkfile(), getPathtotrailsfile());
-		} catch (Exception e) {
-			throw new FileNotFoundException("File not found.");
-		}	
-		
-		double start = System.currentTimeMillis() / 1000.;
+		createReportManager();
 		
 		// Show the user menu and collect user choice
 		choice = menu();					
@@ -54,14 +79,154 @@ public class TrailReportUI {
 		// Run RemportMangager method based on choice
 		handleChoice(choice);						
 		
-		double end = System.currentTimeMillis() / 1000.;
-		double duration = end - start; // in milliseconds
-		System.out.println("duration: " + duration);
-		
+		saveMetrics();
 		in.close();
 		System.out.println("END OF PROGRAM");
 	}	
 	
+	/**
+	 * Loads the park once and runs a batch of queries against it
+	 * @param args paths of the files of Landmarks and Trails, then optionally the file of
+	 * 		  queries (- for standard input) and the file to write the results to
+	 * @throws FileNotFoundException If the files of Landmarks or Trails aren't found.
+	 */
+	static void runBatch(String[] args) throws FileNotFoundException {
+		if (args.length < 2 || args.length > 4) {
+			System.out.println(USAGE);
+			return;
+		}
+		setPathtolandmarkfile(args[0]);
+		setPathtotrailsfile(args[1]);
+		if (!new File(getPathtolandmarkfile()).isFile())
+			throw new FileNotFoundException(getPathtolandmarkfile() + " cannot be found.");
+		if (!new File(getPathtotrailsfile()).exists())
+			throw new FileNotFoundException(getPathtotrailsfile() + " cannot be found.");
+		createReportManager();
+		
+		// Queries from the file or standard input, results to the file or standard output
+		String queryFile = args.length > 2 && !args[2].equals("-") ? args[2] : null;
+		String outputFile = args.length > 3 ? args[3] : null;
+		try (BufferedReader queries = queryFile == null ? new BufferedReader(new InputStreamReader(System.in))
+				: Files.newBufferedReader(Paths.get(queryFile))) {
+			Writer out = outputFile == null ? new PrintWriter(System.out)
+					: Files.newBufferedWriter(Paths.get(outputFile));
+			try {
+				runQueries(rm, queries, out);
+			} finally {
+				// Standard output stays open for the messages below
+				if (outputFile == null)
+					out.flush();
+				else
+					out.close();
+			}
+		} catch (IOException e) {
+			System.out.println("The queries could not be run: " + e.getMessage());
+		}
+		saveMetrics();
+	}
+	
+	/**
+	 * Runs every query read from queries, writing each report followed by how long it
+	 * took. Output is flushed after each query, so results appear as they are made.
+	 * @param reports ReportManager of the park to query
+	 * @param queries one query per line
+	 * @param out Writer to write the reports to. It is flushed but not closed.
+	 * @return number of queries run, including invalid ones
+	 * @throws IOException if the queries can't be read or the reports written
+	 */
+	public static int runQueries(ReportManager reports, BufferedReader queries, Writer out) throws IOException {
+		long batchStart = System.nanoTime();
+		int count = 0;
+		int lineNumber = 0;
+		String line;
+		while ((line = queries.readLine()) != null) {
+			lineNumber++;
+			String query = line.trim();
+			// Skip blank lines and comments
+			if (query.isEmpty() || query.startsWith("#"))
+				continue;
+			String[] words = query.split("\\s+");
+			
+			out.write("> " + query + "\n");
+			long start = System.nanoTime();
+			if (words.length == 2 && words[0].equalsIgnoreCase("firstaid") && isNumber(words[1])) {
+				reports.writeProposedFirstAidLocations(Integer.parseInt(words[1]), out);
+			} else if (words.length == 2 && words[0].equalsIgnoreCase("distances")) {
+				reports.writeDistancesReport(words[1], out);
+			} else {
+				out.write("Invalid query on line " + lineNumber + ". Use firstaid N or distances ID.");
+			}
+			out.write("\n" + formatDuration(System.nanoTime() - start) + "\n\n");
+			out.flush();
+			count++;
+		}
+		out.write(count + " queries, " + formatDuration(System.nanoTime() - batchStart) + "\n");
+		out.flush();
+		return count;
+	}
+	
+	/**
+	 * Returns true if a word is a whole number that fits in an int
+	 * @param word word to check
+	 * @return true if the word is a number
+	 */
+	private static boolean isNumber(String word) {
+		try {
+			Integer.parseInt(word);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Creates the ReportManager, keeping a snapshot of the park next to the Trails, and
+	 * publishes its metrics over JMX
+	 * @throws FileNotFoundException If the files aren't found.
+	 */
+	private static void createReportManager() throws FileNotFoundException {
+		try {
+			rm = new ReportManager(getPathtolandmarkfile(), getPathtotrailsfile(),
+					snapshotPath(getPathtotrailsfile()));
+		} catch (Exception e) {
+			throw new FileNotFoundException("File not found.");
+		}	
+		
+		// Publish the metrics over JMX
+		try {
+			rm.getMetrics().register("TrailReportUI");
+		} catch (JMException e) {
+			// The reports work without them
+		}
+	}
+	
+	/**
+	 * Writes the metrics to the file named by the trail.metricsFile property, if it is set
+	 */
+	private static void saveMetrics() {
+		String metricsFile = System.getProperty(METRICS_FILE_PROPERTY);
+		if (metricsFile != null) {
+			try {
+				rm.getMetrics().dump(Paths.get(metricsFile));
+			} catch (IOException e) {
+				System.out.println("The metrics could not be written to " + metricsFile + ".");
+			}
+		}
+	}
+	
+	/**
+	 * Returns the path of the binary snapshot kept for a file of Trails
+	 * @param pathToTrailsFile path to the file of Trails
+	 * @return path of the snapshot
+	 */
+	static String snapshotPath(String pathToTrailsFile) {
+		// Strip a trailing separator so a directory of Trails gets a sibling snapshot
+		String path = pathToTrailsFile;
+		while (path.length() > 1 && (path.endsWith("/") || path.endsWith(File.separator)))
+			path = path.substring(0, path.length() - 1);
+		return path + ".snapshot";
+	}
+	
 	/**
 	 * Gets the path to file of Landmarks
 	 * @return the pathToLandmarkFile
@@ -98,35 +263,31 @@ public class TrailReportUI {
 	 * Gets the file names from the user.
 	 */
 	public static void getFileNames() {
-		Scanner landmarkInput = null;
-		Scanner trailInput = null;
+		boolean landmarksFound = false;
+		boolean trailsFound = false;
 		
 		// Get Landmark file name
-		while(landmarkInput == null) {
+		while(!landmarksFound) {
 			System.out.println("Please enter the file path for the file of Landmarks and press enter.");
 			//setPathtolandmarkfile("input/landmarks_sample2.csv"); for testing
 
 			pathToLandmarkFile = in.next();
 			setPathtolandmarkfile(pathToLandmarkFile);
-			try {
-				landmarkInput = new Scanner(new File(getPathtolandmarkfile()));
-			} catch (FileNotFoundException e) {
+			landmarksFound = new File(getPathtolandmarkfile()).isFile();
+			if (!landmarksFound)
 				System.out.println("\n" + pathToLandmarkFile + " cannot be found.");
-			}
 		}
 		
-		// Get Trail file name
-		while(trailInput == null) {
+		// Get Trail file name. A directory of Trail files is read as one file
+		while(!trailsFound) {
 			System.out.println("Please enter the file path for the file of Trails and press enter.");
 			// setPathtotrailsfile("input/trails_sample2.csv"); for testing
 
 			pathToTrailsFile = in.next();
 			setPathtotrailsfile(pathToTrailsFile);
-			try {
-				trailInput = new Scanner(new File(getPathtotrailsfile()));
-			} catch (FileNotFoundException e) {
+			trailsFound = new File(getPathtotrailsfile()).exists();
+			if (!trailsFound)
 				System.out.println("\n" + pathToTrailsFile + " cannot be found.");
-			}
 		}
 	}
 		
@@ -162,7 +323,10 @@ public class TrailReportUI {
 	 * @throws FileNotFoundException if the file isn't found
 	 */
 	public static void handleChoice(int choice) throws FileNotFoundException {
-		String report = "";
+		// Reports are written a line at a time instead of built whole
+		PrintWriter out = new PrintWriter(System.out);
+		// When the report was started
+		long start;
 		
 		switch (choice) {
 		// First aid station report chosen
@@ -181,11 +345,16 @@ public class TrailReportUI {
 				//number = 1; for testing
 			}					
 			
-			// Get the report
-			report = rm.getProposedFirstAidLocations(number);
-			
-			// Print the report.
-			System.out.println(report);
+			// Print the report, timing only the report and not the user's typing
+			start = System.nanoTime();
+			try {
+				rm.writeProposedFirstAidLocations(number, out);
+			} catch (IOException e) {
+				System.out.println("The report could not be printed.");
+			}
+			out.println();
+			out.flush();
+			printDuration(start);
 									
 			break;
 
@@ -199,11 +368,16 @@ public class TrailReportUI {
 			//String origin = "L10";  for testing
 			
 			
-			// Get the report.
-			report = rm.getDistancesReport(origin);
-					
-			// Print the report.
-			System.out.println(report);			
+			// Print the report, timing only the report and not the user's typing
+			start = System.nanoTime();
+			try {
+				rm.writeDistancesReport(origin, out);
+			} catch (IOException e) {
+				System.out.println("The report could not be printed.");
+			}
+			out.println();
+			out.flush();
+			printDuration(start);
 			
 			break;
 			
@@ -218,6 +392,23 @@ public class TrailReportUI {
 		}
 	}
 
+	/**
+	 * Prints the time since start
+	 * @param start System.nanoTime when the report was started
+	 */
+	private static void printDuration(long start) {
+		System.out.println(formatDuration(System.nanoTime() - start));
+	}
+	
+	/**
+	 * Formats a duration as milliseconds
+	 * @param nanos duration in nanoseconds
+	 * @return the duration, such as "duration: 1.234 ms"
+	 */
+	static String formatDuration(long nanos) {
+		return String.format(Locale.ROOT, "duration: %.3f ms", nanos / 1e6);
+	}
+
 	/**
 	 * Returns choice
 	 * @return choice
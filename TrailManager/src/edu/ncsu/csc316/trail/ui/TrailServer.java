@@ -0,0 +1,390 @@
+package edu.ncsu.csc316.trail.ui;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+import edu.ncsu.csc316.trail.manager.ReportManager;
+import edu.ncsu.csc316.trail.manager.TrailNetwork;
+
+/**
+ * Serves the reports of one loaded park over HTTP, so kiosks and apps can query a warm
+ * JVM instead of starting one per report. Every request reads the same ReportManager,
+ * which allows any number of concurrent readers. Requests run on virtual threads when
+ * the JVM has them and on a pool of platform threads otherwise. Endpoints, all GET:
+ *
+ * /distances?from=ID            distances report from the Landmark with ID
+ * /firstaid?min=N[&amp;limit=K]     first aid report, optionally only the best K locations
+ * /landmark?id=ID               the Landmark with ID as JSON
+ * /metrics                      timers and counters in the Prometheus text format
+ *
+ * Reports are streamed as plain text, exactly as TrailReportUI prints them. What a report
+ * needs is copied out of the park before any of it is sent, so a client that reads slowly
+ * or not at all never holds off updates or the requests queued behind them. An unknown
+ * Landmark gets 404 and a missing or bad parameter 400, each with the report's message.
+ * Usage: TrailServer landmarkFile trailsFileOrDirectory [port]
+ * @author Ben Morris
+ */
+public class TrailServer {
+	/** Port served on when none is given */
+	public static final int DEFAULT_PORT = 8316;
+	/** Connections that may wait to be accepted */
+	private static final int BACKLOG = 1024;
+	/** Content type of the reports */
+	private static final String TEXT = "text/plain; charset=utf-8";
+	/** Content type of a Landmark */
+	private static final String JSON = "application/json; charset=utf-8";
+
+	/** The HTTP server */
+	private final HttpServer server;
+	/** Threads the requests run on */
+	private final ExecutorService executor;
+	/** True if the requests run on virtual threads */
+	private final boolean virtual;
+	/** Reports of the park being served */
+	private final ReportManager rm;
+
+	/**
+	 * Constructor. The server doesn't accept requests until it is started.
+	 * @param rm reports of the park to serve
+	 * @param address address to listen on. Port 0 picks a free port
+	 * @throws IOException if the address can't be bound
+	 */
+	public TrailServer(ReportManager rm, InetSocketAddress address) throws IOException {
+		this.rm = rm;
+		ExecutorService virtualThreads = newVirtualThreadExecutor();
+		this.virtual = virtualThreads != null;
+		this.executor = virtual ? virtualThreads
+				: Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+		server = HttpServer.create(address, BACKLOG);
+		server.setExecutor(executor);
+		server.createContext("/distances", new ReportHandler() {
+			@Override
+			void respond(Map<String, String> parameters, HttpExchange exchange) throws IOException {
+				handleDistances(parameters, exchange);
+			}
+		});
+		server.createContext("/firstaid", new ReportHandler() {
+			@Override
+			void respond(Map<String, String> parameters, HttpExchange exchange) throws IOException {
+				handleFirstAid(parameters, exchange);
+			}
+		});
+		server.createContext("/landmark", new ReportHandler() {
+			@Override
+			void respond(Map<String, String> parameters, HttpExchange exchange) throws IOException {
+				handleLandmark(parameters, exchange);
+			}
+		});
+		server.createContext("/metrics", new ReportHandler() {
+			@Override
+			void respond(Map<String, String> parameters, HttpExchange exchange) throws IOException {
+				send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8",
+						TrailServer.this.rm.getMetrics().getPrometheusText());
+			}
+		});
+	}
+
+	/**
+	 * Returns an executor that runs each task on a new virtual thread. It is looked up
+	 * by reflection so the server still builds and runs for Java 11.
+	 * @return the executor, or null if the JVM has no virtual threads
+	 */
+	static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			// Before Java 21, or a preview release without --enable-preview
+			return null;
+		}
+	}
+
+	/**
+	 * Starts accepting requests
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops accepting requests and waits for those running to finish
+	 * @param delaySeconds longest time to wait for running requests
+	 */
+	public void stop(int delaySeconds) {
+		server.stop(delaySeconds);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the port the server listens on
+	 * @return the port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Returns true if requests run on virtual threads
+	 * @return true for virtual threads, false for a pool of platform threads
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/**
+	 * Streams the distances report
+	 * @param parameters query parameters, with the origin in "from"
+	 * @param exchange the request
+	 * @throws IOException if the report can't be sent
+	 */
+	private void handleDistances(Map<String, String> parameters, HttpExchange exchange) throws IOException {
+		String origin = parameters.get("from");
+		if (origin == null) {
+			send(exchange, 400, TEXT, "The from parameter is required.");
+			return;
+		}
+		// The check and the report use the same version of the park, so an update in
+		// between can't send a 200 with the invalid origin message
+		TrailNetwork network = rm.getTrailManager().getNetwork();
+		if (network.getLandmarkByID(origin) == null) {
+			StringWriter body = new StringWriter();
+			rm.writeDistancesReport(network, origin, body);
+			send(exchange, 404, TEXT, body.toString());
+			return;
+		}
+		Writer out = stream(exchange);
+		rm.writeDistancesReport(network, origin, out);
+		out.close();
+	}
+
+	/**
+	 * Streams the first aid report
+	 * @param parameters query parameters, with the minimum number of intersecting trails
+	 * 		  in "min" and optionally the number of locations in "limit"
+	 * @param exchange the request
+	 * @throws IOException if the report can't be sent
+	 */
+	private void handleFirstAid(Map<String, String> parameters, HttpExchange exchange) throws IOException {
+		int minTrails = number(parameters.get("min"));
+		if (minTrails < 1) {
+			send(exchange, 400, TEXT, rm.getProposedFirstAidLocations(0));
+			return;
+		}
+		int limit = Integer.MAX_VALUE;
+		if (parameters.containsKey("limit")) {
+			limit = number(parameters.get("limit"));
+			if (limit < 1) {
+				send(exchange, 400, TEXT, rm.getTopFirstAidLocations(0, minTrails));
+				return;
+			}
+		}
+		Writer out = stream(exchange);
+		rm.writeTopFirstAidLocations(limit, minTrails, out);
+		out.close();
+	}
+
+	/**
+	 * Sends a Landmark as JSON
+	 * @param parameters query parameters, with the ID in "id"
+	 * @param exchange the request
+	 * @throws IOException if the Landmark can't be sent
+	 */
+	private void handleLandmark(Map<String, String> parameters, HttpExchange exchange) throws IOException {
+		String id = parameters.get("id");
+		if (id == null) {
+			send(exchange, 400, TEXT, "The id parameter is required.");
+			return;
+		}
+		Landmark landmark = rm.getTrailManager().getLandmarkByID(id);
+		if (landmark == null) {
+			send(exchange, 404, TEXT, "The provided landmark ID (" + id + ") is invalid for the park.");
+			return;
+		}
+		StringBuilder json = new StringBuilder();
+		json.append("{\"id\":");
+		appendJson(json, landmark.getId());
+		json.append(",\"description\":");
+		appendJson(json, landmark.getDescription());
+		json.append(",\"type\":");
+		appendJson(json, landmark.getType());
+		json.append("}");
+		send(exchange, 200, JSON, json.toString());
+	}
+
+	/**
+	 * Sends a whole response
+	 * @param exchange the request
+	 * @param status HTTP status
+	 * @param contentType content type of the body
+	 * @param body the body
+	 * @throws IOException if the response can't be sent
+	 */
+	private static void send(HttpExchange exchange, int status, String contentType, String body)
+			throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.close();
+	}
+
+	/**
+	 * Starts a successful plain text response of unknown length, sent in chunks as it
+	 * is written
+	 * @param exchange the request
+	 * @return Writer for the body. Close it to end the response
+	 * @throws IOException if the response can't be started
+	 */
+	private static Writer stream(HttpExchange exchange) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", TEXT);
+		exchange.sendResponseHeaders(200, 0);
+		return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Parses a whole number parameter
+	 * @param value value of the parameter, or null if it is missing
+	 * @return the number, or 0 if it is missing or not a number
+	 */
+	private static int number(String value) {
+		if (value == null)
+			return 0;
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the parameters of the query of a request
+	 * @param uri URI of the request
+	 * @return the decoded parameters. A parameter given twice keeps its first value
+	 */
+	static Map<String, String> parameters(URI uri) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		String query = uri.getRawQuery();
+		if (query == null)
+			return parameters;
+		for (String pair : query.split("&")) {
+			int equals = pair.indexOf('=');
+			String name = equals < 0 ? pair : pair.substring(0, equals);
+			String value = equals < 0 ? "" : pair.substring(equals + 1);
+			name = URLDecoder.decode(name, StandardCharsets.UTF_8);
+			if (!name.isEmpty() && !parameters.containsKey(name))
+				parameters.put(name, URLDecoder.decode(value, StandardCharsets.UTF_8));
+		}
+		return parameters;
+	}
+
+	/**
+	 * Appends a string to JSON as a quoted string
+	 * @param json JSON to append to
+	 * @param value string to append
+	 */
+	static void appendJson(StringBuilder json, String value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c < 0x20) {
+				json.append(String.format("\\u%04x", (int) c));
+			} else {
+				json.append(c);
+			}
+		}
+		json.append('"');
+	}
+
+	/**
+	 * Handles one type of request. Only GET is allowed, and an error while handling the
+	 * request gets a 500 if the response hasn't been started.
+	 */
+	private abstract static class ReportHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				if (!exchange.getRequestMethod().equals("GET")) {
+					exchange.getResponseHeaders().set("Allow", "GET");
+					send(exchange, 405, TEXT, "Only GET is allowed.");
+					return;
+				}
+				respond(parameters(exchange.getRequestURI()), exchange);
+			} catch (RuntimeException e) {
+				// The headers have already gone if the report failed part way through
+				if (exchange.getResponseCode() < 0)
+					send(exchange, 500, TEXT, "The report could not be created.");
+			} finally {
+				exchange.close();
+			}
+		}
+
+		/**
+		 * Responds to a GET request
+		 * @param parameters query parameters of the request
+		 * @param exchange the request
+		 * @throws IOException if the response can't be sent
+		 */
+		abstract void respond(Map<String, String> parameters, HttpExchange exchange) throws IOException;
+	}
+
+	/**
+	 * Loads a park and serves it on the loopback address until the JVM is stopped
+	 * @param args paths of the files of Landmarks and Trails, then optionally the port
+	 * @throws IOException if the files aren't found or the port can't be bound
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || args.length > 3) {
+			System.out.println("Usage: TrailServer landmarkFile trailsFileOrDirectory [port]");
+			return;
+		}
+		ReportManager rm;
+		try {
+			rm = new ReportManager(args[0], args[1], TrailReportUI.snapshotPath(args[1]));
+		} catch (Exception e) {
+			throw new FileNotFoundException("File not found.");
+		}
+		int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+
+		final TrailServer trailServer = new TrailServer(rm,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				trailServer.stop(1);
+			}
+		});
+		trailServer.start();
+		System.out.println("Serving on http://localhost:" + trailServer.getPort() + "/ with "
+				+ (trailServer.isVirtual() ? "virtual threads" : "a thread pool"));
+	}
+}
@@ -0,0 +1,97 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileNotFoundException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Tests for ComponentIndex.java
+ * @author Ben Morris
+ */
+public class ComponentIndexTest {
+
+	/**
+	 * Tests the components of a small graph, including a loop, an island and a Landmark
+	 * with no trails
+	 */
+	@Test
+	public void testComponents() {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		for (int i = 0; i < 7; i++) {
+			builder.addLandmark(new Landmark("L" + i, "Landmark " + i, "Location"));
+		}
+		builder.addTrail("L0", "L1", 100);
+		builder.addTrail("L1", "L2", 100);
+		builder.addTrail("L2", "L0", 100);
+		builder.addTrail("L4", "L3", 100);
+		builder.addTrail("L5", "L5", 100);
+		TrailGraph graph = builder.build();
+
+		ComponentIndex components = new ComponentIndex(graph);
+		assertEquals(components.count(), 4);
+		assertTrue(components.isReachable(0, 2));
+		assertTrue(components.isReachable(3, 4));
+		assertTrue(components.isReachable(6, 6));
+		assertFalse(components.isReachable(0, 3));
+		assertFalse(components.isReachable(5, 6));
+		assertEquals(components.componentSize(1), 3);
+		assertEquals(components.componentSize(3), 2);
+		assertEquals(components.componentSize(5), 1);
+		assertEquals(components.size(components.component(6)), 1);
+
+		// A removed Landmark is in no component
+		graph.removeLandmark("L4");
+		components = new ComponentIndex(graph);
+		assertEquals(components.component(4), -1);
+		assertEquals(components.componentSize(4), 0);
+		assertFalse(components.isReachable(4, 4));
+		assertEquals(components.componentSize(3), 1);
+	}
+
+	/**
+	 * Tests reachability in the sample park, and that it follows updates
+	 * @throws FileNotFoundException if the files aren't found
+	 */
+	@Test
+	public void testTrailManager() throws FileNotFoundException {
+		TrailManager tm = new TrailManager("input/landmarks_sample.csv", "input/trails_sample.csv");
+		assertTrue(tm.isReachable("L01", "L08"));
+		assertTrue(tm.isReachable("L11", "L12"));
+		assertFalse(tm.isReachable("L01", "L11"));
+		assertFalse(tm.isReachable("L13", "L01"));
+		assertFalse(tm.isReachable("L01", "L99"));
+		assertEquals(tm.getNetwork().getComponents().count(), 3);
+
+		// Removing a trail splits a component, and adding one joins two
+		assertTrue(tm.removeTrail("L06", "L07", 2912));
+		assertFalse(tm.isReachable("L01", "L08"));
+		assertTrue(tm.isReachable("L07", "L08"));
+		assertTrue(tm.addTrail("L13", "L12", 500));
+		assertTrue(tm.isReachable("L11", "L13"));
+		assertEquals(tm.getNetwork().getComponents().count(), 3);
+		assertEquals(tm.getDistance("L01", "L08"), DistanceEngine.UNREACHABLE);
+		assertEquals(tm.getDistance("L11", "L13"), 1566);
+	}
+
+	/**
+	 * Tests that a report from a Landmark with no trails needs no traversal
+	 * @throws FileNotFoundException if the files aren't found
+	 */
+	@Test
+	public void testIsolatedReport() throws FileNotFoundException {
+		ReportManager rm = new ReportManager("input/landmarks_sample.csv", "input/trails_sample.csv", null, 0, 0);
+		assertEquals(rm.getDistancesReport("L13"), "No landmarks are reachable from Hidden Campsite (L13).");
+		assertEquals(rm.getMetrics().getTraversals(), 0);
+		assertEquals(rm.getTrailManager().getDistancesToDestinations("L13").size(), 0);
+		assertEquals(rm.getMetrics().getTraversals(), 0);
+
+		// The island of two still needs one traversal
+		assertEquals(rm.getDistancesReport("L11"), "Landmarks Reachable from Campsite 1 (L11) {\n"
+				+ "   1066 feet to Campsite Restrooms (L12)\n}\n");
+		assertEquals(rm.getMetrics().getTraversals(), 1);
+	}
+}
@@ -0,0 +1,125 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Tests for DegreeBuckets.java
+ * @author Ben Morris
+ */
+public class DegreeBucketsTest {
+	/** TrailGraph */
+	private TrailGraph graph;
+
+	/**
+	 * Setup for tests. Builds a graph where L01 and L03 have two trails, L02 and L05 have
+	 * one and L04 has none. L02 and L05 share a description.
+	 */
+	@BeforeEach
+	public void setup() {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		builder.addLandmark(new Landmark("L01", "Park Entrance", "Location"));
+		builder.addLandmark(new Landmark("L05", "Campsite", "Campsite"));
+		builder.addLandmark(new Landmark("L03", "Entrance Fountain", "Fountain"));
+		builder.addLandmark(new Landmark("L04", "Hidden Campsite", "Campsite"));
+		builder.addLandmark(new Landmark("L02", "Campsite", "Campsite"));
+		assertTrue(builder.addTrail("L01", "L03", 3013));
+		assertTrue(builder.addTrail("L01", "L02", 1046));
+		assertTrue(builder.addTrail("L03", "L05", 500));
+		graph = builder.build();
+	}
+
+	/**
+	 * Tests counts and the report order of the buckets
+	 */
+	@Test
+	public void testBuckets() {
+		DegreeBuckets buckets = new DegreeBuckets(graph, new DescriptionRanks(graph, DsaConfiguration.DEFAULT));
+
+		assertEquals(buckets.count(0), 4);
+		assertEquals(buckets.count(1), 4);
+		assertEquals(buckets.count(2), 2);
+		assertEquals(buckets.count(3), 0);
+		assertEquals(buckets.count(100), 0);
+
+		// Most trails first, then description, then ID
+		assertEquals(ids(buckets.ordinals(1)), "[L03, L01, L02, L05]");
+		assertEquals(ids(buckets.ordinals(2)), "[L03, L01]");
+		assertEquals(buckets.ordinals(3).length, 0);
+		assertEquals(graph.getLandmark(buckets.ordinal(2)).getId(), "L02");
+	}
+
+	/**
+	 * Tests that the buckets match sorting the qualifying Landmarks with
+	 * IntersectionListEntryComparator on a random park
+	 */
+	@Test
+	public void testRandomPark() {
+		Random random = new Random(316);
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		for (int i = 0; i < 200; i++) {
+			builder.addLandmark(new Landmark("L" + i, "Landmark " + random.nextInt(50), "Location"));
+		}
+		for (int i = 0; i < 400; i++) {
+			builder.addTrail("L" + random.nextInt(200), "L" + random.nextInt(200), 1 + random.nextInt(1000));
+		}
+		TrailGraph park = builder.build();
+		DegreeBuckets buckets = new DegreeBuckets(park, new DescriptionRanks(park, DsaConfiguration.DEFAULT));
+
+		for (int k = 1; k <= park.getMaxDegree() + 1; k++) {
+			// Sort the qualifying Landmarks the way the report used to
+			int count = 0;
+			ReportManager.IntersectionListEntry[] entries = new ReportManager.IntersectionListEntry[park.size()];
+			for (int o = 0; o < park.size(); o++) {
+				if (park.degree(o) >= k)
+					entries[count++] = new ReportManager.IntersectionListEntry(park.getLandmark(o), park.degree(o));
+			}
+			entries = Arrays.copyOf(entries, count);
+			Arrays.sort(entries, new ReportManager.IntersectionListEntryComparator());
+
+			int[] ordinals = buckets.ordinals(k);
+			assertEquals(ordinals.length, count);
+			for (int i = 0; i < count; i++) {
+				assertEquals(park.getLandmark(ordinals[i]), entries[i].getLandmark());
+			}
+		}
+	}
+
+	/**
+	 * Tests that a network buckets the Landmarks again after an update
+	 */
+	@Test
+	public void testAfterUpdate() {
+		TrailNetwork network = new TrailNetwork(graph, 1, false, DsaConfiguration.DEFAULT);
+		assertEquals(network.getProposedFirstAidLocations(2).length, 2);
+
+		TrailGraph copy = graph.copy();
+		assertTrue(copy.addTrail("L04", "L05", 20));
+		TrailNetwork updated = network.withGraph(copy, 2);
+		assertEquals(ids(updated.getProposedFirstAidLocations(2)), "[L05, L03, L01]");
+		assertEquals(updated.getDegreeBuckets(), updated.getDegreeBuckets());
+
+		// The old network still has the old graph
+		assertEquals(network.getProposedFirstAidLocations(2).length, 2);
+	}
+
+	/**
+	 * Returns the IDs of the Landmarks at some ordinals
+	 * @param ordinals ordinals of Landmarks
+	 * @return the IDs, as a String
+	 */
+	private String ids(int[] ordinals) {
+		String[] ids = new String[ordinals.length];
+		for (int i = 0; i < ordinals.length; i++) {
+			ids[i] = graph.getLandmark(ordinals[i]).getId();
+		}
+		return Arrays.toString(ids);
+	}
+}
@@ -0,0 +1,60 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Tests for DescriptionRanks.java
+ * @author Ben Morris
+ */
+public class DescriptionRanksTest {
+	/** TrailGraph */
+	private TrailGraph graph;
+
+	/**
+	 * Setup for tests. Builds a graph of four Landmarks, two of which share a description
+	 */
+	@BeforeEach
+	public void setup() {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		builder.addLandmark(new Landmark("L01", "Park Entrance", "Location"));
+		builder.addLandmark(new Landmark("L04", "Campsite", "Campsite"));
+		builder.addLandmark(new Landmark("L03", "Entrance Fountain", "Fountain"));
+		builder.addLandmark(new Landmark("L02", "Campsite", "Campsite"));
+		assertTrue(builder.addTrail("L01", "L03", 3013));
+		graph = builder.build();
+	}
+
+	/**
+	 * Tests ranks by description, then ID
+	 */
+	@Test
+	public void testRanks() {
+		DescriptionRanks ranks = new DescriptionRanks(graph, DsaConfiguration.DEFAULT);
+		assertEquals(ranks.size(), 4);
+		assertEquals(ranks.rank(graph.getOrdinal("L02")), 0);
+		assertEquals(ranks.rank(graph.getOrdinal("L04")), 1);
+		assertEquals(ranks.rank(graph.getOrdinal("L03")), 2);
+		assertEquals(ranks.rank(graph.getOrdinal("L01")), 3);
+		for (int r = 0; r < ranks.size(); r++) {
+			assertEquals(ranks.rank(ranks.ordinal(r)), r);
+		}
+	}
+
+	/**
+	 * Tests that removed Landmarks aren't ranked
+	 */
+	@Test
+	public void testRemoved() {
+		assertTrue(graph.removeLandmark("L04"));
+		DescriptionRanks ranks = new DescriptionRanks(graph, DsaConfiguration.DEFAULT);
+		assertEquals(ranks.size(), 3);
+		assertEquals(ranks.rank(1), -1);
+		assertEquals(ranks.rank(graph.getOrdinal("L02")), 0);
+		assertEquals(ranks.rank(graph.getOrdinal("L01")), 2);
+	}
+}
@@ -0,0 +1,146 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Tests for DistanceEngine.java
+ * @author Ben Morris
+ */
+public class DistanceEngineTest {
+
+	/**
+	 * Builds a graph of Landmarks L0..L(n-1)
+	 * @param n number of Landmarks
+	 * @param trails triples of end point indexes and lengths
+	 * @return the graph
+	 */
+	private static TrailGraph build(int n, int[][] trails) {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		for (int i = 0; i < n; i++) {
+			builder.addLandmark(new Landmark("L" + i, "Landmark " + i, "Location"));
+		}
+		for (int[] trail : trails) {
+			builder.addTrail("L" + trail[0], "L" + trail[1], trail[2]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Tests distances on a network without loops
+	 */
+	@Test
+	public void testTree() {
+		TrailGraph graph = build(5, new int[][] {{0, 1, 10}, {1, 2, 5}, {0, 3, 7}});
+		assertTrue(graph.isForest());
+		int[] distances = new DistanceEngine(graph).getDistances(0);
+		assertArrayEquals(new int[] {0, 10, 15, 7, DistanceEngine.UNREACHABLE}, distances);
+	}
+
+	/**
+	 * Tests that a loop is searched for the shortest route instead of the first one found
+	 */
+	@Test
+	public void testLoop() {
+		// 0-1-2-3-0 loop where the long way round is the first trail listed
+		TrailGraph graph = build(4, new int[][] {{0, 1, 100}, {1, 2, 1}, {2, 3, 1}, {3, 0, 1}});
+		assertFalse(graph.isForest());
+		int[] distances = new DistanceEngine(graph).getDistances(0);
+		assertArrayEquals(new int[] {0, 3, 2, 1}, distances);
+	}
+
+	/**
+	 * Tests that routes longer than an int holds saturate instead of wrapping around
+	 */
+	@Test
+	public void testLongRoutes() {
+		int max = DistanceEngine.MAX_DISTANCE;
+		assertEquals(DistanceEngine.extend(max - 10, 5), max - 5);
+		assertEquals(DistanceEngine.extend(max - 10, max), max);
+		assertEquals(DistanceEngine.extend(max, max), max);
+
+		// A line of two long trails, with and without a loop
+		TrailGraph line = build(3, new int[][] {{0, 1, max - 10}, {1, 2, 100}});
+		assertArrayEquals(new int[] {0, max - 10, max}, new DistanceEngine(line).getDistances(0));
+		assertEquals(new DistanceEngine(line).getDistance(0, 2), max);
+		TrailGraph loop = build(4, new int[][] {{0, 1, max - 10}, {1, 2, max}, {2, 3, 100}, {3, 0, max - 500}});
+		assertFalse(loop.isForest());
+		assertArrayEquals(new int[] {0, max - 10, max - 400, max - 500}, new DistanceEngine(loop).getDistances(0));
+		assertEquals(new DistanceEngine(loop).getDistance(1, 3), max);
+		assertEquals(new DistanceEngine(loop).getDistance(2, 0), max - 400);
+
+		// A saturated route never beats an exact one
+		int[] nearest = new int[4];
+		int[] distances = new DistanceEngine(loop).getNearestDistances(new int[] {1, 2}, nearest);
+		assertArrayEquals(new int[] {max - 400, 0, 0, 100}, distances);
+		assertArrayEquals(new int[] {2, 1, 2, 2}, nearest);
+
+		assertThrows(IllegalArgumentException.class, () -> new TrailGraph.Builder().addTrail("L0", "L1", -1));
+	}
+
+	/**
+	 * Tests that a second trail between the same Landmarks is treated as a loop
+	 */
+	@Test
+	public void testParallelTrails() {
+		TrailGraph graph = build(2, new int[][] {{0, 1, 50}, {1, 0, 20}});
+		assertFalse(graph.isForest());
+		assertEquals(new DistanceEngine(graph).getDistances(1)[0], 20);
+	}
+
+	/**
+	 * Tests a long linear greenway that would overflow a recursive traversal
+	 */
+	@Test
+	public void testLongGreenway() {
+		int n = 200000;
+		int[][] trails = new int[n - 1][];
+		for (int i = 0; i < n - 1; i++) {
+			trails[i] = new int[] {i, i + 1, 2};
+		}
+		TrailGraph graph = build(n, trails);
+		assertEquals(new DistanceEngine(graph).getDistances(0)[n - 1], 2 * (n - 1));
+
+		// Closing the greenway into a loop takes the Dijkstra path
+		int[][] loop = java.util.Arrays.copyOf(trails, n);
+		loop[n - 1] = new int[] {n - 1, 0, 3};
+		graph = build(n, loop);
+		assertFalse(graph.isForest());
+		assertEquals(new DistanceEngine(graph).getDistances(0)[n - 1], 3);
+	}
+
+	/**
+	 * Tests single-pair distances against the distances from a full search
+	 */
+	@Test
+	public void testGetDistance() {
+		// Grid of 20 x 20 Landmarks with uneven trail lengths, so there are many loops
+		int side = 20;
+		int[][] trails = new int[2 * side * (side - 1) + 1][];
+		int t = 0;
+		for (int r = 0; r < side; r++) {
+			for (int c = 0; c < side; c++) {
+				if (c + 1 < side)
+					trails[t++] = new int[] {r * side + c, r * side + c + 1, 1 + (r * 7 + c * 3) % 11};
+				if (r + 1 < side)
+					trails[t++] = new int[] {r * side + c, (r + 1) * side + c, 1 + (r * 5 + c * 13) % 17};
+			}
+		}
+		// One Landmark off the grid
+		trails[t] = new int[] {0, 0, 1};
+		TrailGraph graph = build(side * side + 1, trails);
+		DistanceEngine engine = new DistanceEngine(graph);
+
+		for (int origin = 0; origin < side * side; origin += 37) {
+			int[] distances = engine.getDistances(origin);
+			for (int destination = 0; destination < side * side; destination++) {
+				assertEquals(engine.getDistance(origin, destination), distances[destination]);
+			}
+		}
+		assertEquals(engine.getDistance(5, 5), 0);
+		assertEquals(engine.getDistance(5, side * side), DistanceEngine.UNREACHABLE);
+	}
+}
@@ -0,0 +1,95 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+import edu.ncsu.csc316.trail.manager.ReportManager.DistanceListEntry;
+
+/**
+ * Tests for DistanceReportCache.java
+ * @author Ben Morris
+ */
+public class DistanceReportCacheTest {
+	/** Sorted distances for one cached report */
+	private static final DistanceListEntry[] DISTANCES = {
+		new DistanceListEntry(new Landmark("L03", "Waste Station 1", "Pet Waste Station"), 1046)
+	};
+
+	/**
+	 * Tests hits, misses and least-recently-used eviction by number of entries
+	 */
+	@Test
+	public void testEntryBudget() {
+		DistanceReportCache cache = new DistanceReportCache(2, Long.MAX_VALUE);
+		assertNull(cache.get("L01", 1));
+		cache.put("L01", 1, DISTANCES, "one");
+		cache.put("L02", 1, DISTANCES, "two");
+		assertEquals(cache.get("L01", 1).getReport(), "one");
+
+		// L02 is now the least recently used
+		cache.put("L03", 1, DISTANCES, "three");
+		assertEquals(cache.size(), 2);
+		assertNull(cache.get("L02", 1));
+		assertNotNull(cache.get("L01", 1));
+		assertSame(cache.get("L03", 1).getDistances(), DISTANCES);
+
+		assertEquals(cache.getHits(), 3);
+		assertEquals(cache.getMisses(), 2);
+		assertEquals(cache.getEvictions(), 1);
+	}
+
+	/**
+	 * Tests eviction by estimated bytes
+	 */
+	@Test
+	public void testByteBudget() {
+		DistanceReportCache probe = new DistanceReportCache(10, Long.MAX_VALUE);
+		probe.put("L01", 1, DISTANCES, "report");
+		long oneEntry = probe.getBytes();
+
+		DistanceReportCache cache = new DistanceReportCache(10, oneEntry * 2);
+		cache.put("L01", 1, DISTANCES, "report");
+		cache.put("L02", 1, DISTANCES, "report");
+		cache.put("L03", 1, DISTANCES, "report");
+		assertEquals(cache.size(), 2);
+		assertEquals(cache.getBytes(), oneEntry * 2);
+		assertNull(cache.get("L01", 1));
+
+		// A report bigger than the whole budget is not cached
+		DistanceReportCache tiny = new DistanceReportCache(10, 1);
+		tiny.put("L01", 1, DISTANCES, "report");
+		assertEquals(tiny.size(), 0);
+
+		// A cache with no entries caches nothing
+		DistanceReportCache off = new DistanceReportCache(0, Long.MAX_VALUE);
+		off.put("L01", 1, DISTANCES, "report");
+		assertNull(off.get("L01", 1));
+
+		assertThrows(IllegalArgumentException.class, () -> new DistanceReportCache(-1, 0));
+	}
+
+	/**
+	 * Tests that a new data version drops every cached report
+	 */
+	@Test
+	public void testVersion() {
+		DistanceReportCache cache = new DistanceReportCache(10, Long.MAX_VALUE);
+		cache.put("L01", 1, DISTANCES, "old");
+		assertNull(cache.get("L01", 2));
+		assertEquals(cache.size(), 0);
+		assertEquals(cache.getBytes(), 0);
+		cache.put("L01", 2, DISTANCES, "new");
+		assertEquals(cache.get("L01", 2).getReport(), "new");
+
+		// An older version bypasses the cache without dropping or replacing anything
+		long misses = cache.getMisses();
+		assertNull(cache.get("L01", 1));
+		assertEquals(cache.getMisses(), misses + 1);
+		cache.put("L01", 1, DISTANCES, "stale");
+		cache.put("L02", 1, DISTANCES, "stale");
+		assertEquals(cache.size(), 1);
+		assertEquals(cache.get("L01", 2).getReport(), "new");
+	}
+}
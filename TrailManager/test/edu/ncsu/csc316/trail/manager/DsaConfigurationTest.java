@@ -0,0 +1,115 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.dsa.map.SearchTableMap;
+import edu.ncsu.csc316.dsa.map.SkipListMap;
+import edu.ncsu.csc316.trail.data.Landmark;
+import edu.ncsu.csc316.trail.dsa.Algorithm;
+import edu.ncsu.csc316.trail.dsa.DataStructure;
+
+/**
+ * Tests for DsaConfiguration.java
+ * @author Ben Morris
+ */
+public class DsaConfigurationTest {
+
+	/**
+	 * Tests fixed configurations and their validation
+	 */
+	@Test
+	public void testFixed() {
+		DsaConfiguration config = new DsaConfiguration(DataStructure.SEARCHTABLE, Algorithm.QUICKSORT, false);
+		assertFalse(config.isAdaptive());
+		assertFalse(config.isRadixSorted());
+		assertTrue(config.getMap(null) instanceof SearchTableMap);
+		assertSame(config.forPark(line(1000)), config);
+		assertEquals(config.toString(), "map=SEARCHTABLE, comparisonSorter=QUICKSORT, radixSorted=false");
+		assertTrue(DsaConfiguration.DEFAULT.isRadixSorted());
+
+		assertThrows(IllegalArgumentException.class, () -> new DsaConfiguration(DataStructure.ARRAYBASEDLIST,
+				Algorithm.QUICKSORT, false));
+		assertThrows(IllegalArgumentException.class, () -> new DsaConfiguration(DataStructure.SKIPLIST,
+				Algorithm.RADIX_SORT, false));
+		assertThrows(IllegalArgumentException.class, () -> new DsaConfiguration(DataStructure.SKIPLIST,
+				Algorithm.COUNTING_SORT, true));
+	}
+
+	/**
+	 * Tests the choices ADAPTIVE makes for small and large parks
+	 */
+	@Test
+	public void testAdaptive() {
+		DsaConfiguration adaptive = DsaConfiguration.ADAPTIVE;
+		assertTrue(adaptive.isAdaptive());
+		assertEquals(adaptive.toString(), "adaptive, not yet chosen for a park");
+
+		// A tiny park
+		DsaConfiguration tiny = adaptive.forPark(line(10));
+		assertFalse(tiny.isAdaptive());
+		assertEquals(tiny.getMapType(), DataStructure.SEARCHTABLE);
+		assertEquals(tiny.getComparisonSorterType(), Algorithm.MERGESORT);
+		assertFalse(tiny.isRadixSorted());
+		assertEquals(tiny.toString(), "adaptive: map=SEARCHTABLE, comparisonSorter=MERGESORT, radixSorted=false");
+
+		// Either side of the thresholds
+		DsaConfiguration medium = adaptive.forPark(line(DsaConfiguration.SEARCH_TABLE_DISTANCES));
+		assertEquals(medium.getMapType(), DataStructure.SEARCHTABLE);
+		assertTrue(medium.isRadixSorted());
+		assertFalse(adaptive.forPark(line(DsaConfiguration.RADIX_REPORTS - 1)).isRadixSorted());
+		assertTrue(adaptive.forPark(line(DsaConfiguration.RADIX_REPORTS)).isRadixSorted());
+
+		// A large park
+		DsaConfiguration large = adaptive.forPark(line(DsaConfiguration.SEARCH_TABLE_DISTANCES + 1));
+		assertEquals(large.getMapType(), DataStructure.SKIPLIST);
+		assertTrue(large.getMap(null) instanceof SkipListMap);
+		assertEquals(large.getComparisonSorterType(), Algorithm.MERGESORT);
+		assertTrue(large.isRadixSorted());
+	}
+
+	/**
+	 * Tests that ADAPTIVE chooses from the Landmarks on trails, not every Landmark
+	 */
+	@Test
+	public void testAdaptiveDegrees() {
+		// 2000 Landmarks, only 10 of them on trails
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		for (int i = 0; i < 2000; i++) {
+			builder.addLandmark(new Landmark("L" + i, "Landmark " + i, "Location"));
+		}
+		for (int i = 1; i < 10; i++) {
+			builder.addTrail("L0", "L" + i, 100);
+		}
+		TrailGraph graph = builder.build();
+		DsaConfiguration sparse = DsaConfiguration.ADAPTIVE.forPark(graph);
+		assertEquals(sparse.getMapType(), DataStructure.SEARCHTABLE);
+		assertFalse(sparse.isRadixSorted());
+
+		// Now every Landmark is on a trail
+		for (int i = 10; i < 2000; i++) {
+			graph.addTrail("L0", "L" + i, 100);
+		}
+		DsaConfiguration dense = DsaConfiguration.ADAPTIVE.forPark(graph);
+		assertEquals(dense.getMapType(), DataStructure.SKIPLIST);
+		assertTrue(dense.isRadixSorted());
+		assertSame(DsaConfiguration.DEFAULT.forPark(graph), DsaConfiguration.DEFAULT);
+	}
+
+	/**
+	 * Builds a park of Landmarks joined in a line, so every Landmark is on a trail
+	 * @param size number of Landmarks
+	 * @return the park
+	 */
+	private TrailGraph line(int size) {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		for (int i = 0; i < size; i++) {
+			builder.addLandmark(new Landmark("L" + i, "Landmark " + i, "Location"));
+		}
+		for (int i = 1; i < size; i++) {
+			builder.addTrail("L" + (i - 1), "L" + i, 100);
+		}
+		return builder.build();
+	}
+}
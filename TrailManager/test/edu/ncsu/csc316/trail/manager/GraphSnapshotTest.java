@@ -0,0 +1,172 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for GraphSnapshot.java
+ * @author Ben Morris
+ */
+public class GraphSnapshotTest {
+	/** Landmark file path */
+	private static final String LANDMARK_PATH = "input/landmarks_sample.csv";
+	/** Trails file path */
+	private static final String TRAILS_PATH = "input/trails_sample.csv";
+	/** Directory the snapshots are written to */
+	private Path dir;
+
+	/**
+	 * Setup for tests. Creates a directory for the snapshots
+	 * @throws IOException if the directory can't be created
+	 */
+	@BeforeEach
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("snapshot");
+	}
+
+	/**
+	 * Tests that a graph read back from a snapshot matches the graph written
+	 * @throws IOException if the snapshot can't be written
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		TrailGraph graph = new TrailManager(LANDMARK_PATH, TRAILS_PATH).getTrailGraph();
+		long hash = GraphSnapshot.hashSources(LANDMARK_PATH, TRAILS_PATH);
+		Path path = dir.resolve("park.snapshot");
+		GraphSnapshot.write(graph, hash, path);
+
+		TrailGraph copy = GraphSnapshot.read(path, hash);
+		assertNotNull(copy);
+		assertEquals(copy.size(), graph.size());
+		assertEquals(copy.getTrailCount(), graph.getTrailCount());
+		assertEquals(copy.getMaxDegree(), graph.getMaxDegree());
+		assertEquals(copy.isForest(), graph.isForest());
+		for (int o = 0; o < graph.size(); o++) {
+			assertEquals(copy.getLandmark(o).getId(), graph.getLandmark(o).getId());
+			assertEquals(copy.getLandmark(o).getDescription(), graph.getLandmark(o).getDescription());
+			assertEquals(copy.getLandmark(o).getType(), graph.getLandmark(o).getType());
+			assertEquals(copy.getOrdinal(graph.getLandmark(o).getId()), o);
+			assertEquals(copy.edgeStart(o), graph.edgeStart(o));
+			assertEquals(copy.edgeEnd(o), graph.edgeEnd(o));
+		}
+		for (int e = 0; e < graph.getTrailCount() * 2; e++) {
+			assertEquals(copy.neighbor(e), graph.neighbor(e));
+			assertEquals(copy.length(e), graph.length(e));
+		}
+	}
+
+	/**
+	 * Tests that missing, stale and damaged snapshots are not loaded
+	 * @throws IOException if a snapshot can't be written
+	 */
+	@Test
+	public void testRejectedSnapshots() throws IOException {
+		TrailGraph graph = new TrailManager(LANDMARK_PATH, TRAILS_PATH).getTrailGraph();
+		long hash = GraphSnapshot.hashSources(LANDMARK_PATH, TRAILS_PATH);
+		Path path = dir.resolve("park.snapshot");
+		assertNull(GraphSnapshot.read(path, hash));
+
+		// Built from other files
+		GraphSnapshot.write(graph, hash, path);
+		assertNull(GraphSnapshot.read(path, hash + 1));
+		assertNotEquals(GraphSnapshot.hashSources(LANDMARK_PATH, "input/trails_sample2.csv"), hash);
+
+		// Truncated
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+		assertNull(GraphSnapshot.read(path, hash));
+
+		// One byte of the payload flipped
+		byte[] flipped = bytes.clone();
+		flipped[flipped.length / 2] ^= 1;
+		Files.write(path, flipped);
+		assertNull(GraphSnapshot.read(path, hash));
+
+		// Counts too large for the file, even with a checksum that matches them
+		for (int field = 0; field < 3; field++) {
+			ByteBuffer huge = ByteBuffer.wrap(bytes.clone());
+			huge.putInt(16 + 4 * field, Integer.MAX_VALUE);
+			Files.write(path, checksummed(huge.array()));
+			assertNull(GraphSnapshot.read(path, hash));
+			huge.putInt(16 + 4 * field, -1);
+			Files.write(path, checksummed(huge.array()));
+			assertNull(GraphSnapshot.read(path, hash));
+		}
+
+		// An edge to a Landmark that doesn't exist
+		ByteBuffer ordinal = ByteBuffer.wrap(bytes.clone());
+		int edges = 2 * graph.getTrailCount();
+		ordinal.putInt(bytes.length - 4 - 8 * edges, graph.size());
+		Files.write(path, checksummed(ordinal.array()));
+		assertNull(GraphSnapshot.read(path, hash));
+
+		// Rewritten with a good checksum, the same bytes load again
+		Files.write(path, checksummed(bytes.clone()));
+		assertEquals(GraphSnapshot.read(path, hash).getTrailCount(), graph.getTrailCount());
+	}
+
+	/**
+	 * Tests that a TrailManager with a damaged snapshot falls back to the files
+	 * @throws IOException if the files can't be copied
+	 */
+	@Test
+	public void testDamagedSnapshot() throws IOException {
+		String snapshot = dir.resolve("trails.snapshot").toString();
+		new TrailManager(LANDMARK_PATH, TRAILS_PATH, snapshot);
+		byte[] bytes = Files.readAllBytes(Paths.get(snapshot));
+		ByteBuffer.wrap(bytes).putInt(16, Integer.MAX_VALUE);
+		Files.write(Paths.get(snapshot), checksummed(bytes));
+
+		TrailManager damaged = new TrailManager(LANDMARK_PATH, TRAILS_PATH, snapshot);
+		assertFalse(damaged.isLoadedFromSnapshot());
+		assertEquals(damaged.getDistance("L01", "L08"), 11092);
+		assertTrue(new TrailManager(LANDMARK_PATH, TRAILS_PATH, snapshot).isLoadedFromSnapshot());
+	}
+
+	/**
+	 * Tests that a TrailManager writes a snapshot on the first load, uses it on the next,
+	 * and rebuilds it when the files change
+	 * @throws IOException if the files can't be copied
+	 */
+	@Test
+	public void testTrailManagerSnapshot() throws IOException {
+		Path landmarks = Files.copy(Paths.get(LANDMARK_PATH), dir.resolve("landmarks.csv"));
+		Path trails = Files.copy(Paths.get(TRAILS_PATH), dir.resolve("trails.csv"));
+		String snapshot = dir.resolve("trails.snapshot").toString();
+
+		TrailManager first = new TrailManager(landmarks.toString(), trails.toString(), snapshot);
+		assertFalse(first.isLoadedFromSnapshot());
+		assertTrue(Files.isRegularFile(Paths.get(snapshot)));
+
+		TrailManager second = new TrailManager(landmarks.toString(), trails.toString(), snapshot);
+		assertTrue(second.isLoadedFromSnapshot());
+		assertEquals(second.getDistance("L01", "L08"), first.getDistance("L01", "L08"));
+		assertEquals(second.getLandmarkByID("L11").getDescription(), "Campsite 1");
+
+		Files.write(trails, "LANDMARK_ID,LANDMARK_ID,DISTANCE\nL11,L12,99\n".getBytes());
+		second.reload();
+		assertFalse(second.isLoadedFromSnapshot());
+		assertEquals(second.getDistance("L11", "L12"), 99);
+	}
+
+	/**
+	 * Replaces the checksum at the end of a snapshot with one over its payload as it is now
+	 * @param bytes the snapshot
+	 * @return the same bytes
+	 */
+	private static byte[] checksummed(byte[] bytes) {
+		CRC32C checksum = new CRC32C();
+		checksum.update(bytes, 16, bytes.length - 20);
+		ByteBuffer.wrap(bytes).putInt(bytes.length - 4, (int) checksum.getValue());
+		return bytes;
+	}
+}
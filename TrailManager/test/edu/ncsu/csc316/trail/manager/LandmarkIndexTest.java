@@ -0,0 +1,92 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for LandmarkIndex.java
+ * @author Ben Morris
+ */
+public class LandmarkIndexTest {
+
+	/**
+	 * Tests put, get and remove on a few IDs
+	 */
+	@Test
+	public void testPutGetRemove() {
+		LandmarkIndex index = new LandmarkIndex(0);
+		assertEquals(index.size(), 0);
+		assertEquals(index.get("L01"), -1);
+		assertFalse(index.remove("L01"));
+
+		index.put("L01", 0);
+		index.put("L02", 1);
+		assertEquals(index.size(), 2);
+		assertEquals(index.get("L01"), 0);
+		assertEquals(index.get(new String("L02")), 1);
+		assertEquals(index.get("L03"), -1);
+
+		// Putting an ID again changes its ordinal
+		index.put("L01", 5);
+		assertEquals(index.size(), 2);
+		assertEquals(index.get("L01"), 5);
+
+		assertTrue(index.remove("L01"));
+		assertFalse(index.remove("L01"));
+		assertEquals(index.size(), 1);
+		assertEquals(index.get("L01"), -1);
+		assertEquals(index.get("L02"), 1);
+	}
+
+	/**
+	 * Tests IDs with the same hashCode, which share a probe run
+	 */
+	@Test
+	public void testCollisions() {
+		// "Aa" and "BB" have the same hashCode, so every mix of them does too
+		String[] ids = {"AaAa", "AaBB", "BBAa", "BBBB"};
+		LandmarkIndex index = new LandmarkIndex(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			index.put(ids[i], i);
+		}
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(index.get(ids[i]), i);
+		}
+
+		// Removing from the middle of the run must leave the rest reachable
+		assertTrue(index.remove("AaBB"));
+		assertEquals(index.get("AaAa"), 0);
+		assertEquals(index.get("AaBB"), -1);
+		assertEquals(index.get("BBAa"), 2);
+		assertEquals(index.get("BBBB"), 3);
+	}
+
+	/**
+	 * Tests random puts and removes, with growth, against a HashMap
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(316);
+		LandmarkIndex index = new LandmarkIndex(4);
+		HashMap<String, Integer> expected = new HashMap<String, Integer>();
+		for (int i = 0; i < 20000; i++) {
+			String id = "L" + random.nextInt(3000);
+			if (random.nextInt(3) == 0) {
+				assertEquals(index.remove(id), expected.remove(id) != null);
+			} else {
+				index.put(id, i);
+				expected.put(id, i);
+			}
+		}
+		assertEquals(index.size(), expected.size());
+		for (int i = 0; i < 3000; i++) {
+			String id = "L" + i;
+			Integer ordinal = expected.get(id);
+			assertEquals(index.get(id), ordinal == null ? -1 : ordinal);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for LongMinHeap.java
+ * @author Ben Morris
+ */
+public class LongMinHeapTest {
+
+	/**
+	 * Tests packing distances and ordinals into entries
+	 */
+	@Test
+	public void testPack() {
+		long entry = LongMinHeap.pack(5280, 12);
+		assertEquals(LongMinHeap.distance(entry), 5280);
+		assertEquals(LongMinHeap.ordinal(entry), 12);
+		assertTrue(LongMinHeap.pack(1, 99) < LongMinHeap.pack(2, 0));
+		assertTrue(LongMinHeap.pack(Integer.MAX_VALUE, 0) > LongMinHeap.pack(0, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Tests that entries are removed smallest first
+	 */
+	@Test
+	public void testRemoveMin() {
+		LongMinHeap heap = new LongMinHeap(1);
+		assertTrue(heap.isEmpty());
+		long[] entries = {50, 3, 17, 3, 99, 0, 42};
+		for (long entry : entries) {
+			heap.add(entry);
+		}
+		assertEquals(heap.size(), 7);
+		long[] sorted = {0, 3, 3, 17, 42, 50, 99};
+		for (long entry : sorted) {
+			assertEquals(heap.removeMin(), entry);
+		}
+		assertTrue(heap.isEmpty());
+		assertThrows(IllegalStateException.class, () -> heap.removeMin());
+	}
+}
@@ -0,0 +1,71 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for LongRadixSorter.java
+ * @author Ben Morris
+ */
+public class LongRadixSorterTest {
+
+	/**
+	 * Tests sorting small and empty arrays
+	 */
+	@Test
+	public void testSmall() {
+		long[] keys = {};
+		LongRadixSorter.sort(keys);
+		assertEquals(keys.length, 0);
+
+		keys = new long[] {5};
+		LongRadixSorter.sort(keys);
+		assertEquals(keys[0], 5);
+
+		keys = new long[] {3, 1, 2, 1, 0};
+		LongRadixSorter.sort(keys);
+		assertEquals(Arrays.toString(keys), "[0, 1, 1, 2, 3]");
+
+		// Equal keys need no passes
+		keys = new long[] {7, 7, 7};
+		LongRadixSorter.sort(keys);
+		assertEquals(Arrays.toString(keys), "[7, 7, 7]");
+	}
+
+	/**
+	 * Tests sorting only the front of an array
+	 */
+	@Test
+	public void testPrefix() {
+		long[] keys = {9, 4, 6, 1, 0};
+		LongRadixSorter.sort(keys, 3);
+		assertEquals(Arrays.toString(keys), "[4, 6, 9, 1, 0]");
+	}
+
+	/**
+	 * Tests random keys of distances and ranks against Arrays.sort
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(316);
+		for (int trial = 0; trial < 50; trial++) {
+			int n = random.nextInt(2000);
+			long[] keys = new long[n];
+			for (int i = 0; i < n; i++) {
+				// Distances of any size above ranks of up to 2^20, or any non-negative key
+				if (trial % 2 == 0)
+					keys[i] = ((long) random.nextInt(Integer.MAX_VALUE) << 32) | random.nextInt(1 << 20);
+				else
+					keys[i] = random.nextLong() & Long.MAX_VALUE;
+			}
+			long[] expected = keys.clone();
+			Arrays.sort(expected);
+			LongRadixSorter.sort(keys);
+			assertArrayEquals(expected, keys);
+		}
+	}
+}
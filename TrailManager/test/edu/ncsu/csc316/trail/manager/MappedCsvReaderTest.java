@@ -0,0 +1,194 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+import edu.ncsu.csc316.trail.manager.MappedCsvReader.TrailParser;
+
+/**
+ * Tests for MappedCsvReader.java
+ * @author Ben Morris
+ */
+public class MappedCsvReaderTest {
+	/** Landmark file path */
+	private static final String LANDMARK_PATH = "input/landmarks_sample.csv";
+	/** Trails file path */
+	private static final String TRAILS_PATH = "input/trails_sample.csv";
+
+	/**
+	 * Writes text to a temporary file
+	 * @param text contents of the file
+	 * @return path to the file
+	 * @throws IOException if the file can't be written
+	 */
+	private static Path write(String text) throws IOException {
+		Path path = Files.createTempFile("trails", ".csv");
+		path.toFile().deleteOnExit();
+		Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+
+	/**
+	 * Tests reading the sample file of Landmarks
+	 * @throws IOException if the file can't be read
+	 */
+	@Test
+	public void testReadLandmarks() throws IOException {
+		Landmark[] landmarks = MappedCsvReader.readLandmarks(LANDMARK_PATH);
+		assertEquals(landmarks.length, 13);
+		assertEquals(landmarks[0].getId(), "L01");
+		assertEquals(landmarks[0].getDescription(), "Park Entrance");
+		assertEquals(landmarks[0].getType(), "Location");
+		assertEquals(landmarks[12].getDescription(), "Hidden Campsite");
+	}
+
+	/**
+	 * Tests reading the sample file of Trails
+	 * @throws IOException if the file can't be read
+	 */
+	@Test
+	public void testReadTrails() throws IOException {
+		TrailRecords trails = MappedCsvReader.readTrails(TRAILS_PATH);
+		assertEquals(trails.size(), 10);
+		assertEquals(trails.getLandmarkOne(0), "L01");
+		assertEquals(trails.getLandmarkTwo(0), "L02");
+		assertEquals(trails.getLength(0), 3013);
+		assertEquals(trails.getLength(9), 1066);
+	}
+
+	/**
+	 * Tests Windows line breaks, blank lines, a missing final line break and UTF-8 text
+	 * @throws IOException if the file can't be read
+	 */
+	@Test
+	public void testLineFormats() throws IOException {
+		Path path = write("LANDMARK_ID,DESCRIPTION,TYPE\r\nL01,Caf\u00e9 Overlook,Overlook\r\n\r\nL02,Falls,Waterfall");
+		Landmark[] landmarks = MappedCsvReader.readLandmarks(path.toString());
+		assertEquals(landmarks.length, 2);
+		assertEquals(landmarks[0].getDescription(), "Caf\u00e9 Overlook");
+		assertEquals(landmarks[1].getType(), "Waterfall");
+
+		// A file with only a header has no records
+		path = write("LANDMARK_ID,LANDMARK_ID,DISTANCE");
+		assertEquals(MappedCsvReader.readTrails(path.toString()).size(), 0);
+	}
+
+	/**
+	 * Tests reading a file through windows much smaller than the file
+	 * @throws IOException if the file can't be read
+	 */
+	@Test
+	public void testWindows() throws IOException {
+		StringBuilder text = new StringBuilder("LANDMARK_ID,LANDMARK_ID,DISTANCE\n");
+		for (int i = 0; i < 500; i++) {
+			text.append("L").append(i).append(",L").append(i + 1).append(",").append(i * 7).append("\n");
+		}
+		Path path = write(text.toString());
+		TrailParser parser = new TrailParser();
+		MappedCsvReader.read(path.toString(), parser, 64);
+		TrailRecords trails = parser.getRecords();
+		assertEquals(trails.size(), 500);
+		for (int i = 0; i < 500; i++) {
+			assertEquals(trails.getLandmarkOne(i), "L" + i);
+			assertEquals(trails.getLength(i), i * 7);
+		}
+
+		// A line that doesn't fit in a window can't be read
+		assertThrows(IllegalArgumentException.class, () -> MappedCsvReader.read(path.toString(), new TrailParser(), 8));
+	}
+
+	/**
+	 * Tests files that can't be read
+	 * @throws IOException if a file can't be written
+	 */
+	@Test
+	public void testInvalidFiles() throws IOException {
+		assertThrows(FileNotFoundException.class, () -> MappedCsvReader.readTrails("input/missing.csv"));
+
+		String header = "LANDMARK_ID,LANDMARK_ID,DISTANCE\n";
+		Path badDistance = write(header + "L01,L02,12a\n");
+		assertThrows(IllegalArgumentException.class, () -> MappedCsvReader.readTrails(badDistance.toString()));
+		Path missingField = write(header + "L01,L02\n");
+		assertThrows(IllegalArgumentException.class, () -> MappedCsvReader.readTrails(missingField.toString()));
+		Path tooLong = write(header + "L01,L02,99999999999\n");
+		assertThrows(IllegalArgumentException.class, () -> MappedCsvReader.readTrails(tooLong.toString()));
+	}
+
+	/**
+	 * Tests splitting a file into chunks at line breaks and parsing them in parallel
+	 * @throws IOException if the file can't be read
+	 */
+	@Test
+	public void testParallelChunks() throws IOException {
+		StringBuilder text = new StringBuilder("LANDMARK_ID,LANDMARK_ID,DISTANCE\n");
+		for (int i = 0; i < 1000; i++) {
+			text.append("L").append(i).append(",L").append(i + 1).append(",").append(i).append("\n");
+		}
+		Path path = write(text.toString());
+
+		// Every chunk boundary falls just after a line break
+		byte[] bytes = Files.readAllBytes(path);
+		long[] bounds = MappedCsvReader.findChunks(path, 100);
+		assertEquals(bounds[0], 0);
+		assertEquals(bounds[bounds.length - 1], bytes.length);
+		for (int i = 1; i < bounds.length - 1; i++) {
+			assertEquals(bytes[(int) bounds[i] - 1], (byte) '\n');
+			assertTrue(bounds[i] > bounds[i - 1]);
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			TrailRecords[] chunks = MappedCsvReader.readTrails(path.toString(), pool, 100);
+			assertEquals(chunks.length, bounds.length - 1);
+			int i = 0;
+			for (TrailRecords chunk : chunks) {
+				for (int j = 0; j < chunk.size(); j++) {
+					assertEquals(chunk.getLandmarkOne(j), "L" + i);
+					assertEquals(chunk.getLength(j), i);
+					i++;
+				}
+			}
+			assertEquals(i, 1000);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Tests reading a directory of sharded files of Trails as one input
+	 * @throws IOException if the files can't be read
+	 */
+	@Test
+	public void testShardedDirectory() throws IOException {
+		Path dir = Files.createTempDirectory("trails");
+		String header = "LANDMARK_ID,LANDMARK_ID,DISTANCE\n";
+		Files.write(dir.resolve("part-2.csv"), (header + "L03,L04,30\n").getBytes(StandardCharsets.UTF_8));
+		Files.write(dir.resolve("part-1.csv"), (header + "L01,L02,10\nL02,L03,20\n").getBytes(StandardCharsets.UTF_8));
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			TrailRecords[] chunks = MappedCsvReader.readTrails(dir.toString(), pool);
+			assertEquals(chunks.length, 2);
+			assertEquals(chunks[0].size(), 2);
+			assertEquals(chunks[0].getLength(1), 20);
+			assertEquals(chunks[1].getLandmarkTwo(0), "L04");
+
+			assertThrows(FileNotFoundException.class, () -> MappedCsvReader.readTrails("input/missing", pool));
+			Path bad = Files.write(dir.resolve("part-3.csv"), (header + "L04,L05,x\n").getBytes(StandardCharsets.UTF_8));
+			assertNotNull(bad);
+			assertThrows(IllegalArgumentException.class, () -> MappedCsvReader.readTrails(dir.toString(), pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
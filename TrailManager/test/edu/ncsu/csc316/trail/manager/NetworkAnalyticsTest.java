@@ -0,0 +1,230 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Tests for NetworkAnalytics.java
+ * @author Ben Morris
+ */
+public class NetworkAnalyticsTest {
+
+	/**
+	 * Tests a tree, a loop with a tail and a Landmark with no trails
+	 */
+	@Test
+	public void testComponents() {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		for (int i = 0; i < 10; i++) {
+			builder.addLandmark(new Landmark("L" + i, "Landmark " + i, "Location"));
+		}
+		// A tree: L1 is the hub, with the longest route L2 to L4
+		builder.addTrail("L0", "L1", 10);
+		builder.addTrail("L1", "L2", 40);
+		builder.addTrail("L1", "L3", 30);
+		builder.addTrail("L3", "L4", 5);
+		// A loop of L5, L6 and L7 with a tail out to L8
+		builder.addTrail("L5", "L6", 10);
+		builder.addTrail("L6", "L7", 10);
+		builder.addTrail("L7", "L5", 30);
+		builder.addTrail("L7", "L8", 100);
+		TrailGraph graph = builder.build();
+		NetworkAnalytics analytics = new NetworkAnalytics(graph, new ComponentIndex(graph));
+
+		int tree = analytics.getComponents().component(0);
+		assertTrue(analytics.isTree(tree));
+		assertEquals(analytics.diameter(tree), 75);
+		assertArrayEquals(analytics.diameterEnds(tree), new int[] {2, 4});
+		assertEquals(analytics.eccentricity(0), 50);
+		assertEquals(analytics.eccentricity(1), 40);
+		assertEquals(analytics.farthest(1), 2);
+		assertEquals(analytics.eccentricity(4), 75);
+		assertEquals(analytics.radius(tree), 40);
+		assertArrayEquals(analytics.centers(tree), new int[] {1});
+
+		int loop = analytics.getComponents().component(5);
+		assertFalse(analytics.isTree(loop));
+		assertEquals(analytics.diameter(loop), 120);
+		assertEquals(analytics.eccentricity(5), 120);
+		assertEquals(analytics.farthest(5), 8);
+		assertEquals(analytics.eccentricity(7), 100);
+		assertArrayEquals(analytics.centers(loop), new int[] {7});
+
+		int alone = analytics.getComponents().component(9);
+		assertTrue(analytics.isTree(alone));
+		assertEquals(analytics.diameter(alone), 0);
+		assertArrayEquals(analytics.diameterEnds(alone), new int[] {9, 9});
+		assertArrayEquals(analytics.centers(alone), new int[] {9});
+
+		assertEquals(analytics.longestComponent(), loop);
+		assertEquals(analytics.largestComponent(), tree);
+	}
+
+	/**
+	 * Tests random parks, with and without loops, against a search from every Landmark
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(316);
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		try {
+			for (int round = 0; round < 40; round++) {
+				int size = 1 + random.nextInt(60);
+				TrailGraph.Builder builder = new TrailGraph.Builder();
+				for (int i = 0; i < size; i++) {
+					builder.addLandmark(new Landmark("L" + i, "Landmark " + i, "Location"));
+				}
+				// A random forest, then a few extra trails in half the rounds
+				for (int i = 1; i < size; i++) {
+					if (random.nextInt(5) > 0)
+						builder.addTrail("L" + i, "L" + random.nextInt(i), random.nextInt(1000));
+				}
+				if (round % 2 == 1) {
+					for (int i = 0; i < size / 4; i++) {
+						builder.addTrail("L" + random.nextInt(size), "L" + random.nextInt(size), random.nextInt(1000));
+					}
+				}
+				TrailGraph graph = builder.build();
+				ComponentIndex components = new ComponentIndex(graph);
+				NetworkAnalytics analytics = new NetworkAnalytics(graph, components, new TrailMetrics(), pool);
+
+				int[] diameters = new int[components.count()];
+				for (int o = 0; o < size; o++) {
+					int[] distances = new DistanceEngine(graph).getDistances(o);
+					int eccentricity = 0;
+					for (int d : distances) {
+						eccentricity = Math.max(eccentricity, d);
+					}
+					assertEquals(analytics.eccentricity(o), eccentricity);
+					assertEquals(distances[analytics.farthest(o)], eccentricity);
+					int component = components.component(o);
+					diameters[component] = Math.max(diameters[component], eccentricity);
+				}
+				for (int c = 0; c < components.count(); c++) {
+					assertEquals(analytics.diameter(c), diameters[c]);
+					int[] ends = analytics.diameterEnds(c);
+					assertEquals(new DistanceEngine(graph).getDistances(ends[0])[ends[1]], diameters[c]);
+					for (int center : analytics.centers(c)) {
+						assertEquals(analytics.eccentricity(center), analytics.radius(c));
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Tests the analytics of the sample park, and that they follow updates
+	 * @throws FileNotFoundException if the files aren't found
+	 */
+	@Test
+	public void testTrailManager() throws FileNotFoundException {
+		TrailManager tm = new TrailManager("input/landmarks_sample.csv", "input/trails_sample.csv");
+		assertEquals(tm.getEccentricity("L13"), 0);
+		assertEquals(tm.getEccentricity("L99"), DistanceEngine.UNREACHABLE);
+		assertEquals(tm.getEccentricity("L11"), 1066);
+		assertEquals(tm.getEccentricity("L01"), 11092);
+		assertEquals(tm.getDiameter(), 17718);
+		Landmark[] centers = tm.getCenters();
+		assertEquals(centers.length, 1);
+		assertEquals(centers[0].getId(), "L03");
+
+		// A trail to the Landmark with no trails joins it to the island, until it is removed
+		assertTrue(tm.addTrail("L13", "L12", 500));
+		assertEquals(tm.getEccentricity("L13"), 1566);
+		assertTrue(tm.removeTrail("L13", "L12", 500));
+		assertEquals(tm.getEccentricity("L13"), 0);
+		assertEquals(tm.getDiameter(), 17718);
+	}
+
+	/**
+	 * Tests that updates and queries carry on while a version of the park is measured,
+	 * and that the measurement describes the version it started on
+	 * @throws IOException if the park can't be written
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws ExecutionException if the measurement fails
+	 * @throws TimeoutException if an update or query waits for the measurement
+	 */
+	@Test
+	public void testUpdateWhileMeasuring() throws IOException, InterruptedException, ExecutionException,
+			TimeoutException {
+		// A 40 by 40 grid of 10 foot trails has loops everywhere, so every Landmark is searched
+		int side = 40;
+		Path directory = Files.createTempDirectory("trail-analytics");
+		Path landmarks = directory.resolve("landmarks.csv");
+		Path trails = directory.resolve("trails.csv");
+		StringBuilder landmarkLines = new StringBuilder("LANDMARK_ID,DESCRIPTION,TYPE\n");
+		StringBuilder trailLines = new StringBuilder("LANDMARK_ID,LANDMARK_ID,DISTANCE\n");
+		for (int i = 0; i < side * side; i++) {
+			landmarkLines.append('G').append(i).append(",Grid Marker ").append(i).append(",Location\n");
+			if (i % side > 0)
+				trailLines.append('G').append(i - 1).append(",G").append(i).append(",10\n");
+			if (i >= side)
+				trailLines.append('G').append(i - side).append(",G").append(i).append(",10\n");
+		}
+		Files.write(landmarks, landmarkLines.toString().getBytes(StandardCharsets.UTF_8));
+		Files.write(trails, trailLines.toString().getBytes(StandardCharsets.UTF_8));
+
+		ExecutorService measurer = Executors.newSingleThreadExecutor();
+		ExecutorService updater = Executors.newSingleThreadExecutor();
+		try {
+			final TrailManager tm = new TrailManager(landmarks.toString(), trails.toString());
+			final TrailNetwork before = tm.getNetwork();
+			Future<Integer> diameter = measurer.submit(() -> before.getAnalytics().diameter(0));
+
+			// A shortcut between opposite corners, published while the old park is measured
+			Future<Integer> shortcut = updater.submit(() -> {
+				assertTrue(tm.addTrail("G0", "G" + (side * side - 1), 1));
+				return tm.getDistance("G0", "G" + (side * side - 1));
+			});
+			assertEquals((int) shortcut.get(10, TimeUnit.SECONDS), 1);
+
+			// The old version is measured without the shortcut, the new one with it
+			assertEquals((int) diameter.get(), (side - 1) * 2 * 10);
+			assertEquals(before.getAnalytics().eccentricity(0), (side - 1) * 2 * 10);
+			assertTrue(tm.getEccentricity("G0") < diameter.get());
+		} finally {
+			measurer.shutdown();
+			updater.shutdown();
+			Files.delete(landmarks);
+			Files.delete(trails);
+			Files.delete(directory);
+		}
+	}
+
+	/**
+	 * Tests the farthest landmark and network reports
+	 * @throws FileNotFoundException if the files aren't found
+	 */
+	@Test
+	public void testReports() throws FileNotFoundException {
+		ReportManager rm = new ReportManager("input/landmarks_sample.csv", "input/trails_sample.csv");
+		assertEquals(rm.getFarthestReport("L99"), "The provided landmark ID (L99) is invalid for the park.");
+		assertEquals(rm.getFarthestReport("L13"), "No landmarks are reachable from Hidden Campsite (L13).");
+		assertEquals(rm.getFarthestReport("L11"),
+				"The farthest landmark from Campsite 1 (L11) is Campsite Restrooms (L12), 1066 feet away.");
+		assertEquals(rm.getFarthestReport("L01"), "The farthest landmark from Park Entrance (L01) is "
+				+ "Overlook Restrooms (L08), 11092 feet (2.10 miles) away.");
+		assertEquals(rm.getNetworkReport(), "Trail Network {\n"
+				+ "   Longest route: 17718 feet (3.36 miles) from Overlook Restrooms (L08) to Hidden Gardens (L10)\n"
+				+ "   Center: Waste Station 1 (L03), at most 10046 feet (1.90 miles) from any of 10 connected landmarks\n"
+				+ "}\n");
+	}
+}
@@ -3,11 +3,33 @@ package edu.ncsu.csc316.trail.manager;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import edu.ncsu.csc316.trail.data.Landmark;
+import edu.ncsu.csc316.trail.dsa.Algorithm;
+import edu.ncsu.csc316.trail.dsa.DataStructure;
 import edu.ncsu.csc316.trail.manager.ReportManager.IDComparator;
 import edu.ncsu.csc316.trail.manager.ReportManager.IntersectionListEntry;
 import edu.ncsu.csc316.trail.manager.ReportManager.IntersectionListEntryComparator;
@@ -87,6 +109,31 @@ public class ReportManagerTest {
 		}
 	}
 
+	/**
+	 * Tests ReportManager.getTopFirstAidLocations()
+	 * @throws FileNotFoundException if one of the files isn't found
+	 */
+	@Test
+	public void testGetTopFirstAidLocations() throws FileNotFoundException {
+		// The best location is the one with the most trails
+		assertEquals(rm.getTopFirstAidLocations(1, 1), THREE_INTERSECTIONS);
+		assertEquals(rm.getTopFirstAidLocations(5, 3), THREE_INTERSECTIONS);
+
+		// Enough room for every location gives the full report
+		String full = rm.getProposedFirstAidLocations(2);
+		assertEquals(rm.getTopFirstAidLocations(100, 2), full);
+
+		// Fewer locations are the front of the full report
+		String top = rm.getTopFirstAidLocations(2, 2);
+		assertEquals(top.split("\n").length, 4);
+		assertTrue(full.startsWith(top.substring(0, top.length() - 2)));
+
+		// Invalid choices
+		assertEquals(rm.getTopFirstAidLocations(5, 4), NO_INTERSECTIONS);
+		assertEquals(rm.getTopFirstAidLocations(5, 0), "Number of intersecting trails must be greater than 0.");
+		assertEquals(rm.getTopFirstAidLocations(0, 1), "Number of locations must be greater than 0.");
+	}
+
 	/**
 	 * Tests ReportManager.getDistanceReport()
 	 */
@@ -105,6 +152,341 @@ public class ReportManagerTest {
 		assertEquals(rm.getDistancesReport("XYZ"), XYZ_REPORT);
 	}
 	
+	/**
+	 * Tests that the streamed reports match the String reports
+	 * @throws IOException if a report can't be written
+	 */
+	@Test
+	public void testWriteReports() throws IOException {
+		// Distance reports, before and after they are cached
+		String[] origins = {"L11", "L01", "L13", "XYZ", "L01"};
+		for (String origin : origins) {
+			StringWriter out = new StringWriter();
+			rm.writeDistancesReport(origin, out);
+			assertEquals(out.toString(), rm.getDistancesReport(origin));
+		}
+		StringWriter out = new StringWriter();
+		rm.writeDistancesReport("L01", out);
+		assertEquals(out.toString(), L01_REPORT);
+
+		// First aid reports
+		for (int minTrails = 0; minTrails <= 4; minTrails++) {
+			out = new StringWriter();
+			rm.writeProposedFirstAidLocations(minTrails, out);
+			assertEquals(out.toString(), rm.getProposedFirstAidLocations(minTrails));
+
+			out = new StringWriter();
+			rm.writeTopFirstAidLocations(2, minTrails, out);
+			assertEquals(out.toString(), rm.getTopFirstAidLocations(2, minTrails));
+		}
+		out = new StringWriter();
+		rm.writeTopFirstAidLocations(0, 1, out);
+		assertEquals(out.toString(), rm.getTopFirstAidLocations(0, 1));
+	}
+
+	/**
+	 * Tests that miles are formatted the same as String.format("%.2f")
+	 */
+	@Test
+	public void testAppendMiles() {
+		StringBuilder miles = new StringBuilder();
+		for (int feet = 0; feet < 3000000; feet += 7) {
+			miles.setLength(0);
+			ReportManager.appendMiles(miles, feet);
+			assertEquals(miles.toString(), String.format(Locale.US, "%.2f", feet / 5280.));
+		}
+
+		// Exactly half a hundredth of a mile rounds up
+		miles.setLength(0);
+		ReportManager.appendMiles(miles, 5412);
+		assertEquals(miles.toString(), "1.03");
+		miles.setLength(0);
+		ReportManager.appendMiles(miles, Integer.MAX_VALUE);
+		assertEquals(miles.toString(), String.format(Locale.US, "%.2f", Integer.MAX_VALUE / 5280.));
+	}
+
+	/**
+	 * Tests ReportManager.getDistance()
+	 */
+	@Test
+	public void testGetDistance() {
+		// Test Landmarks more than a mile apart
+		assertEquals(rm.getDistance("L01", "L08"),
+				"11092 feet (2.10 miles) from Park Entrance (L01) to Overlook Restrooms (L08).");
+		
+		// Test Landmarks less than a mile apart, in either direction
+		assertEquals(rm.getDistance("L09", "L04"),
+				"2311 feet from Waste Station 2 (L09) to Entrance Restrooms (L04).");
+		assertEquals(rm.getDistance("L10", "L08"),
+				"17718 feet (3.36 miles) from Hidden Gardens (L10) to Overlook Restrooms (L08).");
+		
+		// Test Landmarks with no route between them
+		assertEquals(rm.getDistance("L11", "L01"),
+				"Park Entrance (L01) is not reachable from Campsite 1 (L11).");
+		
+		// Test Landmarks that don't exist
+		assertEquals(rm.getDistance("XYZ", "L01"), XYZ_REPORT);
+		assertEquals(rm.getDistance("L01", "XYZ"), XYZ_REPORT);
+	}
+	
+	/**
+	 * Tests that distance reports are cached until the data is reloaded
+	 * @throws IOException if the sample files can't be copied
+	 */
+	@Test
+	public void testDistanceReportCache() throws IOException {
+		DistanceReportCache cache = rm.getDistanceCache();
+		assertEquals(rm.getDistancesReport("L01"), L01_REPORT);
+		assertEquals(rm.getDistancesReport("L01"), L01_REPORT);
+		assertEquals(cache.getMisses(), 1);
+		assertEquals(cache.getHits(), 1);
+		assertEquals(rm.getSortedDistances("L01").length, 9);
+		
+		// Invalid origins are not cached
+		assertEquals(rm.getDistancesReport("XYZ"), XYZ_REPORT);
+		assertEquals(cache.size(), 1);
+		
+		// Reloading changed files drops the cached reports
+		Path dir = Files.createTempDirectory("trails");
+		Path landmarks = Files.copy(Paths.get(LANDMARK_PATH), dir.resolve("landmarks.csv"));
+		Path trails = Files.copy(Paths.get(TRAILS_PATH), dir.resolve("trails.csv"));
+		ReportManager copy = new ReportManager(landmarks.toString(), trails.toString());
+		assertEquals(copy.getDistancesReport("L11"), L11_REPORT);
+		Files.write(trails, "LANDMARK_ID,LANDMARK_ID,DISTANCE\nL11,L12,99\n".getBytes());
+		copy.reload();
+		assertEquals(copy.getDistancesReport("L11"), "Landmarks Reachable from Campsite 1 (L11) {\n"
+				+ "   99 feet to Campsite Restrooms (L12)\n}\n");
+		assertEquals(copy.getDistanceCache().getHits(), 0);
+	}
+	
+	/**
+	 * Tests that a streamed report caches its distances for the String report and later
+	 * streams
+	 * @throws IOException if a report can't be written
+	 */
+	@Test
+	public void testStreamedReportCache() throws IOException {
+		DistanceReportCache cache = rm.getDistanceCache();
+		StringWriter out = new StringWriter();
+		rm.writeDistancesReport("L01", out);
+		assertEquals(out.toString(), L01_REPORT);
+		assertEquals(cache.getMisses(), 1);
+		assertEquals(cache.size(), 1);
+		assertEquals(rm.getSortedDistances("L01").length, 9);
+
+		// The String report reuses the distances, then later streams reuse the text
+		assertEquals(rm.getDistancesReport("L01"), L01_REPORT);
+		out = new StringWriter();
+		rm.writeDistancesReport("L01", out);
+		assertEquals(out.toString(), L01_REPORT);
+		assertEquals(cache.getMisses(), 1);
+		assertEquals(cache.getHits(), 3);
+
+		// A report written from a pinned version still comes from that version
+		TrailNetwork before = rm.getTrailManager().getNetwork();
+		assertTrue(rm.getTrailManager().removeTrail("L11", "L12", 1066));
+		out = new StringWriter();
+		rm.writeDistancesReport(before, "L11", out);
+		assertEquals(out.toString(), L11_REPORT);
+		assertEquals(rm.getDistancesReport("L11"), "No landmarks are reachable from Campsite 1 (L11).");
+	}
+
+	/**
+	 * Tests getDistancesReports() returns the reports in the order asked for
+	 */
+	@Test
+	public void testGetDistancesReports() {
+		List<String> origins = Arrays.asList("L11", "XYZ", "L01", "L13", "L11");
+		List<String> reports = rm.getDistancesReports(origins);
+		assertEquals(reports, Arrays.asList(L11_REPORT, XYZ_REPORT, L01_REPORT, L13_REPORT, L11_REPORT));
+		
+		// Same reports on a pool of one thread, and for no origins at all
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			assertEquals(rm.getDistancesReports(origins, pool), reports);
+		} finally {
+			pool.shutdown();
+		}
+		assertTrue(rm.getDistancesReports(new ArrayList<String>()).isEmpty());
+	}
+	
+	/**
+	 * Tests that a batch keeps to the park it started with and doesn't hold off updates
+	 * @throws Exception if the batch or the update fails
+	 */
+	@Test
+	public void testGetDistancesReportsDuringUpdate() throws Exception {
+		// A pool of one thread, kept busy until the update is done
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>());
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			pool.submit(() -> {
+				release.await();
+				return null;
+			});
+			Future<List<String>> batch = callers.submit(() -> rm.getDistancesReports(Arrays.asList("L11"), pool));
+			while (pool.getQueue().isEmpty()) {
+				Thread.sleep(1);
+			}
+
+			// The batch has its park and is waiting for the pool, and the update still finishes
+			Future<Boolean> update = callers.submit(() -> rm.removeTrail("L11", "L12", 1066));
+			assertTrue(update.get(10, TimeUnit.SECONDS));
+			release.countDown();
+			assertEquals(batch.get(10, TimeUnit.SECONDS), Arrays.asList(L11_REPORT));
+			assertEquals(rm.getDistancesReport("L11"), "No landmarks are reachable from Campsite 1 (L11).");
+		} finally {
+			release.countDown();
+			pool.shutdown();
+			callers.shutdown();
+		}
+	}
+	
+	/**
+	 * Tests that two parks served from one JVM keep their own data
+	 * @throws FileNotFoundException if a file isn't found
+	 */
+	@Test
+	public void testTwoParks() throws FileNotFoundException {
+		ReportManager other = new ReportManager("input/landmarks_sample2.csv", "input/trails_sample2.csv", null,
+				new DsaConfiguration(DataStructure.SEARCHTABLE, Algorithm.QUICKSORT, false),
+				ReportManager.DEFAULT_CACHE_ENTRIES, ReportManager.DEFAULT_CACHE_BYTES);
+		assertNotSame(other.getTrailManager(), rm.getTrailManager());
+		assertEquals(rm.getDistancesReport("L01"), L01_REPORT);
+		assertEquals(rm.getConfiguration(), DsaConfiguration.DEFAULT);
+		assertEquals(other.getConfiguration().getMapType(), DataStructure.SEARCHTABLE);
+		assertEquals(other.getTrailManager().getTrailGraph().size(), 31);
+		assertEquals(rm.getTrailManager().getTrailGraph().size(), 13);
+	}
+	
+	/**
+	 * Tests that an adaptive park reports the choice it made, and that pinning the choice
+	 * gives the same reports
+	 * @throws FileNotFoundException if a file isn't found
+	 */
+	@Test
+	public void testAdaptiveConfiguration() throws FileNotFoundException {
+		ReportManager adaptive = new ReportManager(LANDMARK_PATH, TRAILS_PATH, null, DsaConfiguration.ADAPTIVE,
+				ReportManager.DEFAULT_CACHE_ENTRIES, ReportManager.DEFAULT_CACHE_BYTES);
+		assertSame(adaptive.getConfiguration(), DsaConfiguration.ADAPTIVE);
+		DsaConfiguration chosen = adaptive.getActiveConfiguration();
+		assertFalse(chosen.isAdaptive());
+		assertEquals(chosen.getMapType(), DataStructure.SEARCHTABLE);
+		assertEquals(chosen.getComparisonSorterType(), Algorithm.MERGESORT);
+		assertFalse(chosen.isRadixSorted());
+		assertEquals(adaptive.getDistancesReport("L01"), L01_REPORT);
+		assertEquals(adaptive.getProposedFirstAidLocations(3), THREE_INTERSECTIONS);
+
+		// Pin the choice
+		ReportManager pinned = new ReportManager(LANDMARK_PATH, TRAILS_PATH, null, chosen,
+				ReportManager.DEFAULT_CACHE_ENTRIES, ReportManager.DEFAULT_CACHE_BYTES);
+		assertSame(pinned.getActiveConfiguration(), chosen);
+		assertEquals(pinned.getDistancesReport("L01"), L01_REPORT);
+		assertSame(rm.getActiveConfiguration(), DsaConfiguration.DEFAULT);
+	}
+
+	/**
+	 * Tests that radix sorting the distances on rank keys gives the same reports as the
+	 * comparison sorter
+	 * @throws FileNotFoundException if a file isn't found
+	 */
+	@Test
+	public void testRadixSortedDistances() throws FileNotFoundException {
+		ReportManager radix = new ReportManager("input/landmarks_sample2.csv", "input/trails_sample2.csv", null,
+				0, 0);
+		ReportManager comparison = new ReportManager("input/landmarks_sample2.csv", "input/trails_sample2.csv",
+				null, new DsaConfiguration(DataStructure.SKIPLIST, Algorithm.MERGESORT, false), 0, 0);
+		assertTrue(radix.getConfiguration().isRadixSorted());
+
+		for (int i = 1; i <= 31; i++) {
+			String origin = i < 10 ? "L0" + i : "L" + i;
+			assertEquals(radix.getDistancesReport(origin), comparison.getDistancesReport(origin));
+		}
+
+		// The sample park has Landmarks a mile or more apart
+		assertEquals(radix.getDistancesReport("L01"), comparison.getDistancesReport("L01"));
+		assertEquals(rm.getDistancesReport("L01"), L01_REPORT);
+	}
+
+	/**
+	 * Stress test: many threads create reports from two parks at once, while one park is
+	 * reloaded over and over, and every report matches the one created on a single thread
+	 * @throws Exception if a file isn't found or a thread fails
+	 */
+	@Test
+	public void testConcurrentReports() throws Exception {
+		final ReportManager[] parks = {rm, new ReportManager("input/landmarks_sample2.csv",
+				"input/trails_sample2.csv", null, 8, ReportManager.DEFAULT_CACHE_BYTES)};
+		
+		// Expected reports from one thread, by park then query
+		final int queries = 35;
+		final String[][] expected = new String[2][queries];
+		for (int p = 0; p < 2; p++) {
+			for (int q = 0; q < queries; q++) {
+				expected[p][q] = query(parks[p], q);
+			}
+		}
+		
+		final int threads = 8;
+		final AtomicInteger failures = new AtomicInteger();
+		final AtomicBoolean done = new AtomicBoolean();
+		ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+		try {
+			// Swap in a freshly loaded copy of the first park again and again
+			Future<?> reloader = pool.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					while (!done.get()) {
+						parks[0].reload();
+					}
+					return null;
+				}
+			});
+			List<Future<?>> workers = new ArrayList<Future<?>>();
+			for (int t = 0; t < threads; t++) {
+				final int seed = t;
+				workers.add(pool.submit(new Runnable() {
+					@Override
+					public void run() {
+						Random random = new Random(seed);
+						for (int i = 0; i < 2000; i++) {
+							int p = random.nextInt(2);
+							int q = random.nextInt(queries);
+							if (!expected[p][q].equals(query(parks[p], q)))
+								failures.incrementAndGet();
+						}
+					}
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+			done.set(true);
+			reloader.get();
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(failures.get(), 0);
+	}
+	
+	/**
+	 * Runs one of the queries used by the stress test
+	 * @param manager ReportManager to query
+	 * @param query query number. Landmark IDs for distance reports, then first aid reports
+	 * @return the report
+	 */
+	private static String query(ReportManager manager, int query) {
+		if (query < 31)
+			return manager.getDistancesReport(String.format("L%02d", query + 1));
+		try {
+			return manager.getProposedFirstAidLocations(query - 30);
+		} catch (FileNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
 	/**
 	 * Tests idComparitor()
 	 */
@@ -129,6 +511,20 @@ public class ReportManagerTest {
 		assertEquals(entry.getLandmark().getId(), "L100");
 		assertEquals(entry.getDistance(), 1234);
 		assertEquals(entry.compareTo(entry), 0);
+		
+		// Ties on distance are broken by description, then ID
+		DistanceListEntry entry2 = new DistanceListEntry(new Landmark("L099", "Parking Lot", "Parking Lot"), 1234);
+		DistanceListEntry entry3 = new DistanceListEntry(new Landmark("L101", "Overlook", "Overlook"), 1234);
+		assertTrue(entry.compareTo(entry2) > 0);
+		assertTrue(entry3.compareTo(entry2) < 0);
+		assertTrue(entry3.compareTo(new DistanceListEntry(landmark, 1233)) > 0);
+		
+		// With ranks known, the ranks break the tie
+		entry = new DistanceListEntry(landmark, 1234, 2);
+		entry2 = new DistanceListEntry(landmark, 1234, 1);
+		assertTrue(entry.compareTo(entry2) > 0);
+		assertTrue(entry2.compareTo(entry) < 0);
+		assertTrue(entry.compareTo(new DistanceListEntry(landmark, 1235, 0)) < 0);
 	}
 	
 	/**
@@ -156,5 +552,4 @@ public class ReportManagerTest {
 		IntersectionListEntryComparator compare = new IntersectionListEntryComparator();
 		assertTrue(compare.compare(entry, entry2) < 0);
 	}
-
 }
@@ -0,0 +1,95 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for SourceWatcher.java
+ * @author Ben Morris
+ */
+public class SourceWatcherTest {
+	/** Longest time to wait for a reload */
+	private static final long TIMEOUT_MILLIS = 10000;
+	/** Copy of the Landmark file */
+	private Path landmarks;
+	/** Copy of the Trails file */
+	private Path trails;
+
+	/**
+	 * Setup for tests. Copies the sample files so they can be changed
+	 * @throws IOException if the files can't be copied
+	 */
+	@BeforeEach
+	public void setup() throws IOException {
+		Path dir = Files.createTempDirectory("watch");
+		landmarks = Files.copy(Paths.get("input/landmarks_sample.csv"), dir.resolve("landmarks.csv"));
+		trails = Files.copy(Paths.get("input/trails_sample.csv"), dir.resolve("trails.csv"));
+	}
+
+	/**
+	 * Tests that a changed file is reloaded in the background while the old park keeps
+	 * answering queries that started before the swap
+	 * @throws Exception if the files can't be changed or the wait is interrupted
+	 */
+	@Test
+	public void testReloadOnChange() throws Exception {
+		TrailManager tm = new TrailManager(landmarks.toString(), trails.toString());
+		TrailNetwork before = tm.getNetwork();
+		try (SourceWatcher watcher = tm.watchSources()) {
+			Files.write(trails, "LANDMARK_ID,LANDMARK_ID,DISTANCE\nL11,L12,99\n".getBytes());
+			assertTrue(waitFor(watcher, 1));
+			assertEquals(watcher.getFailedReloadCount(), 0);
+		}
+		assertNotSame(tm.getNetwork(), before);
+		assertTrue(tm.getVersion() > before.getVersion());
+		assertEquals(tm.getDistance("L11", "L12"), 99);
+		assertEquals(tm.getDistance("L01", "L02"), DistanceEngine.UNREACHABLE);
+
+		// The old network is untouched by the reload
+		assertEquals(before.getDistance("L11", "L12"), 1066);
+		assertEquals(before.getDistance("L01", "L02"), 3013);
+	}
+
+	/**
+	 * Tests that files that can't be read leave the old park in place
+	 * @throws Exception if the files can't be changed or the wait is interrupted
+	 */
+	@Test
+	public void testFailedReload() throws Exception {
+		TrailManager tm = new TrailManager(landmarks.toString(), trails.toString());
+		long version = tm.getVersion();
+		try (SourceWatcher watcher = tm.watchSources()) {
+			Files.write(trails, "LANDMARK_ID,LANDMARK_ID,DISTANCE\nL11,L12,not a number\n".getBytes());
+			long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+			while (watcher.getFailedReloadCount() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			assertTrue(watcher.getFailedReloadCount() > 0);
+			assertEquals(watcher.getReloadCount(), 0);
+		}
+		assertEquals(tm.getVersion(), version);
+		assertEquals(tm.getDistance("L01", "L02"), 3013);
+	}
+
+	/**
+	 * Waits for the watcher to reach a number of reloads
+	 * @param watcher watcher to wait for
+	 * @param reloads number of reloads to wait for
+	 * @return true if the reloads happened before the timeout
+	 * @throws InterruptedException if the wait is interrupted
+	 */
+	private static boolean waitFor(SourceWatcher watcher, long reloads) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (watcher.getReloadCount() < reloads && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		return watcher.getReloadCount() >= reloads;
+	}
+}
@@ -0,0 +1,133 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Tests for StationCoverage.java
+ * @author Ben Morris
+ */
+public class StationCoverageTest {
+
+	/**
+	 * Tests a line of Landmarks with a station at each end, a tie and an island
+	 */
+	@Test
+	public void testCoverage() {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		for (int i = 0; i < 7; i++) {
+			builder.addLandmark(new Landmark("L" + i, "Landmark " + i, "Location"));
+		}
+		// L0 - L1 - L2 - L3 - L4, with L2 halfway between L0 and L4
+		builder.addTrail("L0", "L1", 100);
+		builder.addTrail("L1", "L2", 100);
+		builder.addTrail("L2", "L3", 150);
+		builder.addTrail("L3", "L4", 50);
+		builder.addTrail("L5", "L6", 10);
+		TrailGraph graph = builder.build();
+
+		StationCoverage coverage = new StationCoverage(graph, new DistanceEngine(graph), new int[] {4, 0, 4});
+		assertArrayEquals(coverage.getStations(), new int[] {4, 0});
+		assertEquals(coverage.nearestStation(1), 0);
+		assertEquals(coverage.distance(1), 100);
+		assertEquals(coverage.nearestStation(3), 4);
+		assertEquals(coverage.distance(3), 50);
+		// L2 is 200 feet from both, so the lower station wins
+		assertEquals(coverage.nearestStation(2), 0);
+		assertEquals(coverage.distance(2), 200);
+		assertEquals(coverage.nearestStation(5), DistanceEngine.UNREACHABLE);
+		assertEquals(coverage.distance(6), DistanceEngine.UNREACHABLE);
+
+		assertEquals(coverage.served(0), 1);
+		assertEquals(coverage.reach(0), 50);
+		assertEquals(coverage.served(1), 2);
+		assertEquals(coverage.reach(1), 200);
+		assertEquals(coverage.worst(), 2);
+		assertEquals(coverage.worstDistance(), 200);
+		assertEquals(coverage.uncovered(), 2);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new StationCoverage(graph, new DistanceEngine(graph), new int[0]));
+	}
+
+	/**
+	 * Tests random parks against a search from each station
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(316);
+		for (int round = 0; round < 40; round++) {
+			int size = 1 + random.nextInt(80);
+			TrailGraph.Builder builder = new TrailGraph.Builder();
+			for (int i = 0; i < size; i++) {
+				builder.addLandmark(new Landmark("L" + i, "Landmark " + i, "Location"));
+			}
+			for (int i = 0; i < size + size / 2; i++) {
+				if (random.nextInt(4) > 0)
+					builder.addTrail("L" + random.nextInt(size), "L" + random.nextInt(size), random.nextInt(20));
+			}
+			TrailGraph graph = builder.build();
+			DistanceEngine engine = new DistanceEngine(graph);
+			int[] stations = new int[1 + random.nextInt(5)];
+			for (int i = 0; i < stations.length; i++) {
+				stations[i] = random.nextInt(size);
+			}
+			StationCoverage coverage = new StationCoverage(graph, engine, stations);
+
+			// The nearest station of each Landmark is the lowest of the closest
+			int[][] fromStation = new int[size][];
+			for (int station : stations) {
+				fromStation[station] = engine.getDistances(station);
+			}
+			for (int o = 0; o < size; o++) {
+				int best = DistanceEngine.UNREACHABLE;
+				int bestStation = DistanceEngine.UNREACHABLE;
+				for (int station = 0; station < size; station++) {
+					int d = fromStation[station] == null ? DistanceEngine.UNREACHABLE : fromStation[station][o];
+					if (d != DistanceEngine.UNREACHABLE && (best == DistanceEngine.UNREACHABLE || d < best)) {
+						best = d;
+						bestStation = station;
+					}
+				}
+				assertEquals(coverage.distance(o), best);
+				assertEquals(coverage.nearestStation(o), bestStation);
+			}
+		}
+	}
+
+	/**
+	 * Tests coverage of the sample park and its report
+	 * @throws FileNotFoundException if the files aren't found
+	 */
+	@Test
+	public void testReport() throws FileNotFoundException {
+		ReportManager rm = new ReportManager("input/landmarks_sample.csv", "input/trails_sample.csv");
+		TrailManager tm = rm.getTrailManager();
+		StationCoverage coverage = tm.getStationCoverage("L01", "L11");
+		TrailGraph graph = tm.getTrailGraph();
+		assertEquals(coverage.nearestStation(graph.getOrdinal("L12")), graph.getOrdinal("L11"));
+		assertEquals(coverage.distance(graph.getOrdinal("L12")), 1066);
+		assertEquals(coverage.nearestStation(graph.getOrdinal("L08")), graph.getOrdinal("L01"));
+		assertEquals(coverage.uncovered(), 1);
+		assertThrows(IllegalArgumentException.class, () -> tm.getStationCoverage("L01", "L99"));
+		assertThrows(IllegalArgumentException.class, () -> tm.getStationCoverage());
+
+		assertEquals(rm.getCoverageReport(new ArrayList<String>()), "At least one first aid station is required.");
+		assertEquals(rm.getCoverageReport(Arrays.asList("L01", "L99")),
+				"The provided landmark ID (L99) is invalid for the park.");
+		assertEquals(rm.getCoverageReport(Arrays.asList("L01", "L11")), "First Aid Coverage {\n"
+				+ "   Park Entrance (L01) is nearest for 9 landmarks, the farthest 11092 feet (2.10 miles) away\n"
+				+ "   Campsite 1 (L11) is nearest for 1 landmark, the farthest 1066 feet away\n"
+				+ "   Worst covered: Overlook Restrooms (L08), 11092 feet (2.10 miles) from Park Entrance (L01)\n"
+				+ "   1 landmark cannot reach a station\n"
+				+ "}\n");
+	}
+}
@@ -0,0 +1,269 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.data.Landmark;
+
+/**
+ * Tests for TrailGraph.java
+ * @author Ben Morris
+ */
+public class TrailGraphTest {
+	/** TrailGraph */
+	private TrailGraph graph;
+
+	/**
+	 * Setup for tests. Builds a small graph of four Landmarks and three trails
+	 */
+	@BeforeEach
+	public void setup() {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		builder.addLandmark(new Landmark("L01", "Park Entrance", "Location"));
+		builder.addLandmark(new Landmark("L02", "Entrance Fountain", "Fountain"));
+		builder.addLandmark(new Landmark("L03", "Waste Station 1", "Pet Waste Station"));
+		builder.addLandmark(new Landmark("L04", "Hidden Campsite", "Campsite"));
+		assertTrue(builder.addTrail("L01", "L02", 3013));
+		assertTrue(builder.addTrail("L03", "L01", 1046));
+		assertTrue(builder.addTrail("L02", "L03", 500));
+		// Trails to unknown Landmarks are skipped
+		assertFalse(builder.addTrail("L01", "L99", 10));
+		graph = builder.build();
+	}
+
+	/**
+	 * Tests ordinals and Landmark lookup
+	 */
+	@Test
+	public void testOrdinals() {
+		assertEquals(graph.size(), 4);
+		assertEquals(graph.getTrailCount(), 3);
+		assertEquals(graph.getOrdinal("L01"), 0);
+		assertEquals(graph.getOrdinal("L04"), 3);
+		assertEquals(graph.getOrdinal("L99"), -1);
+		assertEquals(graph.getLandmark(2).getId(), "L03");
+	}
+
+	/**
+	 * Tests degrees and the contiguous edge rows
+	 */
+	@Test
+	public void testEdges() {
+		assertEquals(graph.degree(0), 2);
+		assertEquals(graph.degree(3), 0);
+		assertEquals(graph.getMaxDegree(), 2);
+
+		// Edges of L01 are stored in file order
+		int edge = graph.edgeStart(0);
+		assertEquals(graph.edgeEnd(0) - edge, 2);
+		assertEquals(graph.neighbor(edge), 1);
+		assertEquals(graph.length(edge), 3013);
+		assertEquals(graph.neighbor(edge + 1), 2);
+		assertEquals(graph.length(edge + 1), 1046);
+
+		// Each trail is stored at both end points
+		edge = graph.edgeStart(2);
+		assertEquals(graph.neighbor(edge), 0);
+		assertEquals(graph.length(edge), 1046);
+		assertEquals(graph.edgeStart(3), graph.edgeEnd(3));
+	}
+
+	/**
+	 * Tests that a repeated Landmark ID replaces the earlier Landmark
+	 */
+	@Test
+	public void testDuplicateLandmark() {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		assertEquals(builder.addLandmark(new Landmark("L01", "Old", "Location")), 0);
+		assertEquals(builder.addLandmark(new Landmark("L01", "New", "Location")), 0);
+		TrailGraph g = builder.build();
+		assertEquals(g.size(), 1);
+		assertEquals(g.getLandmark(0).getDescription(), "New");
+	}
+
+	/**
+	 * Tests adding and removing trails in place
+	 */
+	@Test
+	public void testUpdateTrails() {
+		assertFalse(graph.isForest());
+		assertTrue(graph.removeTrail("L02", "L03", 500));
+		assertFalse(graph.removeTrail("L02", "L03", 500));
+		assertEquals(graph.getTrailCount(), 2);
+		assertEquals(graph.degree(1), 1);
+
+		// L04 fills its empty row and then outgrows it
+		for (int i = 1; i <= 5; i++) {
+			assertTrue(graph.addTrail("L04", "L01", i * 100));
+		}
+		assertFalse(graph.addTrail("L04", "L99", 10));
+		assertEquals(graph.getTrailCount(), 7);
+		assertEquals(graph.degree(3), 5);
+		assertEquals(graph.degree(0), 7);
+		assertEquals(graph.getMaxDegree(), 7);
+		assertEquals(graph.neighbor(graph.edgeEnd(3) - 1), 0);
+		assertEquals(graph.length(graph.edgeEnd(3) - 1), 500);
+
+		// Removing the busiest Landmark's trails walks the maximum back down
+		for (int i = 1; i <= 5; i++) {
+			assertTrue(graph.removeTrail("L01", "L04", i * 100));
+		}
+		assertEquals(graph.getMaxDegree(), 2);
+		assertEquals(graph.degree(3), 0);
+
+		// A trail from a Landmark to itself is stored twice in its own row
+		assertTrue(graph.addTrail("L02", "L02", 40));
+		assertEquals(graph.degree(1), 3);
+		assertTrue(graph.removeTrail("L02", "L02", 40));
+		assertEquals(graph.degree(1), 1);
+		assertThrows(IllegalArgumentException.class, () -> graph.addTrail("L01", "L02", -1));
+	}
+
+	/**
+	 * Tests adding and removing Landmarks in place
+	 */
+	@Test
+	public void testUpdateLandmarks() {
+		assertEquals(graph.addLandmark(new Landmark("L01", "Copy", "Location")), -1);
+		assertEquals(graph.addLandmark(new Landmark("L05", "Overlook", "Location")), 4);
+		assertEquals(graph.size(), 5);
+		assertTrue(graph.addTrail("L05", "L04", 75));
+
+		// Removing L01 takes its two trails with it
+		assertTrue(graph.removeLandmark("L01"));
+		assertFalse(graph.removeLandmark("L01"));
+		assertEquals(graph.getOrdinal("L01"), -1);
+		assertNull(graph.getLandmark(0));
+		assertEquals(graph.getLandmarkCount(), 4);
+		assertEquals(graph.getTrailCount(), 2);
+		assertEquals(graph.degree(1), 1);
+		assertEquals(graph.degree(2), 1);
+
+		// The empty ordinal is reused
+		assertEquals(graph.addLandmark(new Landmark("L06", "Bridge", "Location")), 0);
+		assertEquals(graph.size(), 5);
+		assertEquals(graph.getOrdinal("L06"), 0);
+		assertEquals(graph.degree(0), 0);
+	}
+
+	/**
+	 * Tests that a forest stays a forest until a trail closes a loop
+	 */
+	@Test
+	public void testUpdateForest() {
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		builder.addLandmark(new Landmark("L01", "Park Entrance", "Location"));
+		builder.addLandmark(new Landmark("L02", "Entrance Fountain", "Fountain"));
+		builder.addLandmark(new Landmark("L03", "Waste Station 1", "Pet Waste Station"));
+		builder.addTrail("L01", "L02", 10);
+		TrailGraph tree = builder.build();
+		assertTrue(tree.isForest());
+		assertTrue(tree.addTrail("L02", "L03", 20));
+		assertTrue(tree.isForest());
+		assertTrue(tree.addTrail("L03", "L01", 30));
+		assertFalse(tree.isForest());
+
+		// Taking the loop apart makes a forest again once the components are found
+		assertTrue(tree.removeTrail("L03", "L01", 30));
+		tree.updateForest(new ComponentIndex(tree));
+		assertTrue(tree.isForest());
+
+		// Putting a removed trail back between the same pair
+		assertTrue(tree.removeTrail("L02", "L03", 20));
+		assertTrue(tree.addTrail("L02", "L03", 25));
+		tree.updateForest(new ComponentIndex(tree));
+		assertTrue(tree.isForest());
+
+		// A reused ordinal joins as a new Landmark, whatever it was connected to before
+		assertTrue(tree.removeLandmark("L01"));
+		assertTrue(tree.addLandmark(new Landmark("L04", "Bridge", "Location")) >= 0);
+		assertTrue(tree.addTrail("L04", "L03", 40));
+		assertTrue(tree.addTrail("L04", "L02", 50));
+		assertFalse(tree.isForest());
+		tree.updateForest(new ComponentIndex(tree));
+		assertFalse(tree.isForest());
+		assertTrue(tree.removeTrail("L02", "L03", 25));
+		tree.updateForest(new ComponentIndex(tree));
+		assertTrue(tree.isForest());
+	}
+
+	/**
+	 * Tests that many random updates leave the same distances as building the final
+	 * network from scratch
+	 */
+	@Test
+	public void testRandomUpdates() {
+		Random random = new Random(316);
+		int ids = 40;
+		// Trails currently in the updated graph, as {one, two, length}
+		List<int[]> trails = new ArrayList<int[]>();
+		boolean[] present = new boolean[ids];
+		TrailGraph updated = new TrailGraph.Builder().build();
+		for (int step = 0; step < 3000; step++) {
+			int action = random.nextInt(10);
+			int one = random.nextInt(ids);
+			int two = random.nextInt(ids);
+			if (action == 0) {
+				if (present[one] && updated.removeLandmark("L" + one)) {
+					present[one] = false;
+					for (Iterator<int[]> it = trails.iterator(); it.hasNext();) {
+						int[] t = it.next();
+						if (t[0] == one || t[1] == one)
+							it.remove();
+					}
+				}
+			} else if (action < 3) {
+				if (!present[one]) {
+					assertTrue(updated.addLandmark(new Landmark("L" + one, "Landmark " + one, "Location")) >= 0);
+					present[one] = true;
+				}
+			} else if (action < 5 && !trails.isEmpty()) {
+				int[] t = trails.remove(random.nextInt(trails.size()));
+				assertTrue(updated.removeTrail("L" + t[0], "L" + t[1], t[2]));
+			} else if (present[one] && present[two]) {
+				int length = random.nextInt(500);
+				assertTrue(updated.addTrail("L" + one, "L" + two, length));
+				trails.add(new int[] {one, two, length});
+			}
+		}
+
+		// Build the same network from scratch
+		TrailGraph.Builder builder = new TrailGraph.Builder();
+		for (int id = 0; id < ids; id++) {
+			if (present[id])
+				builder.addLandmark(new Landmark("L" + id, "Landmark " + id, "Location"));
+		}
+		for (int[] t : trails) {
+			builder.addTrail("L" + t[0], "L" + t[1], t[2]);
+		}
+		TrailGraph rebuilt = builder.build();
+		assertEquals(updated.getTrailCount(), rebuilt.getTrailCount());
+		assertEquals(updated.getLandmarkCount(), rebuilt.size());
+		assertEquals(updated.getMaxDegree(), rebuilt.getMaxDegree());
+		if (!rebuilt.isForest())
+			assertFalse(updated.isForest());
+		updated.updateForest(new ComponentIndex(updated));
+		assertEquals(updated.isForest(), rebuilt.isForest());
+
+		DistanceEngine updatedEngine = new DistanceEngine(updated);
+		DistanceEngine rebuiltEngine = new DistanceEngine(rebuilt);
+		for (int id = 0; id < ids; id++) {
+			if (!present[id])
+				continue;
+			int[] expected = rebuiltEngine.getDistances(rebuilt.getOrdinal("L" + id));
+			int[] actual = updatedEngine.getDistances(updated.getOrdinal("L" + id));
+			for (int o = 0; o < rebuilt.size(); o++) {
+				String other = rebuilt.getLandmark(o).getId();
+				assertEquals(actual[updated.getOrdinal(other)], expected[o]);
+				assertEquals(updated.degree(updated.getOrdinal(other)), rebuilt.degree(o));
+			}
+		}
+	}
+}
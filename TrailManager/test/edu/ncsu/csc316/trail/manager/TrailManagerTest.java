@@ -1,14 +1,21 @@
 package edu.ncsu.csc316.trail.manager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import edu.ncsu.csc316.trail.data.Landmark;
+
 /**
  * Tests for TrailManager Class
  * @author Ben Morris
@@ -61,7 +68,14 @@ public class TrailManagerTest {
 	 */
 	@Test
 	public void testGetProposedFirstAidLocations() {		
-		assertEquals(tm.getLtMap(), tm.getProposedFirstAidLocations(10));
+		// Only Park Entrance has three intersecting trails
+		Landmark[] locations = tm.getProposedFirstAidLocations(3);
+		assertEquals(locations.length, 1);
+		assertEquals(locations[0].getId(), "L01");
+		
+		// Every Landmark but the Hidden Campsite intersects a trail
+		assertEquals(tm.getProposedFirstAidLocations(1).length, 12);
+		assertEquals(tm.getProposedFirstAidLocations(10).length, 0);
 	}
 	
 	/**
@@ -73,6 +87,17 @@ public class TrailManagerTest {
 		assertEquals(tm.getDistancesToDestinations("L04").size(), 9);
 	}
 	
+	/**
+	 * Test for getDistance()
+	 */
+	@Test
+	public void testGetDistance() {
+		assertEquals(tm.getDistance("L01", "L08"), 11092);
+		assertEquals(tm.getDistance("L08", "L01"), 11092);
+		assertEquals(tm.getDistance("L01", "L11"), DistanceEngine.UNREACHABLE);
+		assertEquals(tm.getDistance("L01", "L20"), DistanceEngine.UNREACHABLE);
+	}
+	
 	/**
 	 * Test for maxIntersections()
 	 */
@@ -81,6 +106,23 @@ public class TrailManagerTest {
 		assertEquals(tm.getMaxIntersections(), 3);		
 	}
 	
+	/**
+	 * Test for loading a directory of sharded files of Trails
+	 * @throws IOException if the shards can't be written
+	 */
+	@Test
+	public void testShardedTrails() throws IOException {
+		Path dir = Files.createTempDirectory("trails");
+		String header = "LANDMARK_ID,LANDMARK_ID,DISTANCE\n";
+		Files.write(dir.resolve("part-1.csv"), (header + "L01,L02,3013\nL01,L03,1046\n").getBytes());
+		Files.write(dir.resolve("part-2.csv"), (header + "L11,L12,1066\n").getBytes());
+		
+		TrailManager sharded = new TrailManager(LANDMARK_PATH, dir.toString());
+		assertEquals(sharded.getTrailGraph().getTrailCount(), 3);
+		assertEquals(sharded.getDistancesToDestinations("L02").size(), 2);
+		assertEquals(sharded.getDistance("L12", "L11"), 1066);
+	}
+	
 	/**
 	 * Test for getLandmarkByID()
 	 */
@@ -92,4 +134,58 @@ public class TrailManagerTest {
 		// Test a nonexistent ID
 		assertNull(tm.getLandmarkByID("L20"));
 	}
+	
+	/**
+	 * Test for updating the Landmarks and Trails in place
+	 */
+	@Test
+	public void testUpdates() {
+		long version = tm.getVersion();
+		assertEquals(tm.getMaxIntersections(), 3);
+		
+		// Close a trail and open a connector
+		assertTrue(tm.removeTrail("L01", "L02", 3013));
+		assertFalse(tm.removeTrail("L01", "L02", 3013));
+		assertTrue(tm.getVersion() > version);
+		assertEquals(tm.getMaxIntersections(), 2);
+		assertTrue(tm.addLandmark(new Landmark("L20", "Connector Bridge", "Bridge")));
+		assertFalse(tm.addLandmark(new Landmark("L20", "Connector Bridge", "Bridge")));
+		assertTrue(tm.addTrail("L20", "L11", 150));
+		assertFalse(tm.addTrail("L20", "L99", 150));
+		assertEquals(tm.getDistance("L12", "L20"), 1216);
+		assertEquals(tm.getLandmarkByID("L20").getDescription(), "Connector Bridge");
+		
+		// Removing a Landmark takes its trails with it
+		assertTrue(tm.removeLandmark("L11"));
+		assertNull(tm.getLandmarkByID("L11"));
+		assertEquals(tm.getDistance("L12", "L20"), DistanceEngine.UNREACHABLE);
+		assertEquals(tm.getDistancesToDestinations("L20").size(), 0);
+	}
+	
+	/**
+	 * Test that an update publishes a new park and leaves the one a query holds alone
+	 */
+	@Test
+	public void testUpdatesCopyTheGraph() {
+		TrailNetwork before = tm.getNetwork();
+		TrailGraph graph = tm.getTrailGraph();
+		int trails = graph.getTrailCount();
+		int distance = before.getDistance("L12", "L01");
+		
+		assertTrue(tm.removeTrail("L01", "L02", 3013));
+		assertTrue(tm.removeLandmark("L11"));
+		assertTrue(tm.getNetwork() != before);
+		assertTrue(tm.getTrailGraph() != graph);
+		assertEquals(tm.getTrailGraph().getTrailCount(), trails - 2);
+		
+		// The old park still answers as it did
+		assertEquals(graph.getTrailCount(), trails);
+		assertEquals(graph.getLandmark(graph.getOrdinal("L11")).getId(), "L11");
+		assertEquals(before.getDistance("L12", "L01"), distance);
+		
+		// A failed update publishes nothing
+		TrailNetwork after = tm.getNetwork();
+		assertFalse(tm.removeTrail("L01", "L02", 3013));
+		assertTrue(tm.getNetwork() == after);
+	}
 }
@@ -0,0 +1,161 @@
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for TrailMetrics.java
+ * @author Ben Morris
+ */
+public class TrailMetricsTest {
+
+	/**
+	 * Tests recording phases, visits and report latencies
+	 */
+	@Test
+	public void testRecord() {
+		TrailMetrics metrics = new TrailMetrics();
+		metrics.record(TrailMetrics.Phase.PARSE, 1500);
+		metrics.record(TrailMetrics.Phase.PARSE, 500);
+		metrics.record(TrailMetrics.Phase.SORT, 7);
+		metrics.recordVisits(10, 18);
+		metrics.recordVisits(2, 2);
+		assertEquals(metrics.getParseNanos(), 2000);
+		assertEquals(metrics.getRuns(TrailMetrics.Phase.PARSE), 2);
+		assertEquals(metrics.getSortNanos(), 7);
+		assertEquals(metrics.getRenderNanos(), 0);
+		assertEquals(metrics.getLandmarksVisited(), 12);
+		assertEquals(metrics.getTrailsVisited(), 20);
+
+		// 50us, 2ms and 20s, the last slower than every bucket
+		metrics.record(TrailMetrics.Report.DISTANCES, 50000);
+		metrics.record(TrailMetrics.Report.DISTANCES, 2000000);
+		metrics.record(TrailMetrics.Report.DISTANCES, 20000000000L);
+		assertEquals(metrics.getDistancesQueries(), 3);
+		assertEquals(metrics.getDistancesNanos(), 20002050000L);
+		assertEquals(metrics.getFirstAidQueries(), 0);
+	}
+
+	/**
+	 * Tests the Prometheus text
+	 * @throws IOException if the text can't be written
+	 */
+	@Test
+	public void testWritePrometheus() throws IOException {
+		TrailMetrics metrics = new TrailMetrics();
+		metrics.record(TrailMetrics.Phase.TRAVERSAL, 250000000);
+		metrics.recordVisits(4, 6);
+		metrics.record(TrailMetrics.Report.FIRST_AID, 300000);
+		metrics.record(TrailMetrics.Report.FIRST_AID, 100000);
+
+		StringWriter out = new StringWriter();
+		metrics.writePrometheus(out);
+		String text = out.toString();
+		assertEquals(text, metrics.getPrometheusText());
+		assertTrue(text.contains("# TYPE trail_phase_seconds_total counter\n"));
+		assertTrue(text.contains("trail_phase_seconds_total{phase=\"traversal\"} 0.25\n"));
+		assertTrue(text.contains("trail_phase_runs_total{phase=\"traversal\"} 1\n"));
+		assertTrue(text.contains("trail_landmarks_visited_total 4\n"));
+		assertTrue(text.contains("trail_trails_visited_total 6\n"));
+
+		// Buckets are cumulative, and a time on a bound falls in that bucket
+		assertTrue(text.contains("# TYPE trail_report_duration_seconds histogram\n"));
+		assertTrue(text.contains("trail_report_duration_seconds_bucket{report=\"first_aid\",le=\"0.0001\"} 1\n"));
+		assertTrue(text.contains("trail_report_duration_seconds_bucket{report=\"first_aid\",le=\"0.00025\"} 1\n"));
+		assertTrue(text.contains("trail_report_duration_seconds_bucket{report=\"first_aid\",le=\"0.0005\"} 2\n"));
+		assertTrue(text.contains("trail_report_duration_seconds_bucket{report=\"first_aid\",le=\"+Inf\"} 2\n"));
+		assertTrue(text.contains("trail_report_duration_seconds_sum{report=\"first_aid\"} 4.0E-4\n"));
+		assertTrue(text.contains("trail_report_duration_seconds_count{report=\"first_aid\"} 2\n"));
+		assertTrue(text.contains("trail_report_duration_seconds_count{report=\"distances\"} 0\n"));
+	}
+
+	/**
+	 * Tests writing the metrics to a file
+	 * @throws IOException if the file can't be written
+	 */
+	@Test
+	public void testDump() throws IOException {
+		TrailMetrics metrics = new TrailMetrics();
+		metrics.record(TrailMetrics.Phase.INDEX, 1000);
+		Path directory = Files.createTempDirectory("trail-metrics");
+		Path file = directory.resolve("trail.prom");
+		try {
+			metrics.dump(file);
+			metrics.dump(file);
+			assertEquals(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), metrics.getPrometheusText());
+			assertFalse(Files.exists(directory.resolve("trail.prom.tmp")));
+		} finally {
+			Files.deleteIfExists(file);
+			Files.delete(directory);
+		}
+	}
+
+	/**
+	 * Tests reading the metrics over JMX
+	 * @throws JMException if the metrics can't be registered or read
+	 */
+	@Test
+	public void testRegister() throws JMException {
+		TrailMetrics metrics = new TrailMetrics();
+		metrics.record(TrailMetrics.Phase.RANK, 42);
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = metrics.register("TrailMetricsTest");
+		try {
+			assertEquals(name, TrailMetrics.objectName("TrailMetricsTest"));
+			assertEquals(server.getAttribute(name, "RankNanos"), 42L);
+			assertEquals(server.getAttribute(name, "PrometheusText"), metrics.getPrometheusText());
+
+			// The name is taken
+			assertThrows(JMException.class, () -> new TrailMetrics().register("TrailMetricsTest"));
+		} finally {
+			TrailMetrics.unregister("TrailMetricsTest");
+		}
+		assertFalse(server.isRegistered(name));
+		TrailMetrics.unregister("TrailMetricsTest");
+	}
+
+	/**
+	 * Tests that loading a park and creating reports records each phase
+	 * @throws IOException if the files can't be read or the report written
+	 */
+	@Test
+	public void testReportManager() throws IOException {
+		ReportManager rm = new ReportManager("input/landmarks_sample.csv", "input/trails_sample.csv", null, 0, 0);
+		TrailMetrics metrics = rm.getMetrics();
+		assertSame(metrics, rm.getTrailManager().getMetrics());
+		assertEquals(metrics.getRuns(TrailMetrics.Phase.PARSE), 1);
+		// The graph, then its components
+		assertEquals(metrics.getRuns(TrailMetrics.Phase.INDEX), 2);
+		assertEquals(metrics.getRuns(TrailMetrics.Phase.RANK), 1);
+		assertEquals(metrics.getRuns(TrailMetrics.Phase.SNAPSHOT), 0);
+
+		rm.getDistancesReport("L01");
+		rm.writeDistancesReport("L01", new StringWriter());
+		rm.getProposedFirstAidLocations(2);
+		rm.writeProposedFirstAidLocations(2, new StringWriter());
+		assertEquals(metrics.getDistancesQueries(), 2);
+		assertEquals(metrics.getFirstAidQueries(), 2);
+		assertEquals(metrics.getTraversals(), 2);
+		assertEquals(metrics.getRuns(TrailMetrics.Phase.SORT), 2);
+		assertEquals(metrics.getRuns(TrailMetrics.Phase.RENDER), 4);
+		// Every Landmark reachable from L01, itself included, is settled once per search
+		assertEquals(metrics.getLandmarksVisited(), 20);
+		assertTrue(metrics.getTrailsVisited() > 0);
+
+		// A reload keeps counting into the same metrics
+		rm.reload();
+		assertEquals(metrics.getRuns(TrailMetrics.Phase.PARSE), 2);
+	}
+}
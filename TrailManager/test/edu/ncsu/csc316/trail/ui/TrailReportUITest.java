@@ -0,0 +1,99 @@
+package edu.ncsu.csc316.trail.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.manager.ReportManager;
+
+/**
+ * Tests for TrailReportUI.java
+ * @author Ben Morris
+ */
+public class TrailReportUITest {
+	/** Landmarks file path */
+	private static final String LANDMARK_PATH = "input/landmarks_sample.csv";
+	/** Trails file path */
+	private static final String TRAILS_PATH = "input/trails_sample.csv";
+
+	/**
+	 * Tests running a batch of queries against one park
+	 * @throws IOException if the park can't be loaded or the reports written
+	 */
+	@Test
+	public void testRunQueries() throws IOException {
+		ReportManager rm = new ReportManager(LANDMARK_PATH, TRAILS_PATH);
+		String queries = "# nightly reports\n"
+				+ "firstaid 3\n"
+				+ "\n"
+				+ "  distances   L01  \n"
+				+ "distances L99\n"
+				+ "firstaid three\n"
+				+ "FIRSTAID 0\n";
+		StringWriter out = new StringWriter();
+		assertEquals(TrailReportUI.runQueries(rm, new BufferedReader(new StringReader(queries)), out), 5);
+
+		// Each report is echoed, written in full and followed by its time
+		String results = out.toString().replaceAll("duration: \\d+\\.\\d{3} ms", "duration: X ms");
+		assertEquals(results, "> firstaid 3\n" + rm.getProposedFirstAidLocations(3) + "\nduration: X ms\n\n"
+				+ "> distances   L01\n" + rm.getDistancesReport("L01") + "\nduration: X ms\n\n"
+				+ "> distances L99\n" + rm.getDistancesReport("L99") + "\nduration: X ms\n\n"
+				+ "> firstaid three\nInvalid query on line 6. Use firstaid N or distances ID.\nduration: X ms\n\n"
+				+ "> FIRSTAID 0\nNumber of intersecting trails must be greater than 0.\nduration: X ms\n\n"
+				+ "5 queries, duration: X ms\n");
+	}
+
+	/**
+	 * Tests batch mode from the command line, reading queries from a file and writing
+	 * the results to another
+	 * @throws IOException if the files can't be written
+	 */
+	@Test
+	public void testRunBatch() throws IOException {
+		Path directory = Files.createTempDirectory("trail-batch");
+		// A directory of Trails is read as one file
+		Path trails = Files.createDirectory(directory.resolve("trails"));
+		Files.copy(Paths.get(TRAILS_PATH), trails.resolve("part1.csv"));
+		Path queries = directory.resolve("queries.txt");
+		Path output = directory.resolve("results.txt");
+		Files.write(queries, "distances L11\nfirstaid 2\n".getBytes(StandardCharsets.UTF_8));
+		try {
+			TrailReportUI.runBatch(new String[] {LANDMARK_PATH, trails.toString(), queries.toString(),
+					output.toString()});
+			String results = new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+			ReportManager rm = new ReportManager(LANDMARK_PATH, TRAILS_PATH);
+			assertTrue(results.startsWith("> distances L11\n" + rm.getDistancesReport("L11")));
+			assertTrue(results.contains("> firstaid 2\n" + rm.getProposedFirstAidLocations(2)));
+			assertTrue(results.contains("2 queries, duration: "));
+
+			assertThrows(FileNotFoundException.class, () -> TrailReportUI.runBatch(
+					new String[] {"input/missing.csv", TRAILS_PATH}));
+		} finally {
+			Files.deleteIfExists(output);
+			Files.deleteIfExists(queries);
+			Files.deleteIfExists(trails.resolve("part1.csv"));
+			Files.deleteIfExists(directory.resolve("trails.snapshot"));
+			Files.deleteIfExists(trails);
+			Files.delete(directory);
+		}
+	}
+
+	/**
+	 * Tests the snapshot path kept next to a file or directory of Trails
+	 */
+	@Test
+	public void testSnapshotPath() {
+		assertEquals(TrailReportUI.snapshotPath("input/trails.csv"), "input/trails.csv.snapshot");
+		assertEquals(TrailReportUI.snapshotPath("input/trails/"), "input/trails.snapshot");
+	}
+}
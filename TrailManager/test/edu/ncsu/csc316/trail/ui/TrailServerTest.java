@@ -0,0 +1,257 @@
+package edu.ncsu.csc316.trail.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc316.trail.manager.ReportManager;
+
+/**
+ * Tests for TrailServer.java. The server listens on a free port of the loopback address.
+ * @author Ben Morris
+ */
+public class TrailServerTest {
+	/** Landmarks on the greenway of the stalled client test, enough to overflow the socket buffers */
+	private static final int GREENWAY_LANDMARKS = 150000;
+	/** Reports of the park being served */
+	private ReportManager rm;
+	/** Server under test */
+	private TrailServer server;
+
+	/**
+	 * Loads the sample park and starts serving it
+	 * @throws IOException if the park can't be loaded or the port bound
+	 */
+	@BeforeEach
+	public void setUp() throws IOException {
+		rm = new ReportManager("input/landmarks_sample.csv", "input/trails_sample.csv");
+		server = new TrailServer(rm, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		server.start();
+	}
+
+	/**
+	 * Stops the server
+	 */
+	@AfterEach
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	/**
+	 * Tests the distances report
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testDistances() throws IOException {
+		assertResponse("GET", "/distances?from=L01", 200, rm.getDistancesReport("L01"));
+		assertResponse("GET", "/distances?from=L99", 404, rm.getDistancesReport("L99"));
+		assertResponse("GET", "/distances", 400, "The from parameter is required.");
+		assertResponse("POST", "/distances?from=L01", 405, "Only GET is allowed.");
+	}
+
+	/**
+	 * Tests the first aid report
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testFirstAid() throws IOException {
+		assertResponse("GET", "/firstaid?min=2", 200, rm.getProposedFirstAidLocations(2));
+		assertResponse("GET", "/firstaid?min=2&limit=2", 200, rm.getTopFirstAidLocations(2, 2));
+		assertResponse("GET", "/firstaid?min=9", 200, rm.getProposedFirstAidLocations(9));
+		assertResponse("GET", "/firstaid?min=zero", 400, "Number of intersecting trails must be greater than 0.");
+		assertResponse("GET", "/firstaid?min=1&limit=0", 400, "Number of locations must be greater than 0.");
+	}
+
+	/**
+	 * Tests looking up a Landmark
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testLandmark() throws IOException {
+		assertResponse("GET", "/landmark?id=L01", 200,
+				"{\"id\":\"L01\",\"description\":\"Park Entrance\",\"type\":\"Location\"}");
+		assertResponse("GET", "/landmark?id=L99", 404, "The provided landmark ID (L99) is invalid for the park.");
+		assertResponse("GET", "/landmark", 400, "The id parameter is required.");
+		assertTrue(get("/metrics").contains("trail_report_duration_seconds_count{report=\"distances\"}"));
+	}
+
+	/**
+	 * Tests many requests at once against the one park
+	 * @throws Exception if a request fails
+	 */
+	@Test
+	public void testConcurrentRequests() throws Exception {
+		final String[] origins = {"L01", "L05", "L11", "L99"};
+		List<Callable<String>> requests = new ArrayList<Callable<String>>();
+		for (int i = 0; i < 200; i++) {
+			final String origin = origins[i % origins.length];
+			requests.add(new Callable<String>() {
+				@Override
+				public String call() throws IOException {
+					return get("/distances?from=" + origin);
+				}
+			});
+		}
+		ExecutorService clients = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<String>> responses = clients.invokeAll(requests);
+			for (int i = 0; i < responses.size(); i++) {
+				assertEquals(responses.get(i).get(), rm.getDistancesReport(origins[i % origins.length]));
+			}
+		} finally {
+			clients.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that a client that stops reading a long report doesn't hold off updates or
+	 * other requests
+	 * @throws Exception if the park can't be written or a request fails
+	 */
+	@Test
+	public void testStalledClient() throws Exception {
+		// One long greenway, so its distances report is megabytes long
+		Path directory = Files.createTempDirectory("trail-server");
+		Path landmarks = directory.resolve("landmarks.csv");
+		Path trails = directory.resolve("trails.csv");
+		StringBuilder landmarkLines = new StringBuilder("LANDMARK_ID,DESCRIPTION,TYPE\n");
+		StringBuilder trailLines = new StringBuilder("LANDMARK_ID,LANDMARK_ID,DISTANCE\n");
+		for (int i = 0; i < GREENWAY_LANDMARKS; i++) {
+			landmarkLines.append('G').append(i).append(",Greenway Marker ").append(i).append(",Location\n");
+			if (i > 0)
+				trailLines.append('G').append(i - 1).append(",G").append(i).append(",10\n");
+		}
+		Files.write(landmarks, landmarkLines.toString().getBytes(StandardCharsets.UTF_8));
+		Files.write(trails, trailLines.toString().getBytes(StandardCharsets.UTF_8));
+
+		final ReportManager greenway = new ReportManager(landmarks.toString(), trails.toString());
+		TrailServer greenwayServer = new TrailServer(greenway, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		greenwayServer.start();
+		Socket client = new Socket();
+		ExecutorService updater = Executors.newSingleThreadExecutor();
+		try {
+			// Ask for the report, read its first byte, then stop reading
+			client.setReceiveBufferSize(1024);
+			client.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), greenwayServer.getPort()));
+			OutputStream request = client.getOutputStream();
+			request.write("GET /distances?from=G0 HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+			request.flush();
+			assertTrue(client.getInputStream().read() >= 0);
+			Thread.sleep(500);
+
+			// An update finishes, and so does a request after it
+			Future<Boolean> update = updater.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					return greenway.getTrailManager().addTrail("G0", "G2", 5);
+				}
+			});
+			assertTrue(update.get(10, TimeUnit.SECONDS));
+			HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:"
+					+ greenwayServer.getPort() + "/landmark?id=G1").openConnection();
+			connection.setReadTimeout(10000);
+			assertEquals(connection.getResponseCode(), 200);
+			read(connection.getInputStream());
+		} finally {
+			client.close();
+			updater.shutdown();
+			greenwayServer.stop(0);
+			Files.delete(landmarks);
+			Files.delete(trails);
+			Files.delete(directory);
+		}
+	}
+
+	/**
+	 * Tests parsing query parameters and writing JSON strings
+	 */
+	@Test
+	public void testHelpers() {
+		Map<String, String> parameters = TrailServer.parameters(URI.create("/x?from=L%2001&min=+3&from=L02&flag"));
+		assertEquals(parameters.get("from"), "L 01");
+		assertEquals(parameters.get("min"), " 3");
+		assertEquals(parameters.get("flag"), "");
+		assertTrue(TrailServer.parameters(URI.create("/x")).isEmpty());
+
+		StringBuilder json = new StringBuilder();
+		TrailServer.appendJson(json, "Say \"hi\"\\\n");
+		assertEquals(json.toString(), "\"Say \\\"hi\\\"\\\\\\u000a\"");
+	}
+
+	/**
+	 * Sends a request and checks the response
+	 * @param method HTTP method
+	 * @param path path and query of the request
+	 * @param status expected status
+	 * @param body expected body
+	 * @throws IOException if the request fails
+	 */
+	private void assertResponse(String method, String path, int status, String body) throws IOException {
+		HttpURLConnection connection = open(path);
+		connection.setRequestMethod(method);
+		assertEquals(connection.getResponseCode(), status);
+		InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+		assertEquals(read(in), body);
+	}
+
+	/**
+	 * Sends a GET request that should succeed or find no Landmark
+	 * @param path path and query of the request
+	 * @return body of the response
+	 * @throws IOException if the request fails
+	 */
+	private String get(String path) throws IOException {
+		HttpURLConnection connection = open(path);
+		return read(connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream());
+	}
+
+	/**
+	 * Opens a connection to the server
+	 * @param path path and query of the request
+	 * @return the connection
+	 * @throws IOException if the connection can't be opened
+	 */
+	private HttpURLConnection open(String path) throws IOException {
+		return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+	}
+
+	/**
+	 * Reads a whole response body
+	 * @param in the body
+	 * @return the body as text
+	 * @throws IOException if the body can't be read
+	 */
+	private static String read(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+			bytes.write(buffer, 0, n);
+		}
+		in.close();
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+}